@@ -31,6 +31,9 @@ public class BootstrapExtension extends GroovyObjectSupport {
     private final Property<Configuration> bootModules;
     private final Property<Configuration> bootstrapClasspath;
     private final ListProperty<String> jvmArgs;
+    private final Property<String> transformer;
+    private final Property<Boolean> image;
+    private final ListProperty<String> aotTrainingArgs;
     private final List<Action<CopySpec>> resources;
     private final ListProperty<Provider<? extends Task>> dependencies;
 
@@ -47,6 +50,9 @@ public class BootstrapExtension extends GroovyObjectSupport {
         this.jvmArgs.set(providerFactory.provider(() -> List.of(
                 "--add-opens", "java.base/java.lang.invoke=" + LauncherConstants.MODULE_JAR
         )));
+        this.transformer = objectFactory.property(String.class);
+        this.image = objectFactory.property(Boolean.class).convention(false);
+        this.aotTrainingArgs = objectFactory.listProperty(String.class);
         this.resources = new ArrayList<>();
         this.dependencies = objectFactory.listProperty((Class<Provider<? extends Task>>) (Class<?>) Provider.class);
     }
@@ -75,6 +81,31 @@ public class BootstrapExtension extends GroovyObjectSupport {
         return this.jvmArgs;
     }
     
+    /**
+     * The name of a {@code ClassTransformer} class, that is applied to the bootstrap classpath ahead of time. The
+     * transformer is loaded from the boot modules and the {@code classTransformer} configuration. When set, the
+     * transformed jars replace the bootstrap classpath.
+     */
+    public Property<String> getTransformer() {
+        return this.transformer;
+    }
+
+    /**
+     * Whether the distribution should contain a bootstrap image of the bootstrap classpath, that is loaded instead of
+     * the individual jars. Defaults to {@code false}.
+     */
+    public Property<Boolean> getImage() {
+        return this.image;
+    }
+
+    /**
+     * The program arguments for the AOT training run. The application is expected to exit on its own when launched
+     * with these arguments.
+     */
+    public ListProperty<String> getAotTrainingArgs() {
+        return this.aotTrainingArgs;
+    }
+
     public void copy(Action<CopySpec> action) {
         this.resources.add(action);
     }
@@ -2,6 +2,7 @@ package bootstrap.gradle;
 
 import bootstrap.api.LauncherConstants;
 import bootstrap.gradle.script.BootstrapScriptGenerator;
+import bootstrap.jar.classloading.OfflineTransformer;
 import org.gradle.api.NamedDomainObjectProvider;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
@@ -14,13 +15,18 @@ import org.gradle.api.file.FileCollection;
 import org.gradle.api.plugins.*;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.Copy;
+import org.gradle.api.tasks.Exec;
 import org.gradle.api.tasks.JavaExec;
+import org.gradle.api.tasks.Sync;
 import org.gradle.api.tasks.TaskProvider;
 import org.gradle.api.tasks.application.CreateStartScripts;
 import org.gradle.jvm.tasks.Jar;
 import org.gradle.jvm.toolchain.JavaToolchainService;
 import org.jetbrains.annotations.NotNullByDefault;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 @NotNullByDefault
@@ -28,7 +34,17 @@ public class BootstrapGradlePlugin implements Plugin<Project> {
 
     public static final String BOOTSTRAP_EXTENSION_NAME = "bootstrap";
     public static final String BOOT_MODULES_CONFIGURATION_NAME = "bootModules";
+    public static final String CLASS_TRANSFORMER_CONFIGURATION_NAME = "classTransformer";
     public static final String TASK_APP_HOME_NAME = "setupAppHome";
+    public static final String TASK_JAR_INDEX_NAME = "indexJars";
+    public static final String TASK_TRANSFORM_NAME = "transformClasses";
+    public static final String TRANSFORM_TOOL_CLASS = "bootstrap.launcher.tool.TransformTool";
+    public static final String TASK_IMAGE_NAME = "bootstrapImage";
+    public static final String IMAGE_FILE_NAME = "bootstrap.image";
+    public static final String IMAGE_TOOL_CLASS = "bootstrap.launcher.tool.ImageTool";
+    public static final String TASK_AOT_TRAINING_NAME = "aotTrainingRun";
+    public static final String TASK_INSTALL_AOT_CACHE_NAME = "installAotCache";
+    public static final String AOT_CACHE_FILE_NAME = "app.aot";
     
     @Override
     public void apply(Project project) {
@@ -40,6 +56,10 @@ public class BootstrapGradlePlugin implements Plugin<Project> {
             configuration.setCanBeConsumed(false);
             configuration.setCanBeResolved(true);
         });
+        NamedDomainObjectProvider<Configuration> classTransformer = project.getConfigurations().register(CLASS_TRANSFORMER_CONFIGURATION_NAME, configuration -> {
+            configuration.setCanBeConsumed(false);
+            configuration.setCanBeResolved(true);
+        });
         NamedDomainObjectProvider<Configuration> compileClasspath = project.getConfigurations().named(JavaPlugin.COMPILE_CLASSPATH_CONFIGURATION_NAME);
         NamedDomainObjectProvider<Configuration> runtimeClasspath = project.getConfigurations().named(JavaPlugin.RUNTIME_CLASSPATH_CONFIGURATION_NAME);
         compileClasspath.configure(configuration -> configuration.extendsFrom(bootModules.get()));
@@ -49,10 +69,49 @@ public class BootstrapGradlePlugin implements Plugin<Project> {
         bootstrapExt.getBootstrapClasspath().convention(runtimeClasspath);
 
         TaskProvider<Jar> jarTask = project.getTasks().named(JavaPlugin.JAR_TASK_NAME, Jar.class);
-        Provider<FileCollection> bootstrapClasspath = project.provider(() -> project
+        Provider<FileCollection> sourceClasspath = project.provider(() -> project
                 .files(bootstrapExt.getBootstrapClasspath().get(), jarTask.get().getArchiveFile())
                 .builtBy(jarTask, bootstrapExt.getDependencies())
         );
+
+        TaskProvider<JavaExec> transformTask = project.getTasks().register(TASK_TRANSFORM_NAME, JavaExec.class, task -> {
+            task.setGroup("distribution");
+            task.dependsOn(jarTask);
+            task.dependsOn(bootstrapExt.getDependencies());
+            task.setClasspath(project.files().from(bootstrapExt.getBootModules(), classTransformer));
+            task.getMainModule().set(LauncherConstants.MODULE_LAUNCHER);
+            task.getMainClass().set(TRANSFORM_TOOL_CLASS);
+            task.getJvmArguments().set(bootstrapExt.getJvmArgs().map(args -> Stream.concat(Stream.of("--add-modules", "ALL-MODULE-PATH"), args.stream()).toList()));
+            task.getModularity().getInferModulePath().set(true);
+            task.getInputs().files(sourceClasspath);
+            task.getInputs().property("transformer", bootstrapExt.getTransformer().orElse(""));
+            task.getOutputs().dir(project.getLayout().getBuildDirectory().dir(task.getName()));
+
+            JavaPluginExtension javaExt = project.getExtensions().getByType(JavaPluginExtension.class);
+            JavaToolchainService toolchainExt = project.getExtensions().getByType(JavaToolchainService.class);
+            task.getJavaLauncher().convention(toolchainExt.launcherFor(javaExt.getToolchain()));
+        });
+
+        project.afterEvaluate(_ -> transformTask.configure(task -> {
+            task.args(
+                    bootstrapExt.getTransformer().getOrElse(""),
+                    task.getOutputs().getFiles().getSingleFile().getAbsolutePath(),
+                    sourceClasspath.map(FileCollection::getAsPath).get()
+            );
+        }));
+
+        // With a class transformer, the transformed jars replace the classpath. The transform tool names them by
+        // their index on the classpath, so the classpath order is retained and entries with the same file name
+        // don't collide.
+        Provider<FileCollection> bootstrapClasspath = project.provider(() -> {
+            if (!bootstrapExt.getTransformer().isPresent()) return sourceClasspath.get();
+            File outputDir = transformTask.get().getOutputs().getFiles().getSingleFile();
+            List<File> files = new ArrayList<>();
+            for (File file : sourceClasspath.get().getFiles()) {
+                files.add(new File(outputDir, OfflineTransformer.targetFileName(files.size(), file.toPath())));
+            }
+            return project.files(files).builtBy(transformTask);
+        });
         
         TaskProvider<Copy> appHomeTask = project.getTasks().register(TASK_APP_HOME_NAME, Copy.class, task -> {
             task.setGroup("application");
@@ -103,12 +162,82 @@ public class BootstrapGradlePlugin implements Plugin<Project> {
             task.setDefaultJvmOpts(bootstrapExt.getJvmArgs().get());
         }));
 
+        TaskProvider<JarIndexTask> jarIndexTask = project.getTasks().register(TASK_JAR_INDEX_NAME, JarIndexTask.class, task -> {
+            task.setGroup("distribution");
+            task.dependsOn(jarTask);
+            task.dependsOn(bootstrapExt.getDependencies());
+            task.getJars().from(bootstrapClasspath);
+            task.getDestinationDirectory().set(project.getLayout().getBuildDirectory().dir(task.getName()));
+        });
+
+        TaskProvider<JavaExec> imageTask = project.getTasks().register(TASK_IMAGE_NAME, JavaExec.class, task -> {
+            task.setGroup("distribution");
+            task.dependsOn(jarTask);
+            task.dependsOn(bootstrapExt.getDependencies());
+            task.setClasspath(project.files().from(bootstrapExt.getBootModules()));
+            task.getMainModule().set(LauncherConstants.MODULE_LAUNCHER);
+            task.getMainClass().set(IMAGE_TOOL_CLASS);
+            task.getJvmArguments().set(bootstrapExt.getJvmArgs());
+            task.getModularity().getInferModulePath().set(true);
+            task.getInputs().files(bootstrapClasspath);
+            task.getOutputs().file(project.getLayout().getBuildDirectory().file(task.getName() + "/" + IMAGE_FILE_NAME));
+
+            // The image is only valid for the Java version it was built with, so build it with the application toolchain.
+            JavaPluginExtension javaExt = project.getExtensions().getByType(JavaPluginExtension.class);
+            JavaToolchainService toolchainExt = project.getExtensions().getByType(JavaToolchainService.class);
+            task.getJavaLauncher().convention(toolchainExt.launcherFor(javaExt.getToolchain()));
+        });
+
+        project.afterEvaluate(_ -> imageTask.configure(task -> task.args(
+                task.getOutputs().getFiles().getSingleFile().getAbsolutePath(),
+                bootstrapClasspath.map(FileCollection::getAsPath).get()
+        )));
+
+        TaskProvider<Sync> installTask = project.getTasks().named(DistributionPlugin.TASK_INSTALL_NAME, Sync.class);
+        TaskProvider<Exec> aotTrainingTask = project.getTasks().register(TASK_AOT_TRAINING_NAME, Exec.class, task -> {
+            task.setGroup("distribution");
+            task.dependsOn(installTask);
+        });
+
+        // AOT caches only work with the exact JVM build they were created with, so they are created from the installed
+        // distribution instead of being shipped with it. The cache is written to the build directory, as the install
+        // task owns the installed distribution and removes anything it didn't copy itself.
+        project.afterEvaluate(_ -> aotTrainingTask.configure(task -> {
+            File installDir = installTask.get().getDestinationDir();
+            File aotCache = project.getLayout().getBuildDirectory().file(task.getName() + "/" + AOT_CACHE_FILE_NAME).get().getAsFile();
+            File installedCache = new File(installDir, "lib/" + AOT_CACHE_FILE_NAME);
+            boolean windows = System.getProperty("os.name", "").startsWith("Windows");
+            JavaPluginExtension javaExt = project.getExtensions().getByType(JavaPluginExtension.class);
+            JavaToolchainService toolchainExt = project.getExtensions().getByType(JavaToolchainService.class);
+            File javaHome = toolchainExt.launcherFor(javaExt.getToolchain()).get().getMetadata().getInstallationPath().getAsFile();
+
+            task.setWorkingDir(installDir);
+            task.setExecutable(new File(installDir, "bin/" + bootstrapExt.getApplicationName().get() + (windows ? ".bat" : "")).getAbsolutePath());
+            task.setArgs(bootstrapExt.getAotTrainingArgs().get());
+            task.environment("JAVA_HOME", javaHome.getAbsolutePath());
+            task.environment("JDK_JAVA_OPTIONS", "\"-XX:AOTCacheOutput=" + aotCache.getAbsolutePath().replace('\\', '/') + "\"");
+            task.getOutputs().file(aotCache);
+            // The start scripts would use an installed cache during the training run.
+            task.doFirst(_ -> {
+                aotCache.delete();
+                installedCache.delete();
+            });
+        }));
+
+        // The start scripts use the cache if it exists. Installing the distribution again removes it, as it only
+        // matches the jars it was trained with.
+        project.getTasks().register(TASK_INSTALL_AOT_CACHE_NAME, Copy.class, task -> {
+            task.setGroup("distribution");
+            task.from(aotTrainingTask);
+            task.into(installTask.map(install -> new File(install.getDestinationDir(), "lib")));
+        });
+
         DistributionContainer distributions = project.getExtensions().getByType(DistributionContainer.class);
         Distribution distribution = distributions.getByName(DistributionPlugin.MAIN_DISTRIBUTION_NAME);
-        this.configureDistribution(project, distribution, bootstrapExt, bootModules, bootstrapClasspath, startScriptsTask);
+        this.configureDistribution(project, distribution, bootstrapExt, bootModules, bootstrapClasspath, startScriptsTask, jarIndexTask, imageTask);
     }
     
-    private void configureDistribution(Project project, Distribution distribution, BootstrapExtension bootstrapExt, Provider<Configuration> bootModules, Provider<FileCollection> bootstrapClasspath, TaskProvider<CreateStartScripts> startScriptsTask) {
+    private void configureDistribution(Project project, Distribution distribution, BootstrapExtension bootstrapExt, Provider<Configuration> bootModules, Provider<FileCollection> bootstrapClasspath, TaskProvider<CreateStartScripts> startScriptsTask, TaskProvider<JarIndexTask> jarIndexTask, TaskProvider<JavaExec> imageTask) {
         distribution.getDistributionBaseName().convention(bootstrapExt.getApplicationName());
 
         CopySpec binarySpec = project.copySpec();
@@ -123,9 +252,18 @@ public class BootstrapGradlePlugin implements Plugin<Project> {
         CopySpec bootstrapClasspathSpec = project.copySpec();
         bootstrapClasspathSpec.into("lib/classpath");
         bootstrapClasspathSpec.from(bootstrapClasspath);
+        // Index files are picked up at runtime when they are next to their jars.
+        bootstrapClasspathSpec.from(jarIndexTask);
 
         distribution.getContents().with(binarySpec, bootModulesSpec, bootstrapClasspathSpec);
 
+        CopySpec imageSpec = project.copySpec();
+        imageSpec.into("lib");
+        imageSpec.from(imageTask);
+        project.afterEvaluate(_ -> {
+            if (bootstrapExt.getImage().get()) distribution.getContents().with(imageSpec);
+        });
+
         project.getGradle().projectsEvaluated(_ -> bootstrapExt.configureCopySpec(distribution.getContents()));
     }
 }
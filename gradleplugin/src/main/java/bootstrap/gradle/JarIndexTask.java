@@ -0,0 +1,46 @@
+package bootstrap.gradle;
+
+import bootstrap.jar.JarIndex;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.tasks.*;
+import org.jetbrains.annotations.NotNullByDefault;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a {@link JarIndex jar index} for every jar archive in {@link #getJars() jars} into the destination
+ * directory. The index files need to be placed next to their jars to be picked up at runtime.
+ */
+@NotNullByDefault
+public abstract class JarIndexTask extends DefaultTask {
+
+    @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public abstract ConfigurableFileCollection getJars();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getDestinationDirectory();
+
+    @Inject
+    protected abstract FileSystemOperations getFileSystemOperations();
+
+    @TaskAction
+    public void writeIndices() throws IOException {
+        File destination = this.getDestinationDirectory().get().getAsFile();
+        this.getFileSystemOperations().delete(spec -> spec.delete(destination));
+        Path destinationPath = Files.createDirectories(destination.toPath());
+        for (File file : this.getJars().getFiles()) {
+            if (!file.isFile()) continue;
+            if (!JarIndex.write(file.toPath(), destinationPath.resolve(file.getName() + JarIndex.EXTENSION))) {
+                this.getLogger().info("Skipping jar index for {}: Archive can't be indexed.", file.getName());
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package bootstrap.gradle.script;
 
 import bootstrap.api.LauncherConstants;
 import bootstrap.gradle.BootstrapExtension;
+import bootstrap.gradle.BootstrapGradlePlugin;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.provider.Provider;
@@ -15,7 +16,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @NotNullByDefault
@@ -62,7 +62,8 @@ public class BootstrapScriptGenerator implements ScriptGenerator {
         return Map.of(
                 "@@@MODULE_PATH@@@", this.buildFilePath("lib/boot", this.bootstrapExt.getBootModules().get()),
                 "@@@MAIN_MODULE@@@", this.shellEscape(this.bootstrapExt.getMainModule().get()),
-                "@@@JVM_ARGS@@@", this.getCombinedJvmArgs()
+                "@@@JVM_ARGS@@@", this.getCombinedJvmArgs(),
+                "@@@AOT_CACHE@@@", this.buildAppPath("lib/" + BootstrapGradlePlugin.AOT_CACHE_FILE_NAME)
         );
     }
     
@@ -70,6 +71,9 @@ public class BootstrapScriptGenerator implements ScriptGenerator {
         List<String> jvmArgs = new ArrayList<>();
         jvmArgs.add(this.shellEscape("-D" + LauncherConstants.PROP_CLASSPATH + "=") + this.buildFilePath("lib/classpath", this.bootstrapClasspath.get()));
         jvmArgs.add(this.shellEscape("-D" + LauncherConstants.PROP_HOME + "=") + this.shellVariable("APP_HOME"));
+        if (this.bootstrapExt.getImage().get()) {
+            jvmArgs.add(this.shellEscape("-D" + LauncherConstants.PROP_IMAGE + "=") + this.buildAppPath("lib/" + BootstrapGradlePlugin.IMAGE_FILE_NAME));
+        }
         if (this.bootstrapExt.getEntrypoint().isPresent()) {
             jvmArgs.add(this.shellEscape("-D" + LauncherConstants.PROP_ENTRYPOINT + "=" + this.bootstrapExt.getEntrypoint().get()));
         }
@@ -78,17 +82,17 @@ public class BootstrapScriptGenerator implements ScriptGenerator {
     }
     
     private String buildFilePath(String basePath, FileCollection fc) {
-        String sep;
-        Function<String, String> nameMapper;
+        String sep = this.windows ? ";" : ":";
+        Set<File> files = fc instanceof Configuration configuration ? configuration.resolve() : fc.getFiles();
+        return files.stream().map(File::getName).sorted().map(name -> this.buildAppPath(basePath + "/" + name)).collect(Collectors.joining(sep));
+    }
+
+    private String buildAppPath(String path) {
         if (this.windows) {
-            sep = ";";
-            nameMapper = name -> this.shellVariable("APP_HOME") + this.shellEscape("\\" + basePath.replace("/", "\\") + "\\" + name);
+            return this.shellVariable("APP_HOME") + this.shellEscape("\\" + path.replace("/", "\\"));
         } else {
-            sep = ":";
-            nameMapper = name -> this.shellVariable("APP_HOME") + this.shellEscape("/" + basePath + "/" + name);
+            return this.shellVariable("APP_HOME") + this.shellEscape("/" + path);
         }
-        Set<File> files = fc instanceof Configuration configuration ? configuration.resolve() : fc.getFiles();
-        return files.stream().map(File::getName).sorted().map(nameMapper).collect(Collectors.joining(sep));
     }
     
     private String shellVariable(String var) {
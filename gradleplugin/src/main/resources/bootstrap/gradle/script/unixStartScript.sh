@@ -46,6 +46,9 @@ set -- "--module" @@@MAIN_MODULE@@@ "$@"
 if [ -f "${APP_HOME}/conf/jvm_args.txt" ]; then
   set -- "@${APP_HOME}/conf/jvm_args.txt" "$@"
 fi
+if [ -f @@@AOT_CACHE@@@ ]; then
+  set -- "-XX:AOTCache="@@@AOT_CACHE@@@ "$@"
+fi
 set -- "--module-path" @@@MODULE_PATH@@@ "--add-modules" "ALL-DEFAULT" "--add-modules" "ALL-MODULE-PATH" @@@JVM_ARGS@@@ "$@"
 
 POSIXLY_CORRECT="${OLD_POSIXLY_CORRECT}"
@@ -0,0 +1,54 @@
+package bootstrap.jar.util;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the name checks done for every class loaded through a loader pool: The class name is validated and the
+ * resource name of the class file is normalized.
+ */
+@NotNullByDefault
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameHelperBenchmark {
+
+    @Param({"java.util.concurrent.ConcurrentHashMap", "bootstrap.jar.impl.classloading.ModularClassLoader$1", "a.b.package-info"})
+    public String className = "";
+
+    private String resourceName = "";
+
+    @Setup
+    public void setup() {
+        this.resourceName = this.className.replace('.', '/') + ".class";
+    }
+
+    @Benchmark
+    public void validateAndNormalize(Blackhole blackhole) {
+        blackhole.consume(NameHelper.validLoadableClassName(this.className));
+        blackhole.consume(NameHelper.normalizeResourceName(this.resourceName));
+    }
+
+    // The previous split and stream based checks without the reserved word lookup, to compare against.
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        int idx = this.className.lastIndexOf('.');
+        String packageName = this.className.substring(0, idx);
+        String simpleName = this.className.substring(idx + 1);
+        boolean valid = java.util.Arrays.stream(packageName.split("\\.", -1)).allMatch(NameHelperBenchmark::regexIdentifier)
+                && (regexIdentifier(simpleName) || "package-info".equals(simpleName));
+        blackhole.consume(valid);
+        blackhole.consume(this.resourceName.replaceAll("(^/+)|(/+$)|(/(?=/+))", ""));
+    }
+
+    private static boolean regexIdentifier(String ident) {
+        if (ident.isEmpty() || !Character.isJavaIdentifierStart(Character.codePointAt(ident, 0))) return false;
+        return ident.codePoints().skip(1).allMatch(Character::isJavaIdentifierPart);
+    }
+}
@@ -0,0 +1,30 @@
+package bootstrap.jar;
+
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A {@link JarModuleFinder} over the contents of one or more directories. Every jar archive and every subdirectory
+ * of a directory is treated as a module, like on the module path. If a module is found in multiple directories, the
+ * first directory wins.
+ * <p>
+ * The directories are scanned when the finder is created. Later changes to the directories are only picked up by
+ * {@link #rescan()}. Module references found before a rescan stay valid, as long as their files are not removed.
+ */
+@NotNullByDefault
+public interface DirectoryModuleFinder extends JarModuleFinder {
+
+    /**
+     * Gets the directories scanned by this finder.
+     */
+    List<Path> directories();
+
+    /**
+     * Scans the directories again. Only entries that were added or changed since the last scan are opened again,
+     * removed entries are dropped. Returns whether any module was added, changed or removed.
+     */
+    boolean rescan() throws IOException;
+}
@@ -1,7 +1,9 @@
 package bootstrap.jar;
 
+import bootstrap.jar.classloading.ClassIndex;
 import bootstrap.jar.impl.JarFactory;
 import bootstrap.jar.impl.JarPatcher;
+import bootstrap.jar.impl.classloading.ClassIndexScanner;
 import org.jetbrains.annotations.NotNullByDefault;
 
 import java.io.IOException;
@@ -62,6 +64,17 @@ public interface Jar {
      */
     Path getPath(String first, String... more);
 
+    /**
+     * Gets the {@link ClassIndex} of this jar file, that records the supertypes and runtime-visible annotations of
+     * every class in the jar. The index is built on first use. If the jar was created with a {@link JarMetadataCache},
+     * the index is loaded from and stored into that cache.
+     * <p>
+     * The default implementation scans the {@link #reference() module reference} on every call.
+     */
+    default ClassIndex classIndex() throws IOException {
+        return ClassIndexScanner.scan(this.reference());
+    }
+
     /**
      * Gets the module name of this jar file.
      */
@@ -111,6 +124,22 @@ public interface Jar {
         return JarFactory.create(filter, paths);
     }
 
+    /**
+     * Creates a jar from the provided paths using the provided filter. If the jar has been built with the same
+     * inputs before, its metadata is loaded from the provided cache instead of scanning the jar.
+     */
+    static Jar of(JarMetadataCache cache, JarMetadataFilter filter, Path... paths) throws IOException {
+        return of(cache, filter, Arrays.asList(paths));
+    }
+
+    /**
+     * Creates a jar from the provided paths using the provided filter. If the jar has been built with the same
+     * inputs before, its metadata is loaded from the provided cache instead of scanning the jar.
+     */
+    static Jar of(JarMetadataCache cache, JarMetadataFilter filter, List<Path> paths) throws IOException {
+        return JarFactory.create(cache, filter, paths);
+    }
+
     /**
      * Creates a jar with no resources that declares the provided packages. Useful if one wishes to generate classes
      * into these packages at runtime.
@@ -0,0 +1,37 @@
+package bootstrap.jar;
+
+import bootstrap.jar.impl.image.ImageJarFactory;
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Image files bundle many {@link Jar jars} into a single uncompressed file.
+ * <p>
+ * An image holds the contents of every jar together with its finished manifest and module descriptor. Opening an
+ * image maps the file into memory once and builds all jars from the precomputed metadata, instead of opening and
+ * scanning every archive on its own. Images depend on the Java version they were built with and can't be used with
+ * other versions.
+ */
+@NotNullByDefault
+public class JarImage {
+
+    private JarImage() {}
+
+    /**
+     * Builds the jars for the provided paths using the provided filter, and writes them into an image file. Each path
+     * becomes its own jar, as if created through {@link Jar#of(JarMetadataFilter, Path...)}.
+     */
+    public static void write(List<Path> paths, JarMetadataFilter filter, Path target) throws IOException {
+        ImageJarFactory.write(paths, filter, target);
+    }
+
+    /**
+     * Opens an image file and returns its jars in the order they were written.
+     */
+    public static List<Jar> open(Path image) throws IOException {
+        return ImageJarFactory.open(image);
+    }
+}
@@ -0,0 +1,50 @@
+package bootstrap.jar;
+
+import bootstrap.jar.impl.ArchiveIndex;
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Prebuilt indices for jar archives.
+ * <p>
+ * An index is a sidecar file next to a jar archive, that holds the packages, services, multi-release versions and
+ * resource names of the archive. When a {@link Jar} is created from a single archive that has a matching index, the
+ * index is used instead of scanning the archive and lookups of missing resources are answered from the index. An
+ * index only matches an archive if it was built from an archive with the same size and central directory, outdated
+ * indices are ignored.
+ */
+@NotNullByDefault
+public class JarIndex {
+
+    /**
+     * The file extension of index files, that is appended to the file name of the archive.
+     */
+    public static final String EXTENSION = ArchiveIndex.EXTENSION;
+
+    private JarIndex() {}
+
+    /**
+     * Gets the location, where the index for the provided archive is looked up.
+     */
+    public static Path sidecar(Path archive) {
+        return ArchiveIndex.sidecar(archive);
+    }
+
+    /**
+     * Writes the index for an archive to its {@link #sidecar(Path) sidecar} location. Returns {@code false} if the
+     * archive can't be indexed.
+     */
+    public static boolean write(Path archive) throws IOException {
+        return write(archive, sidecar(archive));
+    }
+
+    /**
+     * Writes the index for an archive to the provided file. The index is only used when it is placed at the
+     * {@link #sidecar(Path) sidecar} location of the archive. Returns {@code false} if the archive can't be indexed.
+     */
+    public static boolean write(Path archive, Path target) throws IOException {
+        return ArchiveIndex.write(archive, target);
+    }
+}
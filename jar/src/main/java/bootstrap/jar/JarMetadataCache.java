@@ -0,0 +1,44 @@
+package bootstrap.jar;
+
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A persistent cache for the metadata of {@link Jar jars}, that allows {@link Jar#of(JarMetadataCache, JarMetadataFilter, List)}
+ * to skip scanning a jar, if it has not changed since the last time it was built.
+ * <p>
+ * Entries are keyed by the location, size and modification time of every path of the jar, the
+ * {@link JarMetadataFilter#fingerprint() fingerprint} of the metadata filter and the runtime version. Only jars that
+ * are built from archive files on the default file system are cached, jars with directory roots are always scanned.
+ */
+@NotNullByDefault
+public final class JarMetadataCache {
+
+    private final Path location;
+
+    private JarMetadataCache(Path location) {
+        this.location = location.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Creates a {@link JarMetadataCache} that stores its entries in the given directory. The directory is created
+     * when the first entry is written.
+     */
+    public static JarMetadataCache directory(Path directory) {
+        return new JarMetadataCache(directory);
+    }
+
+    /**
+     * Gets the directory, that holds the entries of this cache.
+     */
+    public Path location() {
+        return this.location;
+    }
+
+    @Override
+    public String toString() {
+        return "JarMetadataCache[" + this.location + "]";
+    }
+}
@@ -60,6 +60,17 @@ public interface JarMetadataFilter {
         return descriptor;
     }
 
+    /**
+     * Returns a string that identifies the behaviour of this filter. Two filters with the same fingerprint must
+     * produce the same results for the same jar. The fingerprint is part of the key for {@link JarMetadataCache jar
+     * metadata caches}, so jars built with a filter that has no fingerprint are never cached.
+     *
+     * @return The fingerprint of this filter or an empty optional if the results of this filter can't be cached.
+     */
+    default Optional<String> fingerprint() {
+        return Optional.empty();
+    }
+
     /**
      * Creates a {@link JarMetadataFilter} that applies the given filter in that order.
      */
@@ -1,10 +1,13 @@
 package bootstrap.jar;
 
+import bootstrap.jar.impl.finder.DirectoryModuleFinderImpl;
 import bootstrap.jar.impl.finder.JarModuleFinderImpl;
 import org.jetbrains.annotations.NotNullByDefault;
 
+import java.io.IOException;
 import java.lang.module.ModuleFinder;
 import java.lang.module.ModuleReference;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -33,4 +36,29 @@ public interface JarModuleFinder extends ModuleFinder {
     static JarModuleFinder of(List<Jar> jars) {
         return new JarModuleFinderImpl(jars);
     }
+
+    /**
+     * Returns a {@link DirectoryModuleFinder module finder} that finds modules from the jar archives and exploded
+     * modules in the given directories. Jars are opened in parallel.
+     */
+    static DirectoryModuleFinder ofDirectories(JarMetadataFilter filter, Path... directories) throws IOException {
+        return ofDirectories(filter, Arrays.asList(directories));
+    }
+
+    /**
+     * Returns a {@link DirectoryModuleFinder module finder} that finds modules from the jar archives and exploded
+     * modules in the given directories. Jars are opened in parallel.
+     */
+    static DirectoryModuleFinder ofDirectories(JarMetadataFilter filter, List<Path> directories) throws IOException {
+        return new DirectoryModuleFinderImpl(directories, null, filter);
+    }
+
+    /**
+     * Returns a {@link DirectoryModuleFinder module finder} that finds modules from the jar archives and exploded
+     * modules in the given directories. Jars are opened in parallel and their metadata is loaded from the provided
+     * cache if possible.
+     */
+    static DirectoryModuleFinder ofDirectories(JarMetadataCache cache, JarMetadataFilter filter, List<Path> directories) throws IOException {
+        return new DirectoryModuleFinderImpl(directories, cache, filter);
+    }
 }
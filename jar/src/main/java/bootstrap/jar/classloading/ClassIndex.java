@@ -0,0 +1,39 @@
+package bootstrap.jar.classloading;
+
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An index of the classes in one or more modules, that allows finding classes by their annotations or supertypes
+ * without loading or transforming them. Class names are binary names, such as {@code java.util.Map$Entry}.
+ *
+ * @see bootstrap.jar.Jar#classIndex()
+ * @see ModuleLoaderPool#classIndex(String)
+ */
+@NotNullByDefault
+public interface ClassIndex {
+
+    /**
+     * Gets the metadata of a class. The returned {@link Optional} is empty if the class is not part of this index.
+     */
+    Optional<ClassMetadata> find(String className);
+
+    /**
+     * Gets the metadata of all classes in this index, ordered by class name.
+     */
+    Collection<ClassMetadata> classes();
+
+    /**
+     * Gets all classes in this index, that carry the given runtime-visible annotation, ordered by class name.
+     * Annotations inherited through {@link java.lang.annotation.Inherited} are not taken into account.
+     */
+    List<ClassMetadata> annotatedWith(String annotationName);
+
+    /**
+     * Gets all classes in this index, that directly extend or implement the given type, ordered by class name.
+     */
+    List<ClassMetadata> directSubtypes(String typeName);
+}
@@ -0,0 +1,42 @@
+package bootstrap.jar.classloading;
+
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The metadata of a class as recorded in a {@link ClassIndex}. All class names are binary names, such as
+ * {@code java.util.Map$Entry}. The metadata describes the class file as found in the module, before any
+ * {@link ClassTransformer} was applied.
+ */
+@NotNullByDefault
+public interface ClassMetadata {
+
+    /**
+     * Gets the name of the class.
+     */
+    String name();
+
+    /**
+     * Gets the access flags of the class, as defined in the class file.
+     */
+    int accessFlags();
+
+    /**
+     * Gets the name of the superclass. The {@link Optional} is empty for {@code java.lang.Object} and
+     * {@code module-info} classes.
+     */
+    Optional<String> superclass();
+
+    /**
+     * Gets the names of the interfaces directly implemented by the class.
+     */
+    List<String> interfaces();
+
+    /**
+     * Gets the names of the runtime-visible annotations on the class itself.
+     */
+    Set<String> annotations();
+}
@@ -4,6 +4,8 @@ import bootstrap.jar.impl.classloading.ModularClassLoader;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Optional;
+
 /**
  * A transformer to transform raw class data as it is loaded in a {@link ModularClassLoader}.
  */
@@ -38,6 +40,23 @@ public interface ClassTransformer {
      */
     byte[] transformClass(TransformingEnvironment env, String moduleName, String className, byte[] classData, String reason);
 
+    /**
+     * Identifies this transformer for {@link OfflineTransformer offline transformation}. Modules that were transformed
+     * ahead of time by a transformer with the same fingerprint are not transformed again when loaded. A transformer
+     * should only provide a fingerprint if its output depends on nothing but the classes it can see, and the
+     * fingerprint must change whenever its output changes.
+     * <p>
+     * The output must also not depend on the {@code reason} of the transformation. Modules are transformed ahead of
+     * time with {@link #REASON_CLASSLOADING}, and the stored classes are then returned for every reason, including
+     * {@link #REASON_RESOURCE}. A transformer that treats resource requests differently must not provide a
+     * fingerprint.
+     * <p>
+     * The default implementation returns an empty {@link Optional}, so the transformer can't be applied ahead of time.
+     */
+    default Optional<String> fingerprint() {
+        return Optional.empty();
+    }
+
     /**
      * Returns a {@link ClassTransformer} that does not transform any classes.
      */
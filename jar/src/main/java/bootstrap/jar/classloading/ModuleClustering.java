@@ -0,0 +1,54 @@
+package bootstrap.jar.classloading;
+
+import bootstrap.jar.impl.classloading.AdaptiveClustering;
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.lang.module.Configuration;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A clustering function for a {@link ModuleLoaderPool}, that was computed ahead of time for a
+ * {@link Configuration configuration}. It assigns a cluster identifier to every module of the configuration.
+ */
+@NotNullByDefault
+public interface ModuleClustering extends Function<String, String> {
+
+    /**
+     * Gets the cluster identifier of a module.
+     *
+     * @throws IllegalArgumentException If the module is not part of the configuration this clustering was computed for.
+     */
+    @Override
+    String apply(String moduleName);
+
+    /**
+     * Gets the module names in every cluster by cluster identifier.
+     */
+    Map<String, Set<String>> clusters();
+
+    /**
+     * Gets the number of class loaders, a {@link ModuleLoaderPool} creates with this clustering.
+     */
+    default int loaderCount() {
+        return this.clusters().size();
+    }
+
+    /**
+     * Gets a rough estimate of the memory in bytes, that the class loaders of a {@link ModuleLoaderPool} need with
+     * this clustering before any class is loaded. This accounts for the fixed cost of each loader and its package
+     * mappings and is meant to compare clusterings, not to predict the actual footprint.
+     */
+    long estimatedMemory();
+
+    /**
+     * Computes a clustering from the module graph of a configuration, that uses as few class loaders as possible.
+     * Modules that read each other in a cycle are kept together where possible. A module is only placed in a
+     * separate loader, if it would otherwise see a package from two different modules, for example because
+     * two modules in the configuration contain the same package.
+     */
+    static ModuleClustering adaptive(Configuration configuration) {
+        return AdaptiveClustering.compute(configuration);
+    }
+}
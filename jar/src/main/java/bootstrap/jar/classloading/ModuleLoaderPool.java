@@ -1,13 +1,19 @@
 package bootstrap.jar.classloading;
 
+import bootstrap.jar.Jar;
+import bootstrap.jar.impl.classloading.LayerRedefinition;
 import bootstrap.jar.impl.classloading.LoaderPoolController;
 import bootstrap.jar.impl.classloading.LoaderPoolImpl;
 import org.jetbrains.annotations.NotNullByDefault;
 
+import java.io.IOException;
 import java.lang.module.Configuration;
+import java.lang.module.ModuleFinder;
 import java.net.URL;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 @NotNullByDefault
@@ -39,6 +45,26 @@ public interface ModuleLoaderPool extends Function<String, ClassLoader> {
      */
     ClassDiscovery discovery(String moduleName);
 
+    /**
+     * Gets the {@link ClassIndex} of a module, that allows finding classes by their annotations and supertypes
+     * without loading them. The index describes the class files before transformation and does not include runtime
+     * classes. It is built on first use. For modules from a {@link Jar}, this is the {@link Jar#classIndex() index of
+     * the jar}.
+     *
+     * @throws IllegalArgumentException if the module is not known to this loader pool.
+     * @throws IOException If the classes of the module can't be read.
+     */
+    ClassIndex classIndex(String moduleName) throws IOException;
+
+    /**
+     * Gets a {@link ClassIndex} over all modules of this loader pool. The indices of the modules are built in
+     * parallel on first use.
+     *
+     * @throws IOException If the classes of a module can't be read.
+     * @see #classIndex(String)
+     */
+    ClassIndex classIndex() throws IOException;
+
     /**
      * Adds a runtime class to this pool. Runtime classes can only be added to packages that already exist
      * in a module. If a runtime class is added that already exists, the call is silently ignored. Runtime classes
@@ -65,6 +91,14 @@ public interface ModuleLoaderPool extends Function<String, ClassLoader> {
         return define(name, configuration, parentLayers, transformer, Function.identity());
     }
 
+    /**
+     * Creates a loader pool with an {@link ModuleClustering#adaptive(Configuration) adaptive clustering} and defines a
+     * module layer from that pool. Modules share loaders unless their packages conflict.
+     */
+    static ModuleLoaderPool.Controller defineWithAdaptiveLoaders(String name, Configuration configuration, List<ModuleLayer> parentLayers, ClassTransformer transformer) {
+        return define(name, configuration, parentLayers, transformer, ModuleClustering.adaptive(configuration));
+    }
+
     /**
      * Creates a loader pool and defines a module layer from that pool. Care has to be taken if the
      * {@link ModuleLayer.Controller#addReads(Module, Module)} method from the returned controller is used. It
@@ -75,6 +109,56 @@ public interface ModuleLoaderPool extends Function<String, ClassLoader> {
         return new LoaderPoolController((LoaderPoolImpl) pool, ModuleLayer.defineModules(configuration, parentLayers, pool));
     }
 
+    /**
+     * Defines a new layer from the modules of a previously defined layer with some modules removed, added or replaced.
+     * The module references of unchanged modules are reused, so their jars are not opened or scanned again. The new
+     * layer has the same parent layers as the previous layer, but uses new class loaders. Runtime classes and reads
+     * added through the previous controller are not carried over. The previous layer and its pool are not retained by
+     * the new layer, they can be unloaded as soon as they are no longer used.
+     * <p>
+     * The added modules can only depend on modules of the previous layer and its parents. Use
+     * {@link #redefine(Controller, Set, List, ModuleFinder, ClassTransformer, Function)} to add new dependencies.
+     *
+     * @param previous The controller of the previous layer.
+     * @param removedModules The names of modules to remove from the layer.
+     * @param addedModules Jars to add to the layer. If a jar provides a module that is already part of the previous
+     *                     layer, it replaces that module.
+     * @param transformer A {@link ClassTransformer} to transform classes loaded by the new pool.
+     * @param cluster The clustering function for the new pool, see {@link #create(String, Configuration, List, ClassTransformer, Function)}.
+     * @throws IllegalArgumentException If multiple added jars provide the same module.
+     * @throws java.lang.module.FindException If a required module can't be found.
+     * @throws java.lang.module.ResolutionException If the changed set of modules can't be resolved.
+     */
+    static ModuleLoaderPool.Controller redefine(ModuleLoaderPool.Controller previous, Set<String> removedModules, List<Jar> addedModules, ClassTransformer transformer, Function<String, String> cluster) {
+        return redefine(previous, removedModules, addedModules, ModuleFinder.of(), transformer, cluster);
+    }
+
+    /**
+     * Defines a new layer from the modules of a previously defined layer with some modules removed, added or replaced,
+     * see {@link #redefine(Controller, Set, List, ClassTransformer, Function)}.
+     * <p>
+     * Modules that are required by the new layer but are neither part of it nor of its parent layers are taken from
+     * {@code dependencies}. Services are bound like with {@link Configuration#resolveAndBind(ModuleFinder, List, ModuleFinder, Collection)}:
+     * Providers that {@code dependencies} holds for a service used by any module of the new layer are added as well.
+     * All modules of the previous layer that are not removed are kept, including providers that were bound before.
+     *
+     * @param previous The controller of the previous layer.
+     * @param removedModules The names of modules to remove from the layer.
+     * @param addedModules Jars to add to the layer. If a jar provides a module that is already part of the previous
+     *                     layer, it replaces that module.
+     * @param dependencies A finder for new dependencies and service providers. It is only asked for modules that are
+     *                     not found in the layer or its parent layers.
+     * @param transformer A {@link ClassTransformer} to transform classes loaded by the new pool.
+     * @param cluster The clustering function for the new pool, see {@link #create(String, Configuration, List, ClassTransformer, Function)}.
+     * @throws IllegalArgumentException If multiple added jars provide the same module.
+     * @throws java.lang.module.FindException If a required module can't be found.
+     * @throws java.lang.module.ResolutionException If the changed set of modules can't be resolved.
+     */
+    static ModuleLoaderPool.Controller redefine(ModuleLoaderPool.Controller previous, Set<String> removedModules, List<Jar> addedModules, ModuleFinder dependencies, ClassTransformer transformer, Function<String, String> cluster) {
+        Configuration configuration = LayerRedefinition.resolve(previous.pool().configuration(), removedModules, addedModules, dependencies);
+        return define(previous.pool().name(), configuration, previous.layer().parents(), transformer, cluster);
+    }
+
     /**
      * Creates a loader pool using the provided settings.
      *
@@ -115,6 +199,12 @@ public interface ModuleLoaderPool extends Function<String, ClassLoader> {
             return this.layerController().layer();
         }
 
+        /**
+         * The {@link ServiceIndex} of the defined layer and its parents, that is built once when the layer is
+         * defined.
+         */
+        ServiceIndex services();
+
         /**
          * Invokes {@link ModuleLayer.Controller#addReads(Module, Module) addReads} on the
          * {@link #layerController() layer controller} and also updates the classloaders package mapping respectively.
@@ -0,0 +1,61 @@
+package bootstrap.jar.classloading;
+
+import bootstrap.jar.impl.classloading.TransformedJarWriter;
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.io.IOException;
+import java.lang.module.Configuration;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Applies a {@link ClassTransformer} ahead of time.
+ * <p>
+ * The modules of a configuration are loaded in a {@link ModuleLoaderPool} with the transformer, and every class is
+ * passed through it, just like it would be when it is loaded. The result is written as a jar archive per module, that
+ * is marked with the {@link ClassTransformer#fingerprint() fingerprint} of the transformer. When such a jar is later
+ * loaded by a pool with a transformer of the same fingerprint, its classes are not transformed again, neither when
+ * they are loaded nor when they are read as resources. Classes are transformed with
+ * {@link ClassTransformer#REASON_CLASSLOADING}.
+ * <p>
+ * The written jars hold the view of the modules for the current Java version, multi-release information is not
+ * retained. Signatures are removed, as they no longer match the transformed classes.
+ */
+@NotNullByDefault
+public class OfflineTransformer {
+
+    /**
+     * The main manifest attribute that holds the fingerprint of the transformer a jar was transformed with.
+     */
+    public static final String MANIFEST_ATTRIBUTE = TransformedJarWriter.MANIFEST_ATTRIBUTE;
+
+    private OfflineTransformer() {}
+
+    /**
+     * Gets the file name for the transformed jar of a classpath entry, when a whole classpath is transformed into a
+     * single directory. The name is prefixed with the index of the entry on the classpath, so entries with the same
+     * file name don't overwrite each other and the transformed classpath can be derived from the original one without
+     * knowing the module names. The module names are retained, as the written manifest holds them.
+     *
+     * @param index The index of the entry on the classpath.
+     * @param source The original classpath entry.
+     */
+    public static String targetFileName(int index, Path source) {
+        Path fileName = source.getFileName();
+        return index + "-" + (fileName == null ? "root" : fileName.toString());
+    }
+
+    /**
+     * Transforms all modules of a configuration.
+     *
+     * @param configuration The configuration holding the modules to transform.
+     * @param parentLayers The parent layers of the configuration.
+     * @param transformer The transformer to apply. It must provide a {@link ClassTransformer#fingerprint() fingerprint}.
+     * @param target A function that assigns the location of the transformed jar to each module name.
+     * @throws IllegalArgumentException If the transformer has no fingerprint.
+     */
+    public static void transform(Configuration configuration, List<ModuleLayer> parentLayers, ClassTransformer transformer, Function<String, Path> target) throws IOException {
+        TransformedJarWriter.write(configuration, parentLayers, transformer, target);
+    }
+}
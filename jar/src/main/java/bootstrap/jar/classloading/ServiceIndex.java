@@ -0,0 +1,54 @@
+package bootstrap.jar.classloading;
+
+import bootstrap.jar.impl.classloading.ServiceIndexImpl;
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * An index of the service providers declared by the modules of a {@link ModuleLayer} and its parent layers. The
+ * index is built once from the module descriptors, so looking up the providers of a service does not walk the
+ * layer hierarchy again.
+ * <p>
+ * Providers are ordered like {@link ServiceLoader#load(ModuleLayer, Class)} orders them: The providers of the layer
+ * itself come first, followed by the providers of the parent layers in depth-first order, visiting each layer once.
+ * Inside a layer, the modules are ordered by name and the providers of a module keep their declaration order.
+ * Only providers declared in module descriptors are indexed, providers from {@code META-INF/services} files of
+ * unnamed modules are not.
+ */
+@NotNullByDefault
+public interface ServiceIndex {
+
+    /**
+     * Gets the class names of the providers for a service.
+     */
+    List<String> providerNames(String serviceName);
+
+    /**
+     * Gets the providers for a service. Like the providers of a {@link ServiceLoader}, the provider classes are
+     * loaded by {@link ServiceLoader.Provider#type()} and instantiated by {@link ServiceLoader.Provider#get()}, either
+     * through a public static {@code provider} method or through a public no-arg constructor. Unlike
+     * {@link ServiceLoader}, the caller does not need to declare that it uses the service.
+     *
+     * @throws java.util.ServiceConfigurationError From the methods of the returned providers, if a provider can't be
+     *                                             loaded or instantiated.
+     */
+    <S> List<ServiceLoader.Provider<S>> providers(Class<S> service);
+
+    /**
+     * Gets instances of all providers for a service.
+     *
+     * @see #providers(Class)
+     */
+    default <S> List<S> load(Class<S> service) {
+        return this.providers(service).stream().map(ServiceLoader.Provider::get).toList();
+    }
+
+    /**
+     * Builds the service index for a module layer and its parents.
+     */
+    static ServiceIndex of(ModuleLayer layer) {
+        return new ServiceIndexImpl(layer);
+    }
+}
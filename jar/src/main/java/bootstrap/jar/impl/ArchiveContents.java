@@ -0,0 +1,267 @@
+package bootstrap.jar.impl;
+
+import bootstrap.jar.util.NameHelper;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * The parts of a plain jar archive that are needed to build its module descriptor, read in a single pass over the
+ * central directory of the archive.
+ */
+@NotNullByDefault
+public class ArchiveContents {
+
+    private static final String META_INF = "META-INF/";
+    private static final String VERSIONS = "META-INF/versions/";
+    private static final String SERVICES = "META-INF/services/";
+    private static final String MODULE_INFO = "module-info.class";
+
+    private final Set<String> packages;
+    private final SortedMap<Integer, Set<String>> versionedPackages;
+    private final Set<Integer> versionedModuleInfos;
+    private final boolean moduleInfo;
+    private final Map<String, List<String>> services;
+    private final @Nullable List<String> entries;
+
+    private ArchiveContents(Set<String> packages, SortedMap<Integer, Set<String>> versionedPackages, Set<Integer> versionedModuleInfos, boolean moduleInfo, Map<String, List<String>> services, @Nullable List<String> entries) {
+        this.packages = packages;
+        this.versionedPackages = versionedPackages;
+        this.versionedModuleInfos = versionedModuleInfos;
+        this.moduleInfo = moduleInfo;
+        this.services = services;
+        this.entries = entries;
+    }
+
+    /**
+     * Reads the contents of a jar file. Returns {@code null} if the path is not a jar file on the default file
+     * system or if the archive has entries that the zip file system would not map to paths one by one. The caller
+     * should fall back to walking the file system in that case.
+     */
+    public static @Nullable ArchiveContents read(Path path) throws IOException {
+        return read(path, false);
+    }
+
+    /**
+     * Reads the contents of a jar file like {@link #read(Path)}. If {@code collectEntries} is set, the names of all
+     * entries are kept as well, so {@link #resources(List)} can answer lookups without touching the archive.
+     */
+    public static @Nullable ArchiveContents read(Path path, boolean collectEntries) throws IOException {
+        if (path.getFileSystem() != FileSystems.getDefault() || !Files.isRegularFile(path)) return null;
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            Set<String> packages = new HashSet<>();
+            SortedMap<Integer, Set<String>> versionedPackages = new TreeMap<>();
+            Set<Integer> versionedModuleInfos = new HashSet<>();
+            boolean moduleInfo = false;
+            List<ZipEntry> serviceEntries = new ArrayList<>();
+            List<String> entryNames = collectEntries ? new ArrayList<>() : null;
+
+            String lastDir = "";
+            Set<String> lastPackages = packages;
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (!isPlainEntryName(name)) return null;
+                if (entryNames != null) entryNames.add(entry.isDirectory() ? name.substring(0, name.length() - 1) : name);
+
+                int start = 0;
+                Set<String> target = packages;
+                if (name.startsWith(META_INF)) {
+                    if (name.startsWith(SERVICES) && !entry.isDirectory() && name.indexOf('/', SERVICES.length()) < 0) {
+                        serviceEntries.add(entry);
+                        continue;
+                    }
+                    if (!name.startsWith(VERSIONS)) continue;
+                    int versionEnd = name.indexOf('/', VERSIONS.length());
+                    if (versionEnd < 0) continue;
+                    int version = parseVersion(name, VERSIONS.length(), versionEnd);
+                    if (version < 0) continue;
+                    target = versionedPackages.computeIfAbsent(version, _ -> new HashSet<>());
+                    start = versionEnd + 1;
+                    // Each version root hides its own META-INF directory.
+                    if (name.startsWith(META_INF, start)) continue;
+                    if (!entry.isDirectory() && name.length() - start == MODULE_INFO.length() && name.startsWith(MODULE_INFO, start)) {
+                        versionedModuleInfos.add(version);
+                    }
+                } else if (!entry.isDirectory() && name.equals(MODULE_INFO)) {
+                    moduleInfo = true;
+                }
+
+                if (entry.isDirectory() || !name.endsWith(".class")) continue;
+                int dirEnd = name.lastIndexOf('/');
+                if (dirEnd <= start) continue;
+                // Entries of the same directory are usually next to each other in the central directory.
+                if (target == lastPackages && dirEnd - start == lastDir.length() && name.startsWith(lastDir, start)) continue;
+                lastDir = name.substring(start, dirEnd);
+                lastPackages = target;
+                String pkg = lastDir.replace('/', '.');
+                if (NameHelper.validTypeName(pkg)) target.add(pkg);
+            }
+
+            Map<String, List<String>> services = new HashMap<>();
+            for (ZipEntry entry : serviceEntries) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8))) {
+                    services.put(entry.getName().substring(SERVICES.length()), reader.lines().toList());
+                }
+            }
+            return new ArchiveContents(packages, versionedPackages, versionedModuleInfos, moduleInfo, services, entryNames == null ? null : List.copyOf(entryNames));
+        } catch (ZipException e) {
+            return null;
+        }
+    }
+
+    // Names that start with a separator, contain empty, . or .. segments or backslashes are normalized by the zip
+    // file system, so they can't be resolved from the name directly.
+    static boolean isPlainEntryName(String name) {
+        int segmentStart = 0;
+        for (int i = 0; i <= name.length(); i++) {
+            char chr = i == name.length() ? '/' : name.charAt(i);
+            if (chr == '\\') return false;
+            if (chr == '/') {
+                int length = i - segmentStart;
+                if (length == 0 && i != name.length()) return false;
+                if (length == 1 && name.charAt(segmentStart) == '.') return false;
+                if (length == 2 && name.charAt(segmentStart) == '.' && name.charAt(segmentStart + 1) == '.') return false;
+                segmentStart = i + 1;
+            }
+        }
+        return !name.isEmpty();
+    }
+
+    // Only accepts versions as written by Integer.toString, as those are the only ones that are looked up.
+    private static int parseVersion(String name, int start, int end) {
+        if (end == start || end - start > 9 || (name.charAt(start) == '0' && end - start > 1)) return -1;
+        int version = 0;
+        for (int i = start; i < end; i++) {
+            char chr = name.charAt(i);
+            if (chr < '0' || chr > '9') return -1;
+            version = 10 * version + (chr - '0');
+        }
+        return version;
+    }
+
+    /**
+     * Gets the multi-release versions between 9 and the target version, that are present in the archive, in
+     * descending order.
+     */
+    public List<Integer> multiReleaseVersions(int targetVersion) {
+        List<Integer> versions = new ArrayList<>(this.versionedPackages.subMap(9, targetVersion + 1).keySet());
+        Collections.reverse(versions);
+        return Collections.unmodifiableList(versions);
+    }
+
+    public boolean hasModuleInfo(List<Integer> multiReleaseVersions) {
+        if (this.moduleInfo) return true;
+        for (int version : multiReleaseVersions) {
+            if (this.versionedModuleInfos.contains(version)) return true;
+        }
+        return false;
+    }
+
+    public Set<String> packages(List<Integer> multiReleaseVersions) {
+        if (multiReleaseVersions.isEmpty()) return Set.copyOf(this.packages);
+        Set<String> packages = new HashSet<>(this.packages);
+        for (int version : multiReleaseVersions) {
+            packages.addAll(this.versionedPackages.getOrDefault(version, Set.of()));
+        }
+        return Set.copyOf(packages);
+    }
+
+    /**
+     * Gets the lines of all files in {@code META-INF/services}.
+     */
+    public Map<String, List<String>> services() {
+        return Collections.unmodifiableMap(this.services);
+    }
+
+    /**
+     * Gets the names of all files and directories that are visible in the jar root, after the given multi-release
+     * versions have been applied. Returns {@code null} if the entry names have not been collected.
+     */
+    public @Nullable Set<String> resources(List<Integer> multiReleaseVersions) {
+        if (this.entries == null) return null;
+        Set<String> resources = new HashSet<>();
+        for (String name : this.entries) {
+            if (multiReleaseVersions.isEmpty()) {
+                addWithParents(resources, name, 0);
+            } else if (name.startsWith(VERSIONS)) {
+                // Only the applicable version roots are visible, without their own META-INF directory.
+                int versionEnd = name.indexOf('/', VERSIONS.length());
+                if (versionEnd < 0 || !multiReleaseVersions.contains(parseVersion(name, VERSIONS.length(), versionEnd))) continue;
+                int start = versionEnd + 1;
+                if (name.startsWith(META_INF, start) || (name.length() - start == META_INF.length() - 1 && name.startsWith("META-INF", start))) continue;
+                addWithParents(resources, name, start);
+            } else if (!name.equals(VERSIONS.substring(0, VERSIONS.length() - 1))) {
+                addWithParents(resources, name, 0);
+            }
+        }
+        return Set.copyOf(resources);
+    }
+
+    // Directories don't need an entry of their own in an archive, so parent directories are added implicitly.
+    private static void addWithParents(Set<String> resources, String name, int start) {
+        if (start >= name.length() || !resources.add(name.substring(start))) return;
+        for (int idx = name.lastIndexOf('/'); idx > start; idx = name.lastIndexOf('/', idx - 1)) {
+            if (!resources.add(name.substring(start, idx))) return;
+        }
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeBoolean(this.moduleInfo);
+        writeStrings(out, this.packages);
+        out.writeInt(this.versionedPackages.size());
+        for (Map.Entry<Integer, Set<String>> entry : this.versionedPackages.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeBoolean(this.versionedModuleInfos.contains(entry.getKey()));
+            writeStrings(out, entry.getValue());
+        }
+        out.writeInt(this.services.size());
+        for (Map.Entry<String, List<String>> entry : this.services.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeStrings(out, entry.getValue());
+        }
+        writeStrings(out, this.entries == null ? List.of() : this.entries);
+    }
+
+    static ArchiveContents read(DataInput in) throws IOException {
+        boolean moduleInfo = in.readBoolean();
+        Set<String> packages = new HashSet<>(readStrings(in));
+        SortedMap<Integer, Set<String>> versionedPackages = new TreeMap<>();
+        Set<Integer> versionedModuleInfos = new HashSet<>();
+        int versionCount = in.readInt();
+        for (int i = 0; i < versionCount; i++) {
+            int version = in.readInt();
+            if (in.readBoolean()) versionedModuleInfos.add(version);
+            versionedPackages.put(version, new HashSet<>(readStrings(in)));
+        }
+        Map<String, List<String>> services = new HashMap<>();
+        int serviceCount = in.readInt();
+        for (int i = 0; i < serviceCount; i++) {
+            services.put(in.readUTF(), readStrings(in));
+        }
+        List<String> entries = readStrings(in);
+        return new ArchiveContents(packages, versionedPackages, versionedModuleInfos, moduleInfo, services, entries);
+    }
+
+    private static void writeStrings(DataOutput out, Collection<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) out.writeUTF(string);
+    }
+
+    private static List<String> readStrings(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<String> strings = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) strings.add(in.readUTF());
+        return List.copyOf(strings);
+    }
+}
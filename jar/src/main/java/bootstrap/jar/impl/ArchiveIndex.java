@@ -0,0 +1,121 @@
+package bootstrap.jar.impl;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes sidecar index files for jar archives. An index holds the {@link ArchiveContents} of an archive
+ * together with its size and a checksum of its central directory, so it is only used as long as it matches the
+ * archive next to it.
+ */
+@NotNullByDefault
+public class ArchiveIndex {
+
+    public static final String EXTENSION = ".bsi";
+
+    private static final int MAGIC = 0x42534958;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_LENGTH = 22;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    public static Path sidecar(Path archive) {
+        Path fileName = archive.getFileName();
+        if (fileName == null) throw new IllegalArgumentException("Not an archive file: " + archive);
+        return archive.resolveSibling(fileName + EXTENSION);
+    }
+
+    /**
+     * Loads the index next to an archive. Returns {@code null} if there is no index, or it does not match the
+     * archive.
+     */
+    public static @Nullable ArchiveContents load(Path archive) {
+        if (archive.getFileSystem() != FileSystems.getDefault() || archive.getFileName() == null) return null;
+        Path index = sidecar(archive);
+        if (!Files.isRegularFile(index)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return null;
+            long size = in.readLong();
+            long checksum = in.readLong();
+            try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+                if (channel.size() != size || centralDirectoryChecksum(channel) != checksum) return null;
+            }
+            return ArchiveContents.read(in);
+        } catch (IOException | RuntimeException e) {
+            // An unreadable or outdated index is ignored, the archive is scanned instead.
+            return null;
+        }
+    }
+
+    /**
+     * Writes the index of an archive to the target file. Returns {@code false} if the archive can't be indexed,
+     * for example because it is not a plain zip file.
+     */
+    public static boolean write(Path archive, Path target) throws IOException {
+        long size;
+        long checksum;
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            size = channel.size();
+            checksum = centralDirectoryChecksum(channel);
+        }
+        if (checksum < 0) return false;
+        ArchiveContents contents = ArchiveContents.read(archive, true);
+        if (contents == null) return false;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(size);
+            out.writeLong(checksum);
+            contents.write(out);
+        }
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "index", ".tmp");
+        try {
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    // Any change to the entries of an archive changes their names, sizes or CRCs in the central directory. Returns -1
+    // if the central directory can't be located, which includes zip64 archives.
+    private static long centralDirectoryChecksum(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int tailLength = (int) Math.min(size, END_LENGTH + MAX_COMMENT_LENGTH);
+        ByteBuffer tail = ByteBuffer.allocate(tailLength).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, tail, size - tailLength);
+        for (int pos = tailLength - END_LENGTH; pos >= 0; pos--) {
+            if (tail.getInt(pos) != END_SIGNATURE) continue;
+            long directorySize = Integer.toUnsignedLong(tail.getInt(pos + 12));
+            long directoryOffset = Integer.toUnsignedLong(tail.getInt(pos + 16));
+            if (directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) return -1;
+            if (directoryOffset + directorySize > size - tailLength + pos || directorySize > Integer.MAX_VALUE) continue;
+            ByteBuffer directory = ByteBuffer.allocate((int) directorySize);
+            readFully(channel, directory, directoryOffset);
+            CRC32 crc = new CRC32();
+            crc.update(directory.flip());
+            return crc.getValue();
+        }
+        return -1;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) throw new EOFException();
+        }
+    }
+}
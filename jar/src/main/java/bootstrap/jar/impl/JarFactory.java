@@ -1,8 +1,11 @@
 package bootstrap.jar.impl;
 
+import bootstrap.jar.JarMetadataCache;
 import bootstrap.jar.JarMetadataFilter;
+import bootstrap.jar.impl.cache.DirectoryMetadataCache;
 import bootstrap.jar.niofs.path.BasePath;
 import bootstrap.jar.niofs.path.CompoundUriHelper;
+import bootstrap.jar.niofs.path.PrefixPathMatcher;
 import bootstrap.jar.util.ModuleHelper;
 import bootstrap.jar.util.NameHelper;
 import org.jetbrains.annotations.NotNullByDefault;
@@ -26,32 +29,74 @@ import java.util.stream.Stream;
 @NotNullByDefault
 public class JarFactory {
 
+    private static final PathMatcher EXCLUDE_META_INF = PrefixPathMatcher.excluding("META-INF");
+    private static final PathMatcher EXCLUDE_MULTI_RELEASE = PrefixPathMatcher.excluding("META-INF", "versions");
+
     public static JarImpl create(JarMetadataFilter filter, List<Path> paths) throws IOException {
+        return create(null, filter, paths);
+    }
+
+    public static JarImpl create(@Nullable JarMetadataCache cache, JarMetadataFilter filter, List<Path> paths) throws IOException {
         paths = List.copyOf(paths);
+        DirectoryMetadataCache metadataCache = cache == null ? null : new DirectoryMetadataCache(cache);
+        String cacheKey = metadataCache == null ? null : metadataCache.key(filter, paths);
+        DirectoryMetadataCache.CachedJar cached = cacheKey == null ? null : metadataCache.load(cacheKey);
+        // A prebuilt index also lists the resources of the jar, so it is used even if the metadata is cached.
+        ArchiveContents indexed = paths.size() == 1 ? ArchiveIndex.load(paths.getFirst()) : null;
+        if (cached != null) {
+            Path initialRoot = createInitialJarRoot(paths);
+            FileSystem fs = buildJarFileSystem(initialRoot, multiReleaseRoots(initialRoot, cached.multiReleaseVersions()));
+            return new JarImpl(cached.manifest(), cached.descriptor(), fs, indexed == null ? null : indexed.resources(cached.multiReleaseVersions()), metadataCache, cacheKey);
+        }
+
         Path initialRoot = createInitialJarRoot(paths);
         Manifest initialManifest = resolveInitialManifest(initialRoot);
+        // Plain jar files don't need to be walked through the file system, the central directory has all we need.
+        ArchiveContents contents = indexed != null ? indexed : paths.size() == 1 ? ArchiveContents.read(paths.getFirst()) : null;
 
-        List<Path> multiReleaseRoots = List.of();
+        List<Integer> multiReleaseVersions = List.of();
         if (Boolean.parseBoolean(initialManifest.getMainAttributes().getValue(Attributes.Name.MULTI_RELEASE.toString()))) {
-            multiReleaseRoots = resolveMultiReleaseRoots(initialRoot, Math.max(8, Runtime.version().feature()));
+            int targetVersion = Math.max(8, Runtime.version().feature());
+            multiReleaseVersions = contents != null ? contents.multiReleaseVersions(targetVersion) : findMultiReleaseVersions(initialRoot, targetVersion);
         }
         
-        FileSystem fs = buildJarFileSystem(initialRoot, multiReleaseRoots);
+        FileSystem fs = buildJarFileSystem(initialRoot, multiReleaseRoots(initialRoot, multiReleaseVersions));
         ModuleDescriptor initialDescriptor;
-        if (Files.isRegularFile(fs.getPath("/module-info.class"))) {
+        if (contents != null ? contents.hasModuleInfo(multiReleaseVersions) : Files.isRegularFile(fs.getPath("/module-info.class"))) {
             try (InputStream in = Files.newInputStream(fs.getPath("/module-info.class"))) {
                 initialDescriptor = ModuleDescriptor.read(in);
             }
         } else {
-            initialDescriptor = createAutomaticModuleDescriptor(fs, initialManifest, filter, paths);
+            initialDescriptor = createAutomaticModuleDescriptor(fs, initialManifest, filter, paths, contents);
         }
-        ModuleDescriptor extendedDescriptor = extendModuleDescriptor(initialDescriptor, fs, initialManifest);
+        Set<String> packages = contents != null ? contents.packages(multiReleaseVersions) : findPackages(fs);
+        ModuleDescriptor extendedDescriptor = extendModuleDescriptor(initialDescriptor, packages, initialManifest);
         ModuleDescriptor finalDescriptor = filter.filterModuleDescriptor(extendedDescriptor, fs);
 
         setManifestAttributesFromDescriptor(initialManifest, finalDescriptor);
 
         Manifest finalManifest = (Manifest) filter.filterManifest(initialManifest, fs, finalDescriptor).clone();
-        return new JarImpl(finalManifest, finalDescriptor, fs);
+        if (cacheKey != null) {
+            metadataCache.store(cacheKey, new DirectoryMetadataCache.CachedJar(finalManifest, finalDescriptor, multiReleaseVersions));
+        }
+        return new JarImpl(finalManifest, finalDescriptor, fs, contents == null ? null : contents.resources(multiReleaseVersions), metadataCache, cacheKey);
+    }
+
+    /**
+     * Creates a jar with known metadata from a root directory, that still contains the multi-release directories.
+     */
+    public static JarImpl create(Manifest manifest, ModuleDescriptor descriptor, Path root, List<Integer> multiReleaseVersions) throws IOException {
+        FileSystem fs = buildJarFileSystem(root, multiReleaseRoots(root, multiReleaseVersions));
+        return new JarImpl(manifest, descriptor, fs, null);
+    }
+
+    /**
+     * Gets the multi-release versions that apply to a jar root for the current runtime, in descending order.
+     */
+    public static List<Integer> multiReleaseVersions(Path root) throws IOException {
+        Manifest manifest = resolveInitialManifest(root);
+        if (!Boolean.parseBoolean(manifest.getMainAttributes().getValue(Attributes.Name.MULTI_RELEASE.toString()))) return List.of();
+        return findMultiReleaseVersions(root, Math.max(8, Runtime.version().feature()));
     }
 
     public static void setManifestAttributesFromDescriptor(Manifest manifest, ModuleDescriptor descriptor) {
@@ -107,19 +152,23 @@ public class JarFactory {
         }
     }
 
-    private static List<Path> resolveMultiReleaseRoots(Path root, int targetVersion) {
-        List<Path> paths = new ArrayList<>();
+    private static List<Integer> findMultiReleaseVersions(Path root, int targetVersion) {
+        List<Integer> versions = new ArrayList<>();
         for (int ver = targetVersion; ver > 8; ver --) {
             Path multiReleaseDir = root.resolve("META-INF").resolve("versions").resolve(Integer.toString(ver));
-            if (Files.isDirectory(multiReleaseDir)) paths.add(multiReleaseDir);
+            if (Files.isDirectory(multiReleaseDir)) versions.add(ver);
         }
-        return Collections.unmodifiableList(paths);
+        return Collections.unmodifiableList(versions);
+    }
+
+    private static List<Path> multiReleaseRoots(Path root, List<Integer> versions) {
+        return versions.stream().map(ver -> root.resolve("META-INF").resolve("versions").resolve(Integer.toString(ver))).toList();
     }
     
     private static FileSystem buildJarFileSystem(Path initialRoot, List<Path> multiReleaseRoots) throws IOException {
         if (!multiReleaseRoots.isEmpty()) {
             List<Path> allPaths = Stream.concat(multiReleaseRoots.stream(), Stream.of(initialRoot)).toList();
-            List<@Nullable PathMatcher> filters = Stream.concat(Stream.generate(() -> ExcludePrefix.EXCLUDE_META_INF).limit(multiReleaseRoots.size()), Stream.of(ExcludePrefix.EXCLUDE_MULTI_RELEASE)).toList();
+            List<@Nullable PathMatcher> filters = Stream.concat(Stream.generate(() -> EXCLUDE_META_INF).limit(multiReleaseRoots.size()), Stream.of(EXCLUDE_MULTI_RELEASE)).toList();
             try {
                 return FileSystems.newFileSystem(new URI("union::"), Map.of(
                         "paths", allPaths,
@@ -166,13 +215,22 @@ public class JarFactory {
         return Set.copyOf(packages);
     }
 
-    private static ModuleDescriptor createAutomaticModuleDescriptor(FileSystem fs, Manifest initialManifest, JarMetadataFilter filter, List<Path> paths) throws IOException {
+    private static ModuleDescriptor createAutomaticModuleDescriptor(FileSystem fs, Manifest initialManifest, JarMetadataFilter filter, List<Path> paths, @Nullable ArchiveContents contents) throws IOException {
         Optional<String> moduleName = Optional.ofNullable(initialManifest.getMainAttributes().getValue(NameHelper.AUTOMATIC_MODULE_NAME));
         moduleName = filter.filterAutomaticModuleName(moduleName, paths, fs);
         if (moduleName.isEmpty()) throw new IllegalStateException("Failed to infer automatic module name for jar: " + paths);
 
         ModuleDescriptor.Builder builder = ModuleDescriptor.newAutomaticModule(moduleName.get());
 
+        if (contents != null) {
+            for (Map.Entry<String, List<String>> entry : contents.services().entrySet()) {
+                if (NameHelper.validTypeName(entry.getKey())) {
+                    builder.provides(entry.getKey(), entry.getValue().stream().filter(NameHelper::validTypeName).toList());
+                }
+            }
+            return builder.build();
+        }
+
         Path serviceDir = fs.getPath("/", "META-INF", "services");
         if (Files.isDirectory(serviceDir)) {
             try (Stream<Path> servicePaths = Files.list(serviceDir)) {
@@ -193,9 +251,9 @@ public class JarFactory {
         return builder.build();
     }
 
-    private static ModuleDescriptor extendModuleDescriptor(ModuleDescriptor initialModuleDescriptor, FileSystem fs, Manifest initialManifest) throws IOException {
+    private static ModuleDescriptor extendModuleDescriptor(ModuleDescriptor initialModuleDescriptor, Set<String> packages, Manifest initialManifest) {
         ModuleDescriptor.Builder builder = ModuleHelper.builder(initialModuleDescriptor);
-        builder.packages(findPackages(fs));
+        builder.packages(packages);
         if (initialModuleDescriptor.version().isEmpty()) {
             String implVersion = initialManifest.getMainAttributes().getValue(Attributes.Name.IMPLEMENTATION_VERSION);
             if (implVersion != null) try {
@@ -212,30 +270,4 @@ public class JarFactory {
         }
         return builder.build();
     }
-
-    private static class ExcludePrefix implements PathMatcher {
-
-        public static final PathMatcher EXCLUDE_META_INF = new ExcludePrefix("META-INF");
-        public static final PathMatcher EXCLUDE_MULTI_RELEASE = new ExcludePrefix("META-INF", "versions");
-
-        private final String prefix1;
-        private final String[] prefix;
-        private final Object lock;
-        private final Map<FileSystem, Path> pathMap;
-
-        private ExcludePrefix(String prefix1, String... prefix) {
-            this.prefix1 = Objects.requireNonNull(prefix1);
-            this.prefix = Arrays.stream(prefix).toArray(String[]::new);
-            this.lock = new Object();
-            this.pathMap = new WeakHashMap<>();
-        }
-
-        @Override
-        public boolean matches(Path path) {
-            synchronized (this.lock) {
-                Path prefixPath = this.pathMap.computeIfAbsent(path.getFileSystem(), fs -> fs.getPath(this.prefix1, this.prefix));
-                return !path.startsWith(prefixPath);
-            }
-        }
-    }
 }
@@ -1,13 +1,18 @@
 package bootstrap.jar.impl;
 
 import bootstrap.jar.Jar;
+import bootstrap.jar.classloading.ClassIndex;
+import bootstrap.jar.impl.cache.DirectoryMetadataCache;
 import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.lang.module.ModuleDescriptor;
 import java.lang.module.ModuleReference;
 import java.net.URI;
 import java.nio.file.FileSystem;
 import java.nio.file.Path;
+import java.util.Set;
 import java.util.jar.Manifest;
 
 @NotNullByDefault
@@ -17,20 +22,42 @@ public class JarImpl implements Jar {
     private final ModuleDescriptor descriptor;
     private final URI uri;
     private final FileSystem fs;
+    private final @Nullable Set<String> resources;
+    private final @Nullable DirectoryMetadataCache cache;
+    private final @Nullable String cacheKey;
     private final JarModuleReference reference;
 
-    JarImpl(Manifest manifest, ModuleDescriptor descriptor, FileSystem fs) {
+    JarImpl(Manifest manifest, ModuleDescriptor descriptor, FileSystem fs, @Nullable Set<String> resources) {
+        this(manifest, descriptor, fs, resources, null, null);
+    }
+
+    JarImpl(Manifest manifest, ModuleDescriptor descriptor, FileSystem fs, @Nullable Set<String> resources, @Nullable DirectoryMetadataCache cache, @Nullable String cacheKey) {
         this.manifest = manifest;
         this.descriptor = descriptor;
         this.fs = fs;
+        this.resources = resources;
+        this.cache = cache;
+        this.cacheKey = cacheKey;
         this.uri = fs.getPath(fs.getSeparator()).toUri();
-        this.reference = new JarModuleReference(this.descriptor, this.manifest, this.fs);
+        this.reference = new JarModuleReference(this.descriptor, this.manifest, this.fs, this.resources, this.cache, this.cacheKey);
     }
 
     FileSystem fileSystem() {
         return this.fs;
     }
 
+    @Nullable Set<String> resources() {
+        return this.resources;
+    }
+
+    @Nullable DirectoryMetadataCache cache() {
+        return this.cache;
+    }
+
+    @Nullable String cacheKey() {
+        return this.cacheKey;
+    }
+
     @Override
     public Manifest manifest() {
         return (Manifest) this.manifest.clone();
@@ -51,6 +78,11 @@ public class JarImpl implements Jar {
         return this.uri;
     }
 
+    @Override
+    public ClassIndex classIndex() throws IOException {
+        return this.reference.classIndex();
+    }
+
     @Override
     public Path getPath(String first, String... more) {
         return this.fs.getPath(first, more);
@@ -1,6 +1,7 @@
 package bootstrap.jar.impl;
 
 import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -11,6 +12,7 @@ import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 @NotNullByDefault
@@ -18,13 +20,28 @@ import java.util.stream.Stream;
 public class JarModuleReader implements ModuleReader {
 
     private final FileSystem fs;
+    private final @Nullable Set<String> resources;
 
     public JarModuleReader(FileSystem fs) {
+        this(fs, null);
+    }
+
+    /**
+     * Creates a module reader that uses the provided set of resource names to answer lookups of resources that
+     * don't exist without touching the file system.
+     */
+    public JarModuleReader(FileSystem fs, @Nullable Set<String> resources) {
         this.fs = fs;
+        this.resources = resources;
+    }
+
+    private boolean isKnownMissing(String name) {
+        return this.resources != null && !this.resources.contains(name) && ArchiveContents.isPlainEntryName(name) && !name.endsWith("/");
     }
 
     @Override
     public Optional<URI> find(String name) throws IOException {
+        if (this.isKnownMissing(name)) return Optional.empty();
         Path path = this.fs.getPath(name);
         if (!Files.exists(path)) return Optional.empty();
         URI uri = path.toUri();
@@ -37,6 +54,7 @@ public class JarModuleReader implements ModuleReader {
 
     @Override
     public Optional<InputStream> open(String name) throws IOException {
+        if (this.isKnownMissing(name)) return Optional.empty();
         Path path = this.fs.getPath(name);
         if (!Files.isRegularFile(path)) return Optional.empty();
         return Optional.of(Files.newInputStream(path));
@@ -1,11 +1,17 @@
 package bootstrap.jar.impl;
 
+import bootstrap.jar.impl.cache.DirectoryMetadataCache;
+import bootstrap.jar.impl.classloading.ClassIndexImpl;
+import bootstrap.jar.impl.classloading.ClassIndexScanner;
 import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.lang.module.ModuleDescriptor;
 import java.lang.module.ModuleReader;
 import java.lang.module.ModuleReference;
 import java.nio.file.FileSystem;
+import java.util.Set;
 import java.util.jar.Manifest;
 
 @NotNullByDefault
@@ -13,19 +19,72 @@ public class JarModuleReference extends ModuleReference {
 
     private final Manifest manifest;
     private final FileSystem fs;
+    private final @Nullable Set<String> resources;
+    private final @Nullable DirectoryMetadataCache cache;
+    private final @Nullable String cacheKey;
+    private final Object lock;
+    private volatile @Nullable ClassIndexImpl classIndex;
+    private volatile @Nullable ModuleMetadata metadata;
 
     public JarModuleReference(ModuleDescriptor descriptor, Manifest manifest, FileSystem fs) {
+        this(descriptor, manifest, fs, null);
+    }
+
+    public JarModuleReference(ModuleDescriptor descriptor, Manifest manifest, FileSystem fs, @Nullable Set<String> resources) {
+        this(descriptor, manifest, fs, resources, null, null);
+    }
+
+    /**
+     * Creates a module reference, that stores its class index in the provided cache under the key of the jar
+     * metadata.
+     */
+    public JarModuleReference(ModuleDescriptor descriptor, Manifest manifest, FileSystem fs, @Nullable Set<String> resources, @Nullable DirectoryMetadataCache cache, @Nullable String cacheKey) {
         super(descriptor, fs.getPath(fs.getSeparator()).toUri());
         this.manifest = manifest;
         this.fs = fs;
+        this.resources = resources;
+        this.cache = cache;
+        this.cacheKey = cacheKey;
+        this.lock = new Object();
     }
 
     public Manifest manifest() {
         return (Manifest) this.manifest.clone();
     }
 
+    /**
+     * Gets the metadata of this module, that is shared by all class loaders of the module.
+     */
+    public ModuleMetadata metadata() {
+        ModuleMetadata metadata = this.metadata;
+        if (metadata != null) return metadata;
+        synchronized (this.lock) {
+            if (this.metadata == null) this.metadata = new ModuleMetadata(this, this.manifest);
+            return this.metadata;
+        }
+    }
+
+    /**
+     * Gets the class index of this module. The index is built on first use and reused afterward.
+     */
+    public ClassIndexImpl classIndex() throws IOException {
+        ClassIndexImpl index = this.classIndex;
+        if (index != null) return index;
+        synchronized (this.lock) {
+            index = this.classIndex;
+            if (index != null) return index;
+            if (this.cache != null && this.cacheKey != null) index = this.cache.loadClassIndex(this.cacheKey);
+            if (index == null) {
+                index = ClassIndexScanner.scan(this);
+                if (this.cache != null && this.cacheKey != null) this.cache.storeClassIndex(this.cacheKey, index);
+            }
+            this.classIndex = index;
+            return index;
+        }
+    }
+
     @Override
     public ModuleReader open() {
-        return new JarModuleReader(this.fs);
+        return new JarModuleReader(this.fs, this.resources);
     }
 }
@@ -24,7 +24,9 @@ public class JarPatcher {
         Manifest initialManifest = (Manifest) jar.manifest().clone();
         JarFactory.setManifestAttributesFromDescriptor(initialManifest, finalDescriptor);
         Manifest finalManifest = (Manifest) filter.filterManifest(initialManifest, fs, finalDescriptor).clone();
-        return new JarImpl(finalManifest, finalDescriptor, fs);
+        // The classes are not affected by the filter, so the patched jar shares the cached class index.
+        if (jar instanceof JarImpl impl) return new JarImpl(finalManifest, finalDescriptor, fs, impl.resources(), impl.cache(), impl.cacheKey());
+        return new JarImpl(finalManifest, finalDescriptor, fs, null);
     }
 
     private static FileSystem getFileSystem(Jar jar) throws IOException {
@@ -0,0 +1,148 @@
+package bootstrap.jar.impl;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.module.ModuleReader;
+import java.lang.module.ModuleReference;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+/**
+ * The metadata of a module, that class loaders need to define its packages and classes. Everything is computed on
+ * first use and shared by all loaders of the module. The metadata of a {@link JarModuleReference} is kept by the
+ * reference, so layers that are defined from the same jars share it as well.
+ */
+@NotNullByDefault
+public class ModuleMetadata {
+
+    private final ModuleReference reference;
+    private final Object lock;
+    private final Map<String, PackageAttributes> packageAttributes;
+    private volatile @Nullable Manifest manifest;
+    private volatile byte @Nullable [] manifestBytes;
+    private volatile @Nullable Optional<CodeSource> codeSource;
+
+    ModuleMetadata(ModuleReference reference, @Nullable Manifest manifest) {
+        this.reference = reference;
+        this.lock = new Object();
+        this.packageAttributes = new ConcurrentHashMap<>();
+        this.manifest = manifest;
+    }
+
+    public static ModuleMetadata of(ModuleReference reference) {
+        if (reference instanceof JarModuleReference jar) return jar.metadata();
+        return new ModuleMetadata(reference, null);
+    }
+
+    /**
+     * Gets the manifest of the module. The returned manifest is shared and must not be modified.
+     */
+    public Manifest manifest() {
+        Manifest manifest = this.manifest;
+        if (manifest != null) return manifest;
+        synchronized (this.lock) {
+            if (this.manifest == null) this.manifest = readManifest(this.reference);
+            return this.manifest;
+        }
+    }
+
+    /**
+     * Gets the serialized manifest of the module. The returned array is shared and must not be modified.
+     */
+    public Optional<byte[]> manifestBytes() {
+        byte[] bytes = this.manifestBytes;
+        if (bytes != null) return Optional.of(bytes);
+        synchronized (this.lock) {
+            if (this.manifestBytes == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try {
+                    this.manifest().write(out);
+                } catch (IOException e) {
+                    return Optional.empty();
+                }
+                this.manifestBytes = out.toByteArray();
+            }
+            return Optional.of(this.manifestBytes);
+        }
+    }
+
+    public @Nullable CodeSource codeSource() {
+        Optional<CodeSource> codeSource = this.codeSource;
+        if (codeSource == null) {
+            codeSource = this.reference.location().map(ModuleMetadata::codeSource);
+            this.codeSource = codeSource;
+        }
+        return codeSource.orElse(null);
+    }
+
+    /**
+     * Gets the specification and implementation attributes for a package from the manifest. Attributes of the
+     * package section take precedence over the main attributes.
+     */
+    public PackageAttributes packageAttributes(String pkg) {
+        PackageAttributes attributes = this.packageAttributes.get(pkg);
+        if (attributes != null) return attributes;
+        attributes = PackageAttributes.of(this.manifest(), pkg);
+        PackageAttributes existing = this.packageAttributes.putIfAbsent(pkg, attributes);
+        return existing != null ? existing : attributes;
+    }
+
+    private static Manifest readManifest(ModuleReference reference) {
+        try (
+                ModuleReader reader = reference.open();
+                @Nullable InputStream in = reader.open("META-INF/MANIFEST.MF").orElse(null)
+        ) {
+            if (in != null) return new Manifest(in);
+        } catch (IOException e) {
+            //
+        }
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().putValue(Attributes.Name.MANIFEST_VERSION.toString(), "1.0");
+        return manifest;
+    }
+
+    private static @Nullable CodeSource codeSource(URI location) {
+        try {
+            return new CodeSource(location.toURL(), (CodeSigner[]) null);
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @NotNullByDefault
+    public record PackageAttributes(
+            @Nullable String specTitle, @Nullable String specVersion, @Nullable String specVendor,
+            @Nullable String implTitle, @Nullable String implVersion, @Nullable String implVendor
+    ) {
+
+        private static PackageAttributes of(Manifest manifest, String pkg) {
+            String specTitle = null, specVersion = null, specVendor = null;
+            String implTitle = null, implVersion = null, implVendor = null;
+            for (Attributes attributes : new Attributes[]{ manifest.getMainAttributes(), manifest.getAttributes(pkg) }) {
+                if (attributes == null) continue;
+                specTitle = nonNullOrDefault(attributes.getValue(Attributes.Name.SPECIFICATION_TITLE), specTitle);
+                specVersion = nonNullOrDefault(attributes.getValue(Attributes.Name.SPECIFICATION_VERSION), specVersion);
+                specVendor = nonNullOrDefault(attributes.getValue(Attributes.Name.SPECIFICATION_VENDOR), specVendor);
+                implTitle = nonNullOrDefault(attributes.getValue(Attributes.Name.IMPLEMENTATION_TITLE), implTitle);
+                implVersion = nonNullOrDefault(attributes.getValue(Attributes.Name.IMPLEMENTATION_VERSION), implVersion);
+                implVendor = nonNullOrDefault(attributes.getValue(Attributes.Name.IMPLEMENTATION_VENDOR), implVendor);
+            }
+            return new PackageAttributes(specTitle, specVersion, specVendor, implTitle, implVersion, implVendor);
+        }
+
+        private static @Nullable String nonNullOrDefault(@Nullable String value, @Nullable String dfl) {
+            return value == null ? dfl : value;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package bootstrap.jar.impl.cache;
+
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.module.ModuleDescriptor;
+import java.util.*;
+
+/**
+ * Writes module descriptors as their parts, as there is no way to get the binary form of a {@link ModuleDescriptor}.
+ */
+@NotNullByDefault
+public class DescriptorSerializer {
+
+    public static void write(DataOutput out, ModuleDescriptor descriptor) throws IOException {
+        out.writeUTF(descriptor.name());
+        writeEnums(out, descriptor.modifiers());
+        writeOptional(out, descriptor.rawVersion());
+        writeOptional(out, descriptor.mainClass());
+        writeStrings(out, descriptor.packages());
+        if (descriptor.isAutomatic()) {
+            // Automatic modules can't declare their dependencies, the implicit ones are added when building.
+            out.writeInt(0);
+        } else {
+            out.writeInt(descriptor.requires().size());
+            for (ModuleDescriptor.Requires requires : descriptor.requires()) {
+                writeEnums(out, requires.modifiers());
+                out.writeUTF(requires.name());
+                writeOptional(out, requires.rawCompiledVersion());
+            }
+        }
+        out.writeInt(descriptor.exports().size());
+        for (ModuleDescriptor.Exports exports : descriptor.exports()) {
+            writeEnums(out, exports.modifiers());
+            out.writeUTF(exports.source());
+            writeStrings(out, exports.targets());
+        }
+        out.writeInt(descriptor.opens().size());
+        for (ModuleDescriptor.Opens opens : descriptor.opens()) {
+            writeEnums(out, opens.modifiers());
+            out.writeUTF(opens.source());
+            writeStrings(out, opens.targets());
+        }
+        writeStrings(out, descriptor.uses());
+        out.writeInt(descriptor.provides().size());
+        for (ModuleDescriptor.Provides provides : descriptor.provides()) {
+            out.writeUTF(provides.service());
+            writeStrings(out, provides.providers());
+        }
+    }
+
+    public static ModuleDescriptor read(DataInput in) throws IOException {
+        String name = in.readUTF();
+        Set<ModuleDescriptor.Modifier> modifiers = readEnums(in, ModuleDescriptor.Modifier.class);
+        ModuleDescriptor.Builder builder = ModuleDescriptor.newModule(name, modifiers);
+        readOptional(in).ifPresent(builder::version);
+        readOptional(in).ifPresent(builder::mainClass);
+        builder.packages(new HashSet<>(readStrings(in)));
+        int requiresCount = in.readInt();
+        for (int i = 0; i < requiresCount; i++) {
+            Set<ModuleDescriptor.Requires.Modifier> requiresModifiers = readEnums(in, ModuleDescriptor.Requires.Modifier.class);
+            String requiresName = in.readUTF();
+            Optional<String> compiledVersion = readOptional(in);
+            if (compiledVersion.isPresent()) {
+                builder.requires(requiresModifiers, requiresName, ModuleDescriptor.Version.parse(compiledVersion.get()));
+            } else {
+                builder.requires(requiresModifiers, requiresName);
+            }
+        }
+        int exportsCount = in.readInt();
+        for (int i = 0; i < exportsCount; i++) {
+            Set<ModuleDescriptor.Exports.Modifier> exportsModifiers = readEnums(in, ModuleDescriptor.Exports.Modifier.class);
+            String source = in.readUTF();
+            List<String> targets = readStrings(in);
+            if (targets.isEmpty()) {
+                builder.exports(exportsModifiers, source);
+            } else {
+                builder.exports(exportsModifiers, source, new HashSet<>(targets));
+            }
+        }
+        int opensCount = in.readInt();
+        for (int i = 0; i < opensCount; i++) {
+            Set<ModuleDescriptor.Opens.Modifier> opensModifiers = readEnums(in, ModuleDescriptor.Opens.Modifier.class);
+            String source = in.readUTF();
+            List<String> targets = readStrings(in);
+            if (targets.isEmpty()) {
+                builder.opens(opensModifiers, source);
+            } else {
+                builder.opens(opensModifiers, source, new HashSet<>(targets));
+            }
+        }
+        for (String uses : readStrings(in)) builder.uses(uses);
+        int providesCount = in.readInt();
+        for (int i = 0; i < providesCount; i++) {
+            String service = in.readUTF();
+            builder.provides(service, readStrings(in));
+        }
+        return builder.build();
+    }
+
+    private static void writeOptional(DataOutput out, Optional<String> value) throws IOException {
+        out.writeBoolean(value.isPresent());
+        if (value.isPresent()) out.writeUTF(value.get());
+    }
+
+    private static Optional<String> readOptional(DataInput in) throws IOException {
+        return in.readBoolean() ? Optional.of(in.readUTF()) : Optional.empty();
+    }
+
+    private static void writeStrings(DataOutput out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) out.writeUTF(value);
+    }
+
+    private static List<String> readStrings(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) values.add(in.readUTF());
+        return values;
+    }
+
+    private static void writeEnums(DataOutput out, Set<? extends Enum<?>> values) throws IOException {
+        out.writeInt(values.size());
+        for (Enum<?> value : values) out.writeUTF(value.name());
+    }
+
+    private static <T extends Enum<T>> Set<T> readEnums(DataInput in, Class<T> cls) throws IOException {
+        int size = in.readInt();
+        Set<T> values = EnumSet.noneOf(cls);
+        for (int i = 0; i < size; i++) {
+            try {
+                values.add(Enum.valueOf(cls, in.readUTF()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid " + cls.getSimpleName() + " in cached module descriptor", e);
+            }
+        }
+        return values;
+    }
+}
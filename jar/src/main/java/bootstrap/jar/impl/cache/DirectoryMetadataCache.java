@@ -0,0 +1,144 @@
+package bootstrap.jar.impl.cache;
+
+import bootstrap.jar.JarMetadataCache;
+import bootstrap.jar.JarMetadataFilter;
+import bootstrap.jar.impl.classloading.ClassIndexImpl;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.lang.module.ModuleDescriptor;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.jar.Manifest;
+
+@NotNullByDefault
+public final class DirectoryMetadataCache {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+
+    public DirectoryMetadataCache(JarMetadataCache cache) {
+        this.directory = cache.location();
+    }
+
+    /**
+     * Computes the cache key for a jar or returns {@code null} if the jar can't be cached.
+     */
+    public @Nullable String key(JarMetadataFilter filter, List<Path> paths) throws IOException {
+        Optional<String> fingerprint = filter.fingerprint();
+        if (fingerprint.isEmpty() || paths.isEmpty()) return null;
+        StringBuilder sb = new StringBuilder();
+        sb.append(FORMAT_VERSION).append('\n');
+        sb.append(Runtime.version().feature()).append('\n');
+        sb.append(fingerprint.get()).append('\n');
+        for (Path path : paths) {
+            // Directories can change without their own attributes changing, so only archives are cached.
+            if (path.getFileSystem() != FileSystems.getDefault()) return null;
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+            if (!attributes.isRegularFile()) return null;
+            sb.append(path.toAbsolutePath().normalize().toUri()).append('\n');
+            sb.append(attributes.size()).append(' ').append(attributes.lastModifiedTime().toMillis()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public @Nullable CachedJar load(String key) {
+        Path file = this.file(key, ".jarmeta");
+        if (!Files.isRegularFile(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION || !key.equals(in.readUTF())) return null;
+            byte[] manifestBytes = new byte[in.readInt()];
+            in.readFully(manifestBytes);
+            Manifest manifest = new Manifest(new ByteArrayInputStream(manifestBytes));
+            ModuleDescriptor descriptor = DescriptorSerializer.read(in);
+            int versionCount = in.readInt();
+            List<Integer> multiReleaseVersions = new ArrayList<>(versionCount);
+            for (int i = 0; i < versionCount; i++) multiReleaseVersions.add(in.readInt());
+            return new CachedJar(manifest, descriptor, List.copyOf(multiReleaseVersions));
+        } catch (IOException | RuntimeException e) {
+            // A broken cache entry is treated as a cache miss and overwritten later.
+            return null;
+        }
+    }
+
+    public void store(String key, CachedJar jar) {
+        try {
+            ByteArrayOutputStream manifestBytes = new ByteArrayOutputStream();
+            jar.manifest().write(manifestBytes);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(key);
+                out.writeInt(manifestBytes.size());
+                manifestBytes.writeTo(out);
+                DescriptorSerializer.write(out, jar.descriptor());
+                out.writeInt(jar.multiReleaseVersions().size());
+                for (int version : jar.multiReleaseVersions()) out.writeInt(version);
+            }
+            this.write(this.file(key, ".jarmeta"), bytes.toByteArray());
+        } catch (IOException e) {
+            // The cache is only an optimisation, failing to write it should not fail building the jar.
+        }
+    }
+
+    /**
+     * Loads the class index of a jar, that is stored under the same key as the jar metadata.
+     */
+    public @Nullable ClassIndexImpl loadClassIndex(String key) {
+        Path file = this.file(key, ".classidx");
+        if (!Files.isRegularFile(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION || !key.equals(in.readUTF())) return null;
+            return ClassIndexImpl.read(in);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public void storeClassIndex(String key, ClassIndexImpl index) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(key);
+                index.write(out);
+            }
+            this.write(this.file(key, ".classidx"), bytes.toByteArray());
+        } catch (IOException e) {
+            // The index can always be built again.
+        }
+    }
+
+    private void write(Path file, byte[] bytes) throws IOException {
+        Files.createDirectories(this.directory);
+        Path tempFile = Files.createTempFile(this.directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tempFile, bytes);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private Path file(String key, String extension) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return this.directory.resolve(HexFormat.of().formatHex(hash) + extension);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported", e);
+        }
+    }
+
+    public record CachedJar(Manifest manifest, ModuleDescriptor descriptor, List<Integer> multiReleaseVersions) {}
+}
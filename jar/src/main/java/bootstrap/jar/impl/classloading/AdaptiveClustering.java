@@ -0,0 +1,177 @@
+package bootstrap.jar.impl.classloading;
+
+import bootstrap.jar.classloading.ModuleClustering;
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.lang.module.Configuration;
+import java.lang.module.ResolvedModule;
+import java.util.*;
+
+/**
+ * Computes a {@link ModuleClustering} from the strongly connected components of the read graph of a configuration.
+ * Components are placed with first-fit into the first cluster, in which no package would be visible from two
+ * different modules, as the {@link ModularClassLoader} maps every visible package to a single module.
+ */
+@NotNullByDefault
+public class AdaptiveClustering implements ModuleClustering {
+
+    // Rough per-loader costs: The loader itself with its parallel lock map and module, manifest and code source maps,
+    // and an entry in the package map for every package visible to the loader.
+    private static final long LOADER_OVERHEAD = 8192;
+    private static final long PACKAGE_ENTRY = 96;
+
+    private final Map<String, String> clusterIds;
+    private final Map<String, Set<String>> clusters;
+    private final long estimatedMemory;
+
+    private AdaptiveClustering(Map<String, String> clusterIds, Map<String, Set<String>> clusters, long estimatedMemory) {
+        this.clusterIds = clusterIds;
+        this.clusters = clusters;
+        this.estimatedMemory = estimatedMemory;
+    }
+
+    public static AdaptiveClustering compute(Configuration configuration) {
+        List<Cluster> clusters = new ArrayList<>();
+        for (List<ResolvedModule> component : components(configuration)) {
+            if (!place(clusters, component)) {
+                // The component can't be kept together, so its modules are placed one by one.
+                for (ResolvedModule module : component) {
+                    if (!place(clusters, List.of(module))) {
+                        throw new IllegalStateException("Module " + module.name() + " sees a package from two modules.");
+                    }
+                }
+            }
+        }
+
+        Map<String, String> clusterIds = new HashMap<>();
+        Map<String, Set<String>> result = new LinkedHashMap<>();
+        long estimatedMemory = 0;
+        for (int i = 0; i < clusters.size(); i++) {
+            Cluster cluster = clusters.get(i);
+            String id = "cluster-" + i;
+            for (String module : cluster.modules()) clusterIds.put(module, id);
+            result.put(id, Collections.unmodifiableSet(cluster.modules()));
+            estimatedMemory += LOADER_OVERHEAD + PACKAGE_ENTRY * cluster.packages().size();
+        }
+        return new AdaptiveClustering(Map.copyOf(clusterIds), Collections.unmodifiableMap(result), estimatedMemory);
+    }
+
+    private static boolean place(List<Cluster> clusters, List<ResolvedModule> modules) {
+        for (Cluster cluster : clusters) {
+            if (cluster.tryAdd(modules)) return true;
+        }
+        Cluster cluster = new Cluster(new TreeSet<>(), new HashMap<>());
+        if (!cluster.tryAdd(modules)) return false;
+        clusters.add(cluster);
+        return true;
+    }
+
+    // Tarjan's algorithm, yields the components with the modules they read first. Modules are visited in name order,
+    // so the clustering is the same on every run.
+    private static List<List<ResolvedModule>> components(Configuration configuration) {
+        List<ResolvedModule> modules = configuration.modules().stream().sorted(Comparator.comparing(ResolvedModule::name)).toList();
+        Tarjan tarjan = new Tarjan(configuration);
+        for (ResolvedModule module : modules) {
+            if (!tarjan.index.containsKey(module)) tarjan.visit(module);
+        }
+        return tarjan.components;
+    }
+
+    @Override
+    public String apply(String moduleName) {
+        String id = this.clusterIds.get(moduleName);
+        if (id == null) throw new IllegalArgumentException("Module " + moduleName + " is not part of the clustered configuration.");
+        return id;
+    }
+
+    @Override
+    public Map<String, Set<String>> clusters() {
+        return this.clusters;
+    }
+
+    @Override
+    public long estimatedMemory() {
+        return this.estimatedMemory;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveClustering[loaders=" + this.loaderCount() + ", estimatedMemory=" + this.estimatedMemory + ", clusters=" + this.clusters + "]";
+    }
+
+    @NotNullByDefault
+    private record Cluster(SortedSet<String> modules, Map<String, String> packages) {
+
+        private boolean tryAdd(List<ResolvedModule> modules) {
+            Map<String, String> added = new HashMap<>();
+            for (ResolvedModule module : modules) {
+                if (!this.visible(module, module, added)) return false;
+                for (ResolvedModule dep : module.reads()) {
+                    if (!this.visible(module, dep, added)) return false;
+                }
+            }
+            this.packages.putAll(added);
+            for (ResolvedModule module : modules) this.modules.add(module.name());
+            return true;
+        }
+
+        private boolean visible(ResolvedModule module, ResolvedModule source, Map<String, String> added) {
+            for (String pkg : source.reference().descriptor().packages()) {
+                String existing = this.packages.get(pkg);
+                if (existing == null) existing = added.putIfAbsent(pkg, source.name());
+                if (existing != null && !existing.equals(source.name())) return false;
+            }
+            return true;
+        }
+    }
+
+    private static class Tarjan {
+
+        private final Configuration configuration;
+        private final Map<ResolvedModule, Integer> index;
+        private final Map<ResolvedModule, Integer> lowLink;
+        private final Deque<ResolvedModule> stack;
+        private final Set<ResolvedModule> onStack;
+        private final List<List<ResolvedModule>> components;
+
+        private Tarjan(Configuration configuration) {
+            this.configuration = configuration;
+            this.index = new HashMap<>();
+            this.lowLink = new HashMap<>();
+            this.stack = new ArrayDeque<>();
+            this.onStack = new HashSet<>();
+            this.components = new ArrayList<>();
+        }
+
+        private void visit(ResolvedModule module) {
+            int idx = this.index.size();
+            this.index.put(module, idx);
+            this.lowLink.put(module, idx);
+            this.stack.push(module);
+            this.onStack.add(module);
+            List<ResolvedModule> reads = module.reads().stream()
+                    .filter(dep -> dep.configuration() == this.configuration)
+                    .sorted(Comparator.comparing(ResolvedModule::name))
+                    .toList();
+            for (ResolvedModule dep : reads) {
+                if (!this.index.containsKey(dep)) {
+                    this.visit(dep);
+                    this.lowLink.put(module, Math.min(this.lowLink.get(module), this.lowLink.get(dep)));
+                } else if (this.onStack.contains(dep)) {
+                    this.lowLink.put(module, Math.min(this.lowLink.get(module), this.index.get(dep)));
+                }
+            }
+            if (this.lowLink.get(module).equals(this.index.get(module))) {
+                List<ResolvedModule> component = new ArrayList<>();
+                ResolvedModule member;
+                do {
+                    member = this.stack.pop();
+                    this.onStack.remove(member);
+                    component.add(member);
+                } while (member != module);
+                component.sort(Comparator.comparing(ResolvedModule::name));
+                this.components.add(component);
+            }
+        }
+    }
+}
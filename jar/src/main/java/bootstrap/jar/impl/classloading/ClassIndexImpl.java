@@ -0,0 +1,111 @@
+package bootstrap.jar.impl.classloading;
+
+import bootstrap.jar.classloading.ClassIndex;
+import bootstrap.jar.classloading.ClassMetadata;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+@NotNullByDefault
+public class ClassIndexImpl implements ClassIndex {
+
+    public static final ClassIndexImpl EMPTY = new ClassIndexImpl(List.of());
+
+    private final SortedMap<String, ClassMetadata> classes;
+    private final Map<String, List<ClassMetadata>> annotated;
+    private final Map<String, List<ClassMetadata>> subtypes;
+
+    public ClassIndexImpl(Collection<? extends ClassMetadata> classes) {
+        SortedMap<String, ClassMetadata> classMap = new TreeMap<>();
+        for (ClassMetadata cls : classes) classMap.putIfAbsent(cls.name(), cls);
+        Map<String, List<ClassMetadata>> annotated = new HashMap<>();
+        Map<String, List<ClassMetadata>> subtypes = new HashMap<>();
+        for (ClassMetadata cls : classMap.values()) {
+            for (String annotation : cls.annotations()) annotated.computeIfAbsent(annotation, _ -> new ArrayList<>()).add(cls);
+            cls.superclass().ifPresent(superclass -> subtypes.computeIfAbsent(superclass, _ -> new ArrayList<>()).add(cls));
+            for (String iface : cls.interfaces()) subtypes.computeIfAbsent(iface, _ -> new ArrayList<>()).add(cls);
+        }
+        this.classes = Collections.unmodifiableSortedMap(classMap);
+        this.annotated = annotated;
+        this.subtypes = subtypes;
+    }
+
+    /**
+     * Merges the indices of multiple modules. If a class is part of more than one index, the first one wins.
+     */
+    public static ClassIndexImpl merge(List<? extends ClassIndex> indices) {
+        List<ClassMetadata> classes = new ArrayList<>();
+        for (ClassIndex index : indices) classes.addAll(index.classes());
+        return new ClassIndexImpl(classes);
+    }
+
+    @Override
+    public Optional<ClassMetadata> find(String className) {
+        return Optional.ofNullable(this.classes.get(className));
+    }
+
+    @Override
+    public Collection<ClassMetadata> classes() {
+        return this.classes.values();
+    }
+
+    @Override
+    public List<ClassMetadata> annotatedWith(String annotationName) {
+        return Collections.unmodifiableList(this.annotated.getOrDefault(annotationName, List.of()));
+    }
+
+    @Override
+    public List<ClassMetadata> directSubtypes(String typeName) {
+        return Collections.unmodifiableList(this.subtypes.getOrDefault(typeName, List.of()));
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(this.classes.size());
+        for (ClassMetadata cls : this.classes.values()) {
+            out.writeUTF(cls.name());
+            out.writeInt(cls.accessFlags());
+            out.writeUTF(cls.superclass().orElse(""));
+            writeStrings(out, cls.interfaces());
+            writeStrings(out, cls.annotations());
+        }
+    }
+
+    public static ClassIndexImpl read(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<ClassMetadata> classes = new ArrayList<>(Math.min(count, 65536));
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            int accessFlags = in.readInt();
+            String superclass = in.readUTF();
+            List<String> interfaces = readStrings(in);
+            Set<String> annotations = Set.copyOf(readStrings(in));
+            classes.add(new Metadata(name, accessFlags, superclass.isEmpty() ? null : superclass, interfaces, annotations));
+        }
+        return new ClassIndexImpl(classes);
+    }
+
+    private static void writeStrings(DataOutput out, Collection<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) out.writeUTF(string);
+    }
+
+    private static List<String> readStrings(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<String> strings = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) strings.add(in.readUTF());
+        return List.copyOf(strings);
+    }
+
+    @NotNullByDefault
+    public record Metadata(String name, int accessFlags, @Nullable String superName, List<String> interfaces, Set<String> annotations) implements ClassMetadata {
+
+        @Override
+        public Optional<String> superclass() {
+            return Optional.ofNullable(this.superName);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package bootstrap.jar.impl.classloading;
+
+import bootstrap.jar.classloading.ClassMetadata;
+import bootstrap.jar.util.Parallel;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.classfile.Attributes;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassModel;
+import java.lang.classfile.constantpool.ClassEntry;
+import java.lang.module.ModuleReader;
+import java.lang.module.ModuleReference;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds a {@link ClassIndexImpl} from the class files of a module. Class files are read and parsed in parallel
+ * batches, only the constant pool entries and the attributes needed for the index are inflated by the parser.
+ */
+@NotNullByDefault
+public class ClassIndexScanner {
+
+    private static final int BATCH_SIZE = 256;
+
+    public static ClassIndexImpl scan(ModuleReference reference) throws IOException {
+        try (ModuleReader reader = reference.open()) {
+            List<String> names;
+            try (Stream<String> stream = reader.list()) {
+                names = stream.filter(ClassIndexScanner::isIndexedClass).toList();
+            }
+            if (names.isEmpty()) return ClassIndexImpl.EMPTY;
+            if (names.size() <= BATCH_SIZE) return new ClassIndexImpl(scanBatch(reader, names));
+
+            List<List<String>> batches = new ArrayList<>();
+            for (int start = 0; start < names.size(); start += BATCH_SIZE) {
+                batches.add(names.subList(start, Math.min(start + BATCH_SIZE, names.size())));
+            }
+            List<ClassMetadata> classes = new ArrayList<>(names.size());
+            for (List<ClassMetadata> batch : Parallel.map(batches, batch -> scanBatch(reader, batch))) {
+                classes.addAll(batch);
+            }
+            return new ClassIndexImpl(classes);
+        }
+    }
+
+    private static boolean isIndexedClass(String name) {
+        // Multi-release jars already expose the applicable versions in their root, anything in META-INF is no class
+        // of the module.
+        return name.endsWith(".class") && !name.startsWith("META-INF/") && !name.equals("module-info.class") && !name.endsWith("/module-info.class");
+    }
+
+    private static List<ClassMetadata> scanBatch(ModuleReader reader, List<String> names) throws IOException {
+        ClassFile classFile = ClassFile.of();
+        List<ClassMetadata> classes = new ArrayList<>(names.size());
+        for (String name : names) {
+            Optional<InputStream> in = reader.open(name);
+            if (in.isEmpty()) continue;
+            byte[] data;
+            try (InputStream stream = in.get()) {
+                data = stream.readAllBytes();
+            }
+            @Nullable ClassMetadata cls = parse(classFile, data);
+            if (cls != null) classes.add(cls);
+        }
+        return classes;
+    }
+
+    private static @Nullable ClassMetadata parse(ClassFile classFile, byte[] data) {
+        try {
+            ClassModel model = classFile.parse(data);
+            Set<String> annotations = model.findAttribute(Attributes.runtimeVisibleAnnotations())
+                    .map(attribute -> attribute.annotations().stream()
+                            .map(annotation -> descriptorName(annotation.className().stringValue()))
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toUnmodifiableSet()))
+                    .orElse(Set.of());
+            return new ClassIndexImpl.Metadata(
+                    binaryName(model.thisClass()),
+                    model.flags().flagsMask(),
+                    model.superclass().map(ClassIndexScanner::binaryName).orElse(null),
+                    model.interfaces().stream().map(ClassIndexScanner::binaryName).toList(),
+                    annotations
+            );
+        } catch (IllegalArgumentException e) {
+            // Malformed class files and class files of unsupported versions are not indexed. Loading them would
+            // fail anyway.
+            return null;
+        }
+    }
+
+    private static String binaryName(ClassEntry entry) {
+        return entry.asInternalName().replace('/', '.');
+    }
+
+    private static @Nullable String descriptorName(String descriptor) {
+        if (descriptor.length() < 3 || descriptor.charAt(0) != 'L' || descriptor.charAt(descriptor.length() - 1) != ';') return null;
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+}
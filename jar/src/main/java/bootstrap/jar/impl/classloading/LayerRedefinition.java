@@ -0,0 +1,54 @@
+package bootstrap.jar.impl.classloading;
+
+import bootstrap.jar.Jar;
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.lang.module.Configuration;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.lang.module.ResolvedModule;
+import java.util.*;
+
+/**
+ * Computes the configuration for a layer that is redefined from a previous layer with a set of changed modules.
+ */
+@NotNullByDefault
+public class LayerRedefinition {
+
+    public static Configuration resolve(Configuration previous, Set<String> removedModules, List<Jar> addedModules, ModuleFinder dependencies) {
+        Map<String, ModuleReference> added = new HashMap<>();
+        for (Jar jar : addedModules) {
+            if (added.put(jar.name(), jar.reference()) != null) {
+                throw new IllegalArgumentException("Multiple jars provide module " + jar.name());
+            }
+        }
+        // Sorted, so the resolution does not depend on the iteration order of the previous configuration.
+        Map<String, ModuleReference> modules = new TreeMap<>();
+        for (ResolvedModule module : previous.modules()) {
+            if (!removedModules.contains(module.name()) && !added.containsKey(module.name())) {
+                modules.put(module.name(), module.reference());
+            }
+        }
+        modules.putAll(added);
+        // All modules are roots, so the modules previously bound through services are kept. The modules are found
+        // before the parent configurations, as they were chosen over modules from the parents before. New
+        // dependencies are only taken from the dependency finder if the parents don't have them, and binding only
+        // adds providers from there, as all other modules are already part of the configuration.
+        ModuleFinder finder = new FixedModuleFinder(Collections.unmodifiableMap(modules), Collections.unmodifiableSet(new LinkedHashSet<>(modules.values())));
+        return Configuration.resolveAndBind(finder, previous.parents(), dependencies, modules.keySet());
+    }
+
+    @NotNullByDefault
+    private record FixedModuleFinder(Map<String, ModuleReference> modules, Set<ModuleReference> references) implements ModuleFinder {
+
+        @Override
+        public Optional<ModuleReference> find(String name) {
+            return Optional.ofNullable(this.modules.get(name));
+        }
+
+        @Override
+        public Set<ModuleReference> findAll() {
+            return this.references;
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package bootstrap.jar.impl.classloading;
 
 import bootstrap.jar.classloading.ModuleLoaderPool;
+import bootstrap.jar.classloading.ServiceIndex;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Optional;
 
 @NotNullByDefault
-public record LoaderPoolController(LoaderPoolImpl pool, ModuleLayer.Controller layerController) implements ModuleLoaderPool.Controller {
+public record LoaderPoolController(LoaderPoolImpl pool, ModuleLayer.Controller layerController, ServiceIndex services) implements ModuleLoaderPool.Controller {
+
+    public LoaderPoolController(LoaderPoolImpl pool, ModuleLayer.Controller layerController) {
+        this(pool, layerController, ServiceIndex.of(layerController.layer()));
+    }
 
     @Override
     public void addReads(Module source, Module target) {
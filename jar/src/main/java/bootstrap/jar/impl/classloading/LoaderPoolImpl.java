@@ -1,17 +1,21 @@
 package bootstrap.jar.impl.classloading;
 
 import bootstrap.jar.classloading.ClassDiscovery;
+import bootstrap.jar.classloading.ClassIndex;
 import bootstrap.jar.classloading.ClassTransformer;
 import bootstrap.jar.classloading.ModuleLoaderPool;
 import bootstrap.jar.classloading.TransformingEnvironment;
+import bootstrap.jar.impl.JarModuleReference;
 import bootstrap.jar.reflect.JavaBaseAccess;
 import bootstrap.jar.url.classtransformer.ClassTransformerStreamHandler;
 import bootstrap.jar.util.NameHelper;
+import bootstrap.jar.util.Parallel;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.SoftReference;
 import java.lang.module.Configuration;
 import java.lang.module.ModuleReader;
 import java.lang.module.ResolvedModule;
@@ -19,6 +23,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -32,6 +37,10 @@ public class LoaderPoolImpl implements ModuleLoaderPool {
     private final Map<String, ModuleContext> moduleMap;
     private final List<ModuleLayer> parentLayers;
     private final String resourceIdentifier;
+    private final Map<String, ClassIndexImpl> classIndices;
+    private final Map<String, TransformedResource> transformedResources;
+    private final Map<String, URL> manifestUrls;
+    private volatile @Nullable ClassIndexImpl poolClassIndex;
 
     public LoaderPoolImpl(String name, Configuration configuration, List<ModuleLayer> parentLayers, ClassTransformer transformer, Function<String, String> cluster, ClassLoader fallback) {
         this.name = name;
@@ -42,6 +51,9 @@ public class LoaderPoolImpl implements ModuleLoaderPool {
         this.parentLayers = List.copyOf(parentLayers);
         this.checkParentLayers(configuration, this.parentLayers);
         this.resourceIdentifier = ClassTransformerStreamHandler.registerPool(name, this);
+        this.classIndices = new ConcurrentHashMap<>();
+        this.transformedResources = new ConcurrentHashMap<>();
+        this.manifestUrls = new ConcurrentHashMap<>();
 
         List<? extends ClassLoader> loaders = this.moduleMap.values().stream().map(ModuleContext::loader).distinct().toList();
         this.bindToParentLayers(parentLayers, loaders, new HashSet<>());
@@ -53,6 +65,7 @@ public class LoaderPoolImpl implements ModuleLoaderPool {
             for (ResolvedModule module : this.configuration.modules()) {
                 clusterMap.computeIfAbsent(cluster.apply(module.name()), _ -> new HashSet<>()).add(module);
             }
+            @Nullable String fingerprint = this.transformer.fingerprint().orElse(null);
             Map<String, ModuleContext> moduleMap = new HashMap<>();
             for (String clusterId : clusterMap.keySet()) {
                 Set<ResolvedModule> modules = Set.copyOf(clusterMap.get(clusterId));
@@ -60,7 +73,9 @@ public class LoaderPoolImpl implements ModuleLoaderPool {
                 ModularClassLoader loader = new ModularClassLoader(this.name, this, this.configuration, moduleNames, fallback);
                 for (ResolvedModule module : modules) {
                     TransformingEnvironment env = new TransformingEnvironmentImpl(module, loader);
-                    ModuleContext context = new ModuleContext(module, module.reference().open(), loader, env);
+                    // Modules that were transformed ahead of time by the same transformer are loaded as they are.
+                    boolean transformed = fingerprint != null && fingerprint.equals(TransformedJarWriter.fingerprint(module));
+                    ModuleContext context = new ModuleContext(module, module.reference().open(), loader, env, transformed);
                     moduleMap.put(module.name(), context);
                 }
             }
@@ -128,6 +143,29 @@ public class LoaderPoolImpl implements ModuleLoaderPool {
         throw new IllegalArgumentException("Module " + moduleName + " is not part of this loader pool.");
     }
 
+    @Override
+    public ClassIndex classIndex(String moduleName) throws IOException {
+        ModuleContext context = this.moduleMap.get(moduleName);
+        if (context == null) throw new IllegalArgumentException("Module " + moduleName + " is not part of this loader pool.");
+        // Jars keep their own index, that may also be cached on disk.
+        if (context.module().reference() instanceof JarModuleReference reference) return reference.classIndex();
+        ClassIndexImpl index = this.classIndices.get(moduleName);
+        if (index != null) return index;
+        index = ClassIndexScanner.scan(context.module().reference());
+        ClassIndexImpl existing = this.classIndices.putIfAbsent(moduleName, index);
+        return existing != null ? existing : index;
+    }
+
+    @Override
+    public ClassIndex classIndex() throws IOException {
+        ClassIndexImpl index = this.poolClassIndex;
+        if (index != null) return index;
+        List<String> moduleNames = this.moduleMap.keySet().stream().sorted().toList();
+        index = ClassIndexImpl.merge(Parallel.map(moduleNames, this::classIndex));
+        this.poolClassIndex = index;
+        return index;
+    }
+
     @Override
     public void addRuntimeClass(String moduleName, String className, URL resource) {
         ModuleContext context = this.moduleMap.get(moduleName);
@@ -142,11 +180,11 @@ public class LoaderPoolImpl implements ModuleLoaderPool {
         this.runtimeClassMap.addRuntimeClass(moduleName, className, resource);
     }
 
+    // The class name must already be validated.
     private ClassResource findClassURL(String moduleName, String className) throws ClassNotFoundException {
         try {
-            if (!NameHelper.validLoadableClassName(className)) throw new ClassNotFoundException(className);
             String resource = className.replace('.', '/') + ".class";
-            Optional<URL> url = this.findNonTransformedResource(moduleName, resource);
+            Optional<URL> url = this.findNormalizedResource(moduleName, resource);
             if (url.isPresent()) return new ClassResource(url.get(), true);
             url = this.runtimeClassMap.getRuntimeClass(moduleName, className);
             if (url.isPresent()) return new ClassResource(url.get(), false);
@@ -157,23 +195,11 @@ public class LoaderPoolImpl implements ModuleLoaderPool {
     }
 
     public byte[] getTransformedClass(String moduleName, String className, String reason, boolean searchParents) throws ClassNotFoundException {
-        if (!NameHelper.validTypeName(moduleName) || !NameHelper.validLoadableClassName(className)) throw new ClassNotFoundException(className);
+        if (!NameHelper.validLoadableClassName(className)) throw new ClassNotFoundException(className);
         ModuleContext context = this.moduleMap.get(moduleName);
         if (context != null) {
-            ClassResource res = this.findClassURL(moduleName, className);
-            byte[] data;
-            try (InputStream in = res.url().openStream()) {
-                data = in.readAllBytes();
-            } catch (IOException e) {
-                throw new ClassNotFoundException(className, e);
-            }
-            if (data.length == 0) throw new ClassNotFoundException(className);
-            if (res.needsTransform()) {
-                data = this.transformer.transformClass(context.env(), moduleName, className, data, reason);
-            }
-            if (data.length == 0) throw new ClassNotFoundException(className);
-            return data;
-        } else if (searchParents) {
+            return this.readTransformedClass(context, className, reason);
+        } else if (searchParents && NameHelper.validTypeName(moduleName)) {
             Module parentModule = this.findParentModule(moduleName);
             if (parentModule != null) {
                 try (InputStream in = parentModule.getResourceAsStream(className.replace('.', '/') + ".class")) {
@@ -186,6 +212,24 @@ public class LoaderPoolImpl implements ModuleLoaderPool {
         throw new ClassNotFoundException(className);
     }
 
+    // Module names of this pool are valid, so only the class name must already be validated.
+    private byte[] readTransformedClass(ModuleContext context, String className, String reason) throws ClassNotFoundException {
+        String moduleName = context.module().name();
+        ClassResource res = this.findClassURL(moduleName, className);
+        byte[] data;
+        try (InputStream in = res.url().openStream()) {
+            data = in.readAllBytes();
+        } catch (IOException e) {
+            throw new ClassNotFoundException(className, e);
+        }
+        if (data.length == 0) throw new ClassNotFoundException(className);
+        if (res.needsTransform() && !context.transformed()) {
+            data = this.transformer.transformClass(context.env(), moduleName, className, data, reason);
+        }
+        if (data.length == 0) throw new ClassNotFoundException(className);
+        return data;
+    }
+
     public Class<?> loadParentClass(String moduleName, String className) throws ClassNotFoundException {
         if (!NameHelper.validTypeName(moduleName) || !NameHelper.validLoadableClassName(className)) throw new ClassNotFoundException(className);
 
@@ -203,37 +247,70 @@ public class LoaderPoolImpl implements ModuleLoaderPool {
     }
 
     public Optional<URL> findResource(String moduleName, String resource) throws IOException {
-        resource = resource.replaceAll("(^/+)|(/+$)|(/(?=/+))", "");
+        resource = NameHelper.normalizeResourceName(resource);
+        ModuleContext context = this.moduleMap.get(moduleName);
         String internalName;
         String className;
-        if (resource.endsWith(".class") && this.moduleMap.containsKey(moduleName)
+        if (resource.endsWith(".class") && context != null
                 && (internalName = resource.substring(0, resource.length() - 6)).indexOf('.') < 0
                 && NameHelper.validLoadableClassName(className = internalName.replace('/', '.'))) {
+            String path = "/" + moduleName + "/" + className;
+            TransformedResource transformed = this.transformedResources.get(path);
+            if (transformed != null) return Optional.of(transformed.url());
+            byte[] data;
             try {
-                this.getTransformedClass(moduleName, className, ClassTransformer.REASON_RESOURCE, false);
-                return Optional.of(new URI(ClassTransformerStreamHandler.PROTOCOL,
-                        this.resourceIdentifier, "/" + moduleName + "/" + className, null
-                ).toURL());
+                data = this.readTransformedClass(context, className, ClassTransformer.REASON_RESOURCE);
             } catch (ClassNotFoundException e) {
                 return Optional.empty();
-            } catch (URISyntaxException e) {
-                throw new IOException("Invalid URI", e);
             }
+            transformed = new TransformedResource(context, className, this.resourceUrl(path), data);
+            TransformedResource existing = this.transformedResources.putIfAbsent(path, transformed);
+            return Optional.of((existing != null ? existing : transformed).url());
         } else if (resource.equals("META-INF/MANIFEST.MF")) {
-            try {
-                return Optional.of(new URI(ClassTransformerStreamHandler.PROTOCOL,
-                        this.resourceIdentifier, "/" + moduleName + "/META-INF.MANIFEST", null
-                ).toURL());
-            } catch (URISyntaxException e) {
-                throw new IOException("Invalid URI", e);
+            String path = "/" + moduleName + "/META-INF.MANIFEST";
+            URL url = this.manifestUrls.get(path);
+            if (url == null) {
+                url = this.resourceUrl(path);
+                URL existing = this.manifestUrls.putIfAbsent(path, url);
+                if (existing != null) url = existing;
             }
+            return Optional.of(url);
         } else {
-            return this.findNonTransformedResource(moduleName, resource);
+            return this.findNormalizedResource(moduleName, resource);
+        }
+    }
+
+    private URL resourceUrl(String path) throws IOException {
+        try {
+            return new URI(ClassTransformerStreamHandler.PROTOCOL, this.resourceIdentifier, path, null).toURL();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid URI", e);
+        }
+    }
+
+    /**
+     * Gets the transformed bytes of a class resource previously returned by {@link #findResource(String, String)},
+     * without transforming the class again, unless the bytes were reclaimed in the meantime. The returned array is
+     * shared and must not be modified. Returns {@code null} if the path is not known to this pool.
+     *
+     * @param path The path of the {@link ClassTransformerStreamHandler#PROTOCOL classtransformer} URL.
+     */
+    public byte @Nullable [] getTransformedResource(String path) throws ClassNotFoundException {
+        TransformedResource transformed = this.transformedResources.get(path);
+        if (transformed == null) return null;
+        byte[] data = transformed.data().get();
+        if (data == null) {
+            data = this.readTransformedClass(transformed.context(), transformed.className(), ClassTransformer.REASON_RESOURCE);
+            transformed.setData(data);
         }
+        return data;
     }
 
     public Optional<URL> findNonTransformedResource(String moduleName, String resource) throws IOException {
-        resource = resource.replaceAll("(^/+)|(/+$)|(/(?=/+))", "");
+        return this.findNormalizedResource(moduleName, NameHelper.normalizeResourceName(resource));
+    }
+
+    private Optional<URL> findNormalizedResource(String moduleName, String resource) throws IOException {
         ModuleContext context = this.moduleMap.get(moduleName);
         if (context == null) return Optional.empty();
         URI uri = context.reader.find(resource).orElse(null);
@@ -251,7 +328,44 @@ public class LoaderPoolImpl implements ModuleLoaderPool {
     }
 
     private record ClassResource(URL url, boolean needsTransform) {}
-    private record ModuleContext(ResolvedModule module, ModuleReader reader, ModularClassLoader loader, TransformingEnvironment env) {}
+
+    // A transformed class, that was handed out as a resource URL. The bytes were computed to check that the class
+    // exists, so they are kept for the URL connection, as long as memory permits.
+    private static class TransformedResource {
+
+        private final ModuleContext context;
+        private final String className;
+        private final URL url;
+        private volatile SoftReference<byte[]> data;
+
+        private TransformedResource(ModuleContext context, String className, URL url, byte[] data) {
+            this.context = context;
+            this.className = className;
+            this.url = url;
+            this.data = new SoftReference<>(data);
+        }
+
+        private ModuleContext context() {
+            return this.context;
+        }
+
+        private String className() {
+            return this.className;
+        }
+
+        private URL url() {
+            return this.url;
+        }
+
+        private SoftReference<byte[]> data() {
+            return this.data;
+        }
+
+        private void setData(byte[] data) {
+            this.data = new SoftReference<>(data);
+        }
+    }
+    private record ModuleContext(ResolvedModule module, ModuleReader reader, ModularClassLoader loader, TransformingEnvironment env, boolean transformed) {}
 
     private class TransformingEnvironmentImpl implements TransformingEnvironment {
 
@@ -1,29 +1,22 @@
 package bootstrap.jar.impl.classloading;
 
 import bootstrap.jar.classloading.ClassTransformer;
-import bootstrap.jar.impl.JarModuleReference;
+import bootstrap.jar.impl.ModuleMetadata;
 import bootstrap.jar.reflect.JavaBaseAccess;
 import bootstrap.jar.util.FlatteningEnumeration;
 import bootstrap.jar.util.NameHelper;
-import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.lang.module.Configuration;
 import java.lang.module.ModuleDescriptor;
-import java.lang.module.ModuleReader;
 import java.lang.module.ResolvedModule;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.security.*;
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.jar.Attributes;
-import java.util.jar.Manifest;
 import java.util.stream.Collectors;
 
 @NotNullByDefault
@@ -37,8 +30,7 @@ public class ModularClassLoader extends SecureClassLoader {
     private final ClassLoader fallback;
     private final LoaderPoolImpl pool;
     private final Map<String, ResolvedModule> moduleMap;
-    private final Map<String, Manifest> manifestMap;
-    private final Map<String, CodeSource> codeSourceMap;
+    private final Map<String, ModuleMetadata> metadataMap;
     private final Map<String, String> packageMap;
     private final RuntimePackageMap runtimePackageMap;
 
@@ -59,36 +51,12 @@ public class ModularClassLoader extends SecureClassLoader {
             }
         }
 
-        Map<String, Manifest> manifestMap = new HashMap<>();
-        Map<String, CodeSource> codeSourceMap = new HashMap<>();
+        // Manifests and code sources are only read when a class or package of the module is defined.
+        Map<String, ModuleMetadata> metadataMap = new HashMap<>();
         for (ResolvedModule module : this.moduleMap.values()) {
-            Manifest manifest = new Manifest();
-            manifest.getMainAttributes().putValue(Attributes.Name.MANIFEST_VERSION.toString(), "1.0");
-            if (module.reference() instanceof JarModuleReference jar) {
-                manifest = jar.manifest();
-            } else try (
-                    ModuleReader reader = module.reference().open();
-                    @Nullable InputStream in = reader.open("META-INF/MANIFEST.MF").orElse(null)
-            ) {
-                if (in != null) manifest = new Manifest(in);
-            } catch (IOException e) {
-                //
-            }
-
-            module.reference().location().ifPresent(uri -> {
-                try {
-                    CodeSource codeSource = new CodeSource(uri.toURL(), (CodeSigner[]) null);
-                    codeSourceMap.put(module.name(), codeSource);
-                } catch (MalformedURLException e) {
-                    //
-                }
-            });
-
-
-            manifestMap.put(module.name(), manifest);
+            metadataMap.put(module.name(), ModuleMetadata.of(module.reference()));
         }
-        this.manifestMap = Map.copyOf(manifestMap);
-        this.codeSourceMap = Map.copyOf(codeSourceMap);
+        this.metadataMap = Map.copyOf(metadataMap);
 
         Map<String, String> packageMap = new HashMap<>();
         BiConsumer<String, String> addPackage = (pkg, moduleName) -> {
@@ -120,23 +88,11 @@ public class ModularClassLoader extends SecureClassLoader {
         synchronized (this.getClassLoadingLock(pkg + ".package-info")) {
             if (this.getDefinedPackage(pkg) != null) return null;
             String moduleName = this.packageMap.get(pkg);
-            Manifest manifest = moduleName == null ? null : this.manifestMap.get(moduleName);
-            if (manifest == null) return null;
+            ModuleMetadata metadata = moduleName == null ? null : this.metadataMap.get(moduleName);
+            if (metadata == null) return null;
 
-            String specTitle = null, specVersion = null, specVendor = null;
-            String implTitle = null, implVersion = null, implVendor = null;
-
-            for (Attributes attributes : new Attributes[]{ manifest.getMainAttributes(), manifest.getAttributes(pkg) }) {
-                if (attributes == null) continue;
-                specTitle = nonNullOrDefault(attributes.getValue(Attributes.Name.SPECIFICATION_TITLE), specTitle);
-                specVersion = nonNullOrDefault(attributes.getValue(Attributes.Name.SPECIFICATION_VERSION), specVersion);
-                specVendor = nonNullOrDefault(attributes.getValue(Attributes.Name.SPECIFICATION_VENDOR), specVendor);
-                implTitle = nonNullOrDefault(attributes.getValue(Attributes.Name.IMPLEMENTATION_TITLE), implTitle);
-                implVersion = nonNullOrDefault(attributes.getValue(Attributes.Name.IMPLEMENTATION_VERSION), implVersion);
-                implVendor = nonNullOrDefault(attributes.getValue(Attributes.Name.IMPLEMENTATION_VENDOR), implVendor);
-            }
-
-            return this.definePackage(pkg, specTitle, specVersion, specVendor, implTitle, implVersion, implVendor, null);
+            ModuleMetadata.PackageAttributes attributes = metadata.packageAttributes(pkg);
+            return this.definePackage(pkg, attributes.specTitle(), attributes.specVersion(), attributes.specVendor(), attributes.implTitle(), attributes.implVersion(), attributes.implVendor(), null);
         }
     }
 
@@ -174,8 +130,12 @@ public class ModularClassLoader extends SecureClassLoader {
         int idx = className.lastIndexOf('.');
         @Nullable String pkg = idx < 0 ? null : className.substring(0, idx);
         if (pkg != null && this.packageMap.containsKey(pkg)) {
+            String moduleName = this.packageMap.get(pkg);
+            // Modules of the same pool can be placed in other loaders, depending on the clustering.
+            @Nullable ModularClassLoader loader = this.pool.getClassLoaderOrNull(moduleName);
             try {
-                return this.pool.loadParentClass(this.packageMap.get(pkg), className);
+                if (loader != null && loader != this) return loader.loadClass(className);
+                return this.pool.loadParentClass(moduleName, className);
             } catch (ClassNotFoundException e) {
                 //
             }
@@ -217,7 +177,7 @@ public class ModularClassLoader extends SecureClassLoader {
             return null;
         }
         Package pkg = this.maybeDefinePackageForClass(className);
-        Class<?> cls = this.defineClass(className, data, 0, data.length, this.codeSourceMap.get(moduleName));
+        Class<?> cls = this.defineClass(className, data, 0, data.length, this.metadataMap.get(moduleName).codeSource());
         if (pkg != null && cls.getModule().isNamed()) this.jba.assignPackageToModule(pkg, cls.getModule());
         return cls;
     }
@@ -240,7 +200,7 @@ public class ModularClassLoader extends SecureClassLoader {
     private @Nullable String packageForResource(String resource) {
         int idx = resource.lastIndexOf('/');
         if (idx < 0) return null;
-        String dir = resource.substring(0, idx).replaceAll("(^/+)|(/+$)|(/+(?=/))", "");
+        String dir = NameHelper.normalizeResourceName(resource.substring(0, idx));
         if (dir.indexOf('.') >= 0) return null;
         return dir.replace('/', '.');
     }
@@ -269,7 +229,7 @@ public class ModularClassLoader extends SecureClassLoader {
                 return null;
             }
         } else {
-            String normalizedName = name.replaceAll("(^/+)|(/+$)|(/+(?=/))", "");
+            String normalizedName = NameHelper.normalizeResourceName(name);
             if (normalizedName.startsWith("META-INF/") && !normalizedName.equals("META-INF/MANIFEST.MF")) {
                 // META-INF is not exclusively owned by a module. However, few libraries load their own resources directly
                 // from the classloader instead of using Class#getResource. Therefore we return the unambiguous resources here
@@ -319,22 +279,10 @@ public class ModularClassLoader extends SecureClassLoader {
         this.runtimePackageMap.addModuleReads(layerController, source, target);
     }
     
+    // The returned array is shared and must not be modified.
     public Optional<byte[]> getManifestData(String moduleName) {
-        Manifest manifest = this.manifestMap.get(moduleName);
-        if (manifest == null) return Optional.empty();
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try {
-            manifest.write(out);
-            out.close();
-        } catch (IOException e) {
-            return Optional.empty();
-        }
-        return Optional.of(out.toByteArray());
-    }
-
-    @Nullable
-    @Contract("_, !null -> !null")
-    private static <T> T nonNullOrDefault(@Nullable T value, @Nullable T dfl) {
-        return value == null ? dfl : value;
+        ModuleMetadata metadata = this.metadataMap.get(moduleName);
+        if (metadata == null) return Optional.empty();
+        return metadata.manifestBytes();
     }
 }
@@ -0,0 +1,148 @@
+package bootstrap.jar.impl.classloading;
+
+import bootstrap.jar.classloading.ServiceIndex;
+import bootstrap.jar.reflect.JavaBaseAccess;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.module.ModuleDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@NotNullByDefault
+public class ServiceIndexImpl implements ServiceIndex {
+
+    private final Map<String, List<ProviderEntry>> providers;
+    private final Map<Class<?>, List<? extends ServiceLoader.Provider<?>>> typedProviders;
+
+    public ServiceIndexImpl(ModuleLayer layer) {
+        Map<String, List<ProviderEntry>> providers = new HashMap<>();
+        for (ModuleLayer current : layers(layer)) {
+            List<Module> modules = current.modules().stream().sorted(Comparator.comparing(Module::getName)).toList();
+            for (Module module : modules) {
+                for (ModuleDescriptor.Provides provides : module.getDescriptor().provides()) {
+                    List<ProviderEntry> entries = providers.computeIfAbsent(provides.service(), _ -> new ArrayList<>());
+                    for (String provider : provides.providers()) entries.add(new ProviderEntry(module, provider));
+                }
+            }
+        }
+        providers.replaceAll((_, entries) -> List.copyOf(entries));
+        this.providers = providers;
+        this.typedProviders = new ConcurrentHashMap<>();
+    }
+
+    // The same order as the layer lookup of ServiceLoader: Depth-first, every layer once.
+    private static List<ModuleLayer> layers(ModuleLayer layer) {
+        List<ModuleLayer> layers = new ArrayList<>();
+        Set<ModuleLayer> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<ModuleLayer> stack = new ArrayDeque<>();
+        stack.push(layer);
+        while (!stack.isEmpty()) {
+            ModuleLayer current = stack.pop();
+            if (!visited.add(current)) continue;
+            layers.add(current);
+            List<ModuleLayer> parents = current.parents();
+            for (int i = parents.size() - 1; i >= 0; i--) {
+                if (!visited.contains(parents.get(i))) stack.push(parents.get(i));
+            }
+        }
+        return layers;
+    }
+
+    @Override
+    public List<String> providerNames(String serviceName) {
+        return this.providers.getOrDefault(serviceName, List.of()).stream().map(ProviderEntry::className).toList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S> List<ServiceLoader.Provider<S>> providers(Class<S> service) {
+        return (List<ServiceLoader.Provider<S>>) this.typedProviders.computeIfAbsent(service, _ -> this.providers.getOrDefault(service.getName(), List.of()).stream()
+                .map(entry -> new ProviderImpl<>(service, entry))
+                .toList());
+    }
+
+    private record ProviderEntry(Module module, String className) {}
+
+    @NotNullByDefault
+    private static class ProviderImpl<S> implements ServiceLoader.Provider<S> {
+
+        private final Class<S> service;
+        private final ProviderEntry entry;
+        private volatile @Nullable Class<? extends S> type;
+        private volatile @Nullable MethodHandle factory;
+
+        private ProviderImpl(Class<S> service, ProviderEntry entry) {
+            this.service = service;
+            this.entry = entry;
+        }
+
+        @Override
+        public Class<? extends S> type() {
+            Class<? extends S> type = this.type;
+            if (type != null) return type;
+            @Nullable Class<?> cls = Class.forName(this.entry.module(), this.entry.className());
+            if (cls == null) throw this.error("not found", null);
+            // Providers with a provider method don't need to implement the service themselves.
+            if (providerMethod(this.service, cls) == null && !this.service.isAssignableFrom(cls)) throw this.error("not a subtype", null);
+            @SuppressWarnings("unchecked")
+            Class<? extends S> providerType = (Class<? extends S>) cls;
+            this.type = providerType;
+            return providerType;
+        }
+
+        @Override
+        public S get() {
+            MethodHandle factory = this.factory;
+            if (factory == null) {
+                Class<? extends S> type = this.type();
+                try {
+                    @Nullable Method providerMethod = providerMethod(this.service, type);
+                    if (providerMethod != null) {
+                        factory = JavaBaseAccess.get().unreflect(providerMethod);
+                    } else {
+                        if (!Modifier.isPublic(type.getModifiers())) throw this.error("is not public", null);
+                        Constructor<? extends S> constructor = type.getConstructor();
+                        factory = JavaBaseAccess.get().unreflectConstructor(constructor);
+                    }
+                } catch (NoSuchMethodException e) {
+                    throw this.error("has no public no-arg constructor", e);
+                } catch (ReflectiveOperationException e) {
+                    throw this.error("can't be instantiated", e);
+                }
+                this.factory = factory;
+            }
+            Object instance;
+            try {
+                instance = factory.invoke();
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw this.error("could not be instantiated", e);
+            }
+            if (instance == null) throw this.error("provider method returned null", null);
+            return this.service.cast(instance);
+        }
+
+        // A public static no-arg method named provider, that returns the service type, is used instead of the
+        // constructor.
+        private static @Nullable Method providerMethod(Class<?> service, Class<?> cls) {
+            try {
+                Method method = cls.getDeclaredMethod("provider");
+                int modifiers = method.getModifiers();
+                if (!Modifier.isPublic(modifiers) || !Modifier.isStatic(modifiers)) return null;
+                return service.isAssignableFrom(method.getReturnType()) ? method : null;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        private ServiceConfigurationError error(String message, @Nullable Throwable cause) {
+            return new ServiceConfigurationError(this.service.getName() + ": Provider " + this.entry.className() + " " + message, cause);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package bootstrap.jar.impl.classloading;
+
+import bootstrap.jar.classloading.ClassTransformer;
+import bootstrap.jar.classloading.ModuleLoaderPool;
+import bootstrap.jar.impl.JarModuleReference;
+import bootstrap.jar.util.NameHelper;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.module.Configuration;
+import java.lang.module.ModuleReader;
+import java.lang.module.ResolvedModule;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes the modules of a configuration as jar archives, with all classes passed through a {@link ClassTransformer}.
+ * The archives are marked with the fingerprint of the transformer, so a {@link LoaderPoolImpl} with the same
+ * transformer loads their classes as they are.
+ */
+@NotNullByDefault
+public class TransformedJarWriter {
+
+    public static final String MANIFEST_ATTRIBUTE = "Bootstrap-Transformed";
+
+    // The same timestamp that gradle uses for reproducible archives.
+    private static final long ENTRY_TIME = new GregorianCalendar(1980, Calendar.FEBRUARY, 1, 0, 0, 0).getTimeInMillis();
+
+    /**
+     * Gets the fingerprint, a module has been transformed with ahead of time, or {@code null} if it was not
+     * transformed ahead of time.
+     */
+    public static @Nullable String fingerprint(ResolvedModule module) {
+        if (module.reference() instanceof JarModuleReference ref) {
+            return ref.manifest().getMainAttributes().getValue(MANIFEST_ATTRIBUTE);
+        } else {
+            return null;
+        }
+    }
+
+    public static void write(Configuration configuration, List<ModuleLayer> parentLayers, ClassTransformer transformer, Function<String, Path> target) throws IOException {
+        String fingerprint = transformer.fingerprint().orElseThrow(() -> new IllegalArgumentException("The class transformer has no fingerprint and can't be applied ahead of time."));
+        // Transform the classes in a layer that is set up the same way as at runtime, so the transformer sees the
+        // same environment. A loader per module avoids conflicts between modules that are never loaded together.
+        LoaderPoolImpl pool = (LoaderPoolImpl) ModuleLoaderPool.defineWithManyLoaders("offline", configuration, parentLayers, transformer).pool();
+        for (ResolvedModule module : configuration.modules()) {
+            Path path = target.apply(module.name());
+            try (ModuleReader reader = module.reference().open()) {
+                writeModule(pool, module, reader, fingerprint, path);
+            }
+        }
+    }
+
+    private static void writeModule(LoaderPoolImpl pool, ResolvedModule module, ModuleReader reader, String fingerprint, Path target) throws IOException {
+        Manifest manifest;
+        if (module.reference() instanceof JarModuleReference ref) {
+            manifest = ref.manifest();
+        } else {
+            manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        }
+        // The module reader already provides the view of the current Java version and modified classes invalidate
+        // any signature, so multi-release information and per-entry digests are dropped.
+        manifest.getMainAttributes().remove(Attributes.Name.MULTI_RELEASE);
+        manifest.getEntries().clear();
+        manifest.getMainAttributes().putValue(MANIFEST_ATTRIBUTE, fingerprint);
+
+        List<String> resources;
+        try (Stream<String> stream = reader.list()) {
+            resources = stream.filter(resource -> !skipResource(resource)).sorted().toList();
+        }
+
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "transformed", ".tmp");
+        try {
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(temp))) {
+                putEntry(out, JarFile.MANIFEST_NAME);
+                manifest.write(out);
+                out.closeEntry();
+                for (String resource : resources) {
+                    String className = className(resource);
+                    if (className != null) {
+                        byte[] data;
+                        try {
+                            // Fingerprinted transformers don't depend on the reason, so this is also the resource view.
+                            data = pool.getTransformedClass(module.name(), className, ClassTransformer.REASON_CLASSLOADING, false);
+                        } catch (ClassNotFoundException e) {
+                            // The transformer removed the class.
+                            continue;
+                        }
+                        putEntry(out, resource);
+                        out.write(data);
+                        out.closeEntry();
+                    } else {
+                        try (InputStream in = reader.open(resource).orElseThrow(() -> new IOException("Failed to read " + resource + " from module " + module.name()))) {
+                            putEntry(out, resource);
+                            in.transferTo(out);
+                            out.closeEntry();
+                        }
+                    }
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void putEntry(JarOutputStream out, String name) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTime(ENTRY_TIME);
+        out.putNextEntry(entry);
+    }
+
+    private static boolean skipResource(String resource) {
+        if (resource.equalsIgnoreCase(JarFile.MANIFEST_NAME)) return true;
+        if (!resource.regionMatches(true, 0, "META-INF/", 0, 9) || resource.indexOf('/', 9) >= 0) return false;
+        String fileName = resource.substring(9).toUpperCase(Locale.ROOT);
+        return fileName.endsWith(".SF") || fileName.endsWith(".RSA") || fileName.endsWith(".DSA") || fileName.endsWith(".EC") || fileName.startsWith("SIG-");
+    }
+
+    // Only classes that can be loaded by the pool pass through the transformer, just like at runtime.
+    private static @Nullable String className(String resource) {
+        if (!resource.endsWith(".class")) return null;
+        String internalName = resource.substring(0, resource.length() - 6);
+        if (internalName.indexOf('.') >= 0) return null;
+        String className = internalName.replace('/', '.');
+        return NameHelper.validLoadableClassName(className) ? className : null;
+    }
+}
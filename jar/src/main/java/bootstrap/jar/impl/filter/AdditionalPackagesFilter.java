@@ -6,7 +6,9 @@ import org.jetbrains.annotations.NotNullByDefault;
 
 import java.lang.module.ModuleDescriptor;
 import java.nio.file.FileSystem;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @NotNullByDefault
 @SuppressWarnings("ClassCanBeRecord")
@@ -23,4 +25,9 @@ public class AdditionalPackagesFilter implements JarMetadataFilter {
         if (descriptor.packages().containsAll(this.packages)) return descriptor;
         return ModuleHelper.builder(descriptor).packages(this.packages).build();
     }
+
+    @Override
+    public Optional<String> fingerprint() {
+        return Optional.of("additional-packages:" + this.packages.stream().sorted().collect(Collectors.joining(",")));
+    }
 }
@@ -6,6 +6,7 @@ import org.jetbrains.annotations.NotNullByDefault;
 import java.lang.module.ModuleDescriptor;
 import java.nio.file.FileSystem;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.jar.Manifest;
@@ -51,4 +52,15 @@ public class CompositeMetadataFilter implements JarMetadataFilter {
         }
         return descriptor;
     }
+
+    @Override
+    public Optional<String> fingerprint() {
+        List<String> fingerprints = new ArrayList<>(this.filters.size());
+        for (JarMetadataFilter filter : this.filters) {
+            Optional<String> fingerprint = filter.fingerprint();
+            if (fingerprint.isEmpty()) return Optional.empty();
+            fingerprints.add(fingerprint.get());
+        }
+        return Optional.of("[" + String.join("|", fingerprints) + "]");
+    }
 }
@@ -41,4 +41,9 @@ public class FileInferredModuleNameFilter implements JarMetadataFilter {
                 .replaceAll("\\.+", ".")
                 .replaceAll("(^\\.)|(\\.$)", "");
     }
+
+    @Override
+    public Optional<String> fingerprint() {
+        return Optional.of("file-inferred-name");
+    }
 }
@@ -45,4 +45,9 @@ public class ModuleNameFilter implements JarMetadataFilter {
             return descriptor;
         }
     }
+
+    @Override
+    public Optional<String> fingerprint() {
+        return Optional.of((this.force ? "forced-name:" : "default-name:") + this.moduleName);
+    }
 }
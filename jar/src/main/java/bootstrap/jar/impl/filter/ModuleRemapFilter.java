@@ -63,4 +63,9 @@ public class ModuleRemapFilter implements JarMetadataFilter {
         }
         return builder.build();
     }
+
+    @Override
+    public Optional<String> fingerprint() {
+        return Optional.of("remap:" + this.remap.entrySet().stream().map(entry -> entry.getKey() + "=" + entry.getValue()).sorted().collect(Collectors.joining(",")));
+    }
 }
@@ -6,6 +6,7 @@ import org.jetbrains.annotations.NotNullByDefault;
 
 import java.lang.module.ModuleDescriptor;
 import java.nio.file.FileSystem;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -24,4 +25,9 @@ public class OpenModuleFilter implements JarMetadataFilter {
                 .collect(Collectors.toUnmodifiableSet());
         return ModuleHelper.builder(descriptor.name(), newModifiers, descriptor).build();
     }
+
+    @Override
+    public Optional<String> fingerprint() {
+        return Optional.of("open");
+    }
 }
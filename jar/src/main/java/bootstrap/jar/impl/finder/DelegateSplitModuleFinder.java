@@ -2,15 +2,15 @@ package bootstrap.jar.impl.finder;
 
 import bootstrap.jar.SplitModuleFinder;
 import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.module.Configuration;
 import java.lang.module.ModuleFinder;
 import java.lang.module.ModuleReference;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 @NotNullByDefault
 public class DelegateSplitModuleFinder implements SplitModuleFinder {
@@ -19,12 +19,14 @@ public class DelegateSplitModuleFinder implements SplitModuleFinder {
     private final Predicate<String> canReplaceModuleFromParentLayer;
     private final ModuleFinder before;
     private final ModuleFinder after;
+    private volatile @Nullable Partition partition;
 
     public DelegateSplitModuleFinder(ModuleFinder parent, Predicate<String> canReplaceModuleFromParentLayer) {
         this.parent = parent;
         this.canReplaceModuleFromParentLayer = new MemoizedPredicate<>(canReplaceModuleFromParentLayer);
         this.before = new FilteredModuleFinder(true);
         this.after = new FilteredModuleFinder(false);
+        this.partition = null;
     }
 
     @Override
@@ -47,19 +49,55 @@ public class DelegateSplitModuleFinder implements SplitModuleFinder {
         return this.parent.findAll();
     }
 
+    @Override
+    public Configuration resolve(List<Configuration> parents) {
+        return this.resolve(parents, this.partition().moduleNames());
+    }
+
+    @Override
+    public Configuration resolveAndBind(List<Configuration> parents) {
+        return this.resolveAndBind(parents, this.partition().moduleNames());
+    }
+
+    // The partition is only computed again when the parent finds other modules. Most finders return the same set on
+    // every call, others return an equal copy, so sets are only compared when they are not the same instance.
+    private Partition partition() {
+        Set<ModuleReference> all = this.parent.findAll();
+        Partition partition = this.partition;
+        if (partition != null && (partition.source() == all || (partition.source().size() == all.size() && partition.source().equals(all)))) return partition;
+        Set<ModuleReference> before = new LinkedHashSet<>();
+        Set<ModuleReference> after = new LinkedHashSet<>();
+        Set<String> moduleNames = new LinkedHashSet<>();
+        for (ModuleReference ref : all) {
+            String name = ref.descriptor().name();
+            moduleNames.add(name);
+            (this.canReplaceModuleFromParentLayer.test(name) ? before : after).add(ref);
+        }
+        partition = new Partition(all, Collections.unmodifiableSet(before), Collections.unmodifiableSet(after), Collections.unmodifiableSet(moduleNames));
+        this.partition = partition;
+        return partition;
+    }
+
+    private record Partition(Set<ModuleReference> source, Set<ModuleReference> before, Set<ModuleReference> after, Set<String> moduleNames) {}
+
     private static class MemoizedPredicate<T> implements Predicate<T> {
         
         private final Predicate<T> predicate;
-        private final Map<T, Boolean> values;
+        private final ConcurrentMap<T, Boolean> values;
 
         private MemoizedPredicate(Predicate<T> predicate) {
             this.predicate = predicate;
-            this.values = new HashMap<>();
+            this.values = new ConcurrentHashMap<>();
         }
 
         @Override
-        public synchronized boolean test(T key) {
-            return this.values.computeIfAbsent(key, this.predicate::test);
+        public boolean test(T key) {
+            Boolean value = this.values.get(key);
+            if (value != null) return value;
+            // The predicate is evaluated outside the map, if two threads race, both get the same result.
+            boolean result = this.predicate.test(key);
+            Boolean existing = this.values.putIfAbsent(key, result);
+            return existing != null ? existing : result;
         }
     }
     
@@ -82,9 +120,8 @@ public class DelegateSplitModuleFinder implements SplitModuleFinder {
 
         @Override
         public Set<ModuleReference> findAll() {
-            return DelegateSplitModuleFinder.this.parent.findAll().stream()
-                    .filter(ref -> DelegateSplitModuleFinder.this.canReplaceModuleFromParentLayer.test(ref.descriptor().name()) == this.isBefore)
-                    .collect(Collectors.toUnmodifiableSet());
+            Partition partition = DelegateSplitModuleFinder.this.partition();
+            return this.isBefore ? partition.before() : partition.after();
         }
     }
 }
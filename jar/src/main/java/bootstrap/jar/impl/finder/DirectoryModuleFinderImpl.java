@@ -0,0 +1,172 @@
+package bootstrap.jar.impl.finder;
+
+import bootstrap.jar.DirectoryModuleFinder;
+import bootstrap.jar.Jar;
+import bootstrap.jar.JarMetadataCache;
+import bootstrap.jar.JarMetadataFilter;
+import bootstrap.jar.util.Parallel;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.module.FindException;
+import java.lang.module.ModuleReference;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+@NotNullByDefault
+public class DirectoryModuleFinderImpl implements DirectoryModuleFinder {
+
+    private final List<Path> directories;
+    private final @Nullable JarMetadataCache cache;
+    private final JarMetadataFilter filter;
+    private final Object lock;
+    private volatile State state;
+
+    public DirectoryModuleFinderImpl(List<Path> directories, @Nullable JarMetadataCache cache, JarMetadataFilter filter) throws IOException {
+        this.directories = List.copyOf(directories);
+        this.cache = cache;
+        this.filter = filter;
+        this.lock = new Object();
+        this.state = new State(Map.of(), new JarModuleFinderImpl(List.of()));
+        this.rescan();
+    }
+
+    @Override
+    public List<Path> directories() {
+        return this.directories;
+    }
+
+    @Override
+    public Optional<ModuleReference> find(String name) {
+        return this.state.finder().find(name);
+    }
+
+    @Override
+    public Optional<Jar> findJar(String name) {
+        return this.state.finder().findJar(name);
+    }
+
+    @Override
+    public Set<ModuleReference> findAll() {
+        return this.state.finder().findAll();
+    }
+
+    @Override
+    public boolean rescan() throws IOException {
+        synchronized (this.lock) {
+            State oldState = this.state;
+            List<Path> paths = new ArrayList<>();
+            Map<Path, FileIdentity> identities = new HashMap<>();
+            List<Path> changed = new ArrayList<>();
+            for (Path directory : this.directories) {
+                if (!Files.isDirectory(directory)) continue;
+                for (Path path : list(directory)) {
+                    FileIdentity identity = FileIdentity.of(path);
+                    if (identity == null) continue;
+                    paths.add(path);
+                    identities.put(path, identity);
+                    Entry entry = oldState.entries().get(path);
+                    if (entry == null || !entry.identity().equals(identity)) changed.add(path);
+                }
+            }
+            if (changed.isEmpty() && paths.size() == oldState.entries().size()) return false;
+
+            Map<Path, Jar> opened = this.openJars(changed);
+            Map<Path, Entry> entries = new LinkedHashMap<>();
+            List<Jar> jars = new ArrayList<>();
+            Map<String, Path> modulePaths = new HashMap<>();
+            for (Path path : paths) {
+                Jar jar = opened.containsKey(path) ? opened.get(path) : oldState.entries().get(path).jar();
+                entries.put(path, new Entry(identities.get(path), jar));
+                Path existing = modulePaths.putIfAbsent(jar.name(), path);
+                if (existing == null) {
+                    jars.add(jar);
+                } else if (existing.getParent().equals(path.getParent())) {
+                    throw new FindException("Two versions of module " + jar.name() + " found in " + path.getParent() + " (" + existing.getFileName() + " and " + path.getFileName() + ")");
+                }
+            }
+            this.state = new State(Collections.unmodifiableMap(entries), new JarModuleFinderImpl(jars));
+            return true;
+        }
+    }
+
+    // Sorted, so the result does not depend on the order of the file system.
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.filter(DirectoryModuleFinderImpl::isModuleEntry).sorted().toList();
+        }
+    }
+
+    private static boolean isModuleEntry(Path path) {
+        Path fileName = path.getFileName();
+        if (fileName == null || fileName.toString().startsWith(".")) return false;
+        return Files.isDirectory(path) || fileName.toString().endsWith(".jar");
+    }
+
+    private Map<Path, Jar> openJars(List<Path> paths) throws IOException {
+        List<Jar> opened = Parallel.map(paths, path -> this.cache != null ? Jar.of(this.cache, this.filter, path) : Jar.of(this.filter, path));
+        Map<Path, Jar> jars = HashMap.newHashMap(paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            jars.put(paths.get(i), opened.get(i));
+        }
+        return jars;
+    }
+
+    private record State(Map<Path, Entry> entries, JarModuleFinderImpl finder) {}
+
+    private record Entry(FileIdentity identity, Jar jar) {}
+
+    // For exploded modules, a directory only changes when its direct children are added or removed. Packages are
+    // directories, so all directories of an exploded module are compared, together with module-info.class and the
+    // files in META-INF, as the module descriptor is built from them.
+    private record FileIdentity(@Nullable Object fileKey, long size, FileTime modified, Map<String, FileTime> contents) {
+
+        private static @Nullable FileIdentity of(Path path) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isDirectory()) {
+                    return new FileIdentity(attributes.fileKey(), 0, attributes.lastModifiedTime(), contents(path));
+                } else {
+                    return new FileIdentity(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime(), Map.of());
+                }
+            } catch (IOException e) {
+                // Removed while scanning.
+                return null;
+            }
+        }
+
+        private static Map<String, FileTime> contents(Path directory) throws IOException {
+            Map<String, FileTime> contents = new HashMap<>();
+            Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    contents.put(name(dir) + "/", attrs.lastModifiedTime());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String name = name(file);
+                    if (name.startsWith("META-INF/") || name.equals("module-info.class")) contents.put(name, attrs.lastModifiedTime());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                // Files removed while walking also change the modification time of their directory.
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                private String name(Path path) {
+                    return directory.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+                }
+            });
+            return Collections.unmodifiableMap(contents);
+        }
+    }
+}
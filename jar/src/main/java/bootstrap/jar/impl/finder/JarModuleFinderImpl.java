@@ -27,7 +27,10 @@ public class JarModuleFinderImpl implements JarModuleFinder {
         }
         this.jarMap = Map.copyOf(jarMap);
         this.modules = this.jarMap.entrySet().stream().collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> entry.getValue().reference()));
-        this.moduleSet = Set.copyOf(this.modules.values());
+        // Keep the order of the jars, so resolution does not depend on the randomized iteration order of Set.copyOf.
+        Set<ModuleReference> moduleSet = new LinkedHashSet<>();
+        for (Jar jar : jars) moduleSet.add(this.modules.get(jar.descriptor().name()));
+        this.moduleSet = Collections.unmodifiableSet(moduleSet);
     }
 
     @Override
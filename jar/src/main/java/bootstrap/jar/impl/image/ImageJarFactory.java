@@ -0,0 +1,112 @@
+package bootstrap.jar.impl.image;
+
+import bootstrap.jar.Jar;
+import bootstrap.jar.JarMetadataFilter;
+import bootstrap.jar.impl.JarFactory;
+import bootstrap.jar.impl.cache.DescriptorSerializer;
+import bootstrap.jar.niofs.image.ImageFile;
+import bootstrap.jar.niofs.image.ImageFileStore;
+import bootstrap.jar.niofs.path.CompoundUriHelper;
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.io.*;
+import java.lang.module.ModuleDescriptor;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.jar.Manifest;
+
+/**
+ * Builds jars from the modules of an image file. Each module in the image carries the manifest, module descriptor
+ * and multi-release versions of its jar as metadata, so jars are created without reading anything but the image
+ * table. Since multi-release versions depend on the runtime, an image can only be used with the Java version it was
+ * built with.
+ */
+@NotNullByDefault
+public class ImageJarFactory {
+
+    private static final int METADATA_VERSION = 1;
+
+    public static void write(List<Path> paths, JarMetadataFilter filter, Path target) throws IOException {
+        List<ImageFile.ModuleSource> modules = new ArrayList<>();
+        List<FileSystem> archives = new ArrayList<>();
+        try {
+            Set<String> moduleNames = new HashSet<>();
+            for (Path path : paths) {
+                Jar jar = Jar.of(filter, path);
+                if (!moduleNames.add(jar.name())) throw new IOException("Duplicate module " + jar.name() + " in image: " + path);
+                Path root;
+                if (Files.isDirectory(path)) {
+                    root = path;
+                } else {
+                    FileSystem archive = FileSystems.newFileSystem(path);
+                    archives.add(archive);
+                    root = archive.getPath("/");
+                }
+                List<Integer> multiReleaseVersions = JarFactory.multiReleaseVersions(root);
+                modules.add(new ImageFile.ModuleSource(jar.name(), metadata(jar, multiReleaseVersions), root));
+            }
+            ImageFile.write(target, modules);
+        } finally {
+            for (FileSystem archive : archives) archive.close();
+        }
+    }
+
+    private static byte[] metadata(Jar jar, List<Integer> multiReleaseVersions) throws IOException {
+        ByteArrayOutputStream manifestBytes = new ByteArrayOutputStream();
+        jar.manifest().write(manifestBytes);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(METADATA_VERSION);
+            out.writeInt(Runtime.version().feature());
+            out.writeInt(manifestBytes.size());
+            manifestBytes.writeTo(out);
+            DescriptorSerializer.write(out, jar.descriptor());
+            out.writeInt(multiReleaseVersions.size());
+            for (int version : multiReleaseVersions) out.writeInt(version);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<Jar> open(Path imagePath) throws IOException {
+        ImageFile image = ImageFileStore.openImage(imagePath);
+        String imageUri = imagePath.toAbsolutePath().normalize().toUri().toString();
+        List<Jar> jars = new ArrayList<>();
+        for (ImageFile.Module module : image.modules()) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(module.metadata()));
+            if (in.readInt() != METADATA_VERSION) throw new IOException("Unsupported module metadata in image file: " + imagePath);
+            int feature = in.readInt();
+            if (feature != Runtime.version().feature()) {
+                throw new IOException("Image file " + imagePath + " was built for Java " + feature + " and can't be used with Java " + Runtime.version().feature() + ".");
+            }
+            byte[] manifestBytes = new byte[in.readInt()];
+            in.readFully(manifestBytes);
+            Manifest manifest = new Manifest(new ByteArrayInputStream(manifestBytes));
+            ModuleDescriptor descriptor = DescriptorSerializer.read(in);
+            int versionCount = in.readInt();
+            List<Integer> multiReleaseVersions = new ArrayList<>(versionCount);
+            for (int i = 0; i < versionCount; i++) multiReleaseVersions.add(in.readInt());
+
+            CompoundUriHelper.DeconstructedPath rootPath = new CompoundUriHelper.DeconstructedPath(List.of(imageUri, module.name()), "/");
+            try {
+                URI rootUri = CompoundUriHelper.construct("image", rootPath);
+                Path root;
+                try {
+                    // Hand the mapped image to the file system, so it isn't mapped again.
+                    root = FileSystems.newFileSystem(rootUri, Map.of("image", image)).getPath("/");
+                } catch (FileSystemAlreadyExistsException e) {
+                    root = Path.of(rootUri);
+                }
+                jars.add(JarFactory.create(manifest, descriptor, root, List.copyOf(multiReleaseVersions)));
+            } catch (URISyntaxException e) {
+                throw new IOException("Failed to construct image URI for module " + module.name() + ": " + rootPath, e);
+            }
+        }
+        return List.copyOf(jars);
+    }
+}
@@ -0,0 +1,211 @@
+package bootstrap.jar.niofs.image;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * An image file holds the contents of multiple modules in a single uncompressed file, that is mapped into memory as a
+ * whole. The contents of each module start on a page boundary and are followed by a table that maps the entry names
+ * of each module to their location in the image. Each module also carries an opaque metadata block.
+ */
+@NotNullByDefault
+public class ImageFile {
+
+    private static final int MAGIC = 0x4253494D;
+    private static final int FORMAT_VERSION = 1;
+    private static final int PAGE_SIZE = 4096;
+    private static final int HEADER_LENGTH = 20;
+
+    private final Path path;
+    private final ByteBuffer data;
+    private final Map<String, Module> modules;
+
+    private ImageFile(Path path, ByteBuffer data, Map<String, Module> modules) {
+        this.path = path;
+        this.data = data;
+        this.modules = modules;
+    }
+
+    public static ImageFile open(Path path) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Image file too large: " + path);
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.limit() < HEADER_LENGTH || data.getInt(0) != MAGIC) throw new IOException("Not an image file: " + path);
+        if (data.getInt(4) != FORMAT_VERSION) throw new IOException("Unsupported image file version " + data.getInt(4) + ": " + path);
+        long tableOffset = data.getLong(8);
+        int tableLength = data.getInt(16);
+        if (tableOffset < HEADER_LENGTH || tableOffset + tableLength > data.limit()) throw new IOException("Corrupt image file: " + path);
+
+        byte[] table = new byte[tableLength];
+        data.get((int) tableOffset, table);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(table));
+        int moduleCount = in.readInt();
+        Map<String, Module> modules = new LinkedHashMap<>();
+        for (int i = 0; i < moduleCount; i++) {
+            String name = in.readUTF();
+            byte[] metadata = new byte[in.readInt()];
+            in.readFully(metadata);
+            int entryCount = in.readInt();
+            Map<String, Entry> entries = HashMap.newHashMap(entryCount);
+            for (int j = 0; j < entryCount; j++) {
+                String entryName = in.readUTF();
+                Entry entry = new Entry(in.readLong(), in.readInt());
+                if (entry.offset() < HEADER_LENGTH || entry.offset() + entry.length() > tableOffset) throw new IOException("Corrupt image file: " + path);
+                entries.put(entryName, entry);
+            }
+            modules.put(name, new Module(name, metadata, entries));
+        }
+        return new ImageFile(path, data.asReadOnlyBuffer(), Collections.unmodifiableMap(modules));
+    }
+
+    /**
+     * Writes an image file. The files of each module are read from the file tree below its root path.
+     */
+    public static void write(Path target, List<ModuleSource> modules) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "image", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteArrayOutputStream table = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(table);
+                out.writeInt(modules.size());
+                long position = HEADER_LENGTH;
+                for (ModuleSource module : modules) {
+                    position = align(position, PAGE_SIZE);
+                    List<Path> files;
+                    try (Stream<Path> stream = Files.walk(module.root())) {
+                        files = stream.filter(Files::isRegularFile).sorted(Comparator.comparing(file -> entryName(module.root(), file))).toList();
+                    }
+                    out.writeUTF(module.name());
+                    out.writeInt(module.metadata().length);
+                    out.write(module.metadata());
+                    out.writeInt(files.size());
+                    for (Path file : files) {
+                        byte[] bytes = Files.readAllBytes(file);
+                        writeFully(channel, ByteBuffer.wrap(bytes), position);
+                        out.writeUTF(entryName(module.root(), file));
+                        out.writeLong(position);
+                        out.writeInt(bytes.length);
+                        position += bytes.length;
+                    }
+                }
+                out.flush();
+                long tableOffset = align(position, 8);
+                if (tableOffset + table.size() > Integer.MAX_VALUE) throw new IOException("Image file too large: " + target);
+                writeFully(channel, ByteBuffer.wrap(table.toByteArray()), tableOffset);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(tableOffset).putInt(table.size()).flip();
+                writeFully(channel, header, 0);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String entryName(Path root, Path file) {
+        Path relative = root.relativize(file);
+        StringJoiner joiner = new StringJoiner("/");
+        for (Path name : relative) joiner.add(name.toString());
+        return joiner.toString();
+    }
+
+    private static long align(long position, int alignment) {
+        return (position + alignment - 1) / alignment * alignment;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    public Path path() {
+        return this.path;
+    }
+
+    public Collection<Module> modules() {
+        return this.modules.values();
+    }
+
+    public @Nullable Module module(String name) {
+        return this.modules.get(name);
+    }
+
+    ByteBuffer read(Entry entry) {
+        return this.data.slice((int) entry.offset(), entry.length());
+    }
+
+    public record ModuleSource(String name, byte[] metadata, Path root) {}
+
+    record Entry(long offset, int length) {}
+
+    @NotNullByDefault
+    public static class Module {
+
+        private final String name;
+        private final byte[] metadata;
+        private final Map<String, Entry> entries;
+        private volatile @Nullable Map<String, List<String>> directories;
+
+        private Module(String name, byte[] metadata, Map<String, Entry> entries) {
+            this.name = name;
+            this.metadata = metadata;
+            this.entries = entries;
+        }
+
+        public String name() {
+            return this.name;
+        }
+
+        public byte[] metadata() {
+            return this.metadata.clone();
+        }
+
+        @Nullable Entry entry(String name) {
+            return this.entries.get(name);
+        }
+
+        /**
+         * Gets the names of the children of a directory, or {@code null} if there is no such directory. The root
+         * directory has the empty name.
+         */
+        @Nullable List<String> children(String name) {
+            return this.directories().get(name);
+        }
+
+        // Only computed on demand, as most lookups are for files.
+        private Map<String, List<String>> directories() {
+            Map<String, List<String>> directories = this.directories;
+            if (directories != null) return directories;
+            Map<String, SortedSet<String>> children = new HashMap<>();
+            children.put("", new TreeSet<>());
+            for (String entry : this.entries.keySet()) {
+                String child = entry;
+                int idx;
+                while ((idx = child.lastIndexOf('/')) >= 0) {
+                    String parent = child.substring(0, idx);
+                    boolean known = children.containsKey(parent);
+                    children.computeIfAbsent(parent, _ -> new TreeSet<>()).add(child.substring(idx + 1));
+                    if (known) break;
+                    child = parent;
+                }
+                if (idx < 0) children.get("").add(child);
+            }
+            Map<String, List<String>> result = HashMap.newHashMap(children.size());
+            children.forEach((dir, names) -> result.put(dir, List.copyOf(names)));
+            this.directories = result;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package bootstrap.jar.niofs.image;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps every image file mapped only once, no matter how many of its modules are opened. An image stays known to the
+ * store as long as a file system of one of its modules is open, so closed images can be unmapped.
+ */
+@NotNullByDefault
+public class ImageFileStore {
+
+    private static final Map<ImageFileSystem, ImageFile> images = new ConcurrentHashMap<>();
+
+    public static ImageFile openImage(Path imagePath) throws IOException {
+        Path path = imagePath.toAbsolutePath().normalize();
+        ImageFile existing = find(path);
+        // Mapping the same image twice concurrently is harmless, both mappings are released once they are unused.
+        return existing != null ? existing : ImageFile.open(path);
+    }
+
+    static void register(ImageFileSystem fs) {
+        images.put(fs, fs.image());
+    }
+
+    static void unregister(ImageFileSystem fs) {
+        images.remove(fs);
+    }
+
+    private static @Nullable ImageFile find(Path path) {
+        for (ImageFile image : images.values()) {
+            if (image.path().equals(path)) return image;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+package bootstrap.jar.niofs.image;
+
+import bootstrap.jar.niofs.path.CompoundUriHelper;
+import bootstrap.jar.niofs.path.DefaultFileSystem;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+
+@NotNullByDefault
+public class ImageFileSystem extends DefaultFileSystem {
+
+    private final List<String> key;
+    private final String uriRoot;
+    private final ImageFile image;
+    private final ImageFile.Module module;
+
+    ImageFileSystem(ImageFileSystemProvider provider, List<String> key, @Nullable ImageFile image) throws IOException {
+        super(provider);
+        if (key.size() != 2) throw new IOException("Image file system needs an image file and a module.");
+        this.key = List.copyOf(key);
+        this.uriRoot = CompoundUriHelper.constructRoot(provider.getScheme(), this.key);
+        try {
+            Path imagePath = Path.of(new URI(this.key.getFirst()));
+            // The image may already be mapped by whoever creates the file system.
+            this.image = image != null && image.path().equals(imagePath.toAbsolutePath().normalize()) ? image : ImageFileStore.openImage(imagePath);
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new IOException("Invalid image file: " + this.key.getFirst(), e);
+        }
+        ImageFile.Module module = this.image.module(this.key.getLast());
+        if (module == null) throw new IOException("Module " + this.key.getLast() + " not found in image file: " + this.image.path());
+        this.module = module;
+    }
+
+    public List<String> key() {
+        return this.key;
+    }
+
+    String uriRoot() {
+        return this.uriRoot;
+    }
+
+    public ImageFile image() {
+        return this.image;
+    }
+
+    public ImageFile.Module module() {
+        return this.module;
+    }
+}
@@ -0,0 +1,315 @@
+package bootstrap.jar.niofs.image;
+
+import bootstrap.jar.niofs.path.BasePath;
+import bootstrap.jar.niofs.path.CompoundUriCache;
+import bootstrap.jar.niofs.path.CompoundUriHelper;
+import bootstrap.jar.niofs.path.DefaultFileSystem;
+import bootstrap.jar.niofs.path.FileSystemRegistry;
+import bootstrap.jar.niofs.path.ReadOnlyFileSystemProvider;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Provides read-only file systems for the modules in an {@link ImageFile image file}. The URI of a file system
+ * consists of the URI of the image file and the module name, for example
+ * {@code image:file%3A%2Fapp%2Flib%2Fbootstrap.image:example.module!/path/to/file}. An already mapped image file can
+ * be passed to {@link #newFileSystem(URI, Map)} in the {@code image} environment entry.
+ */
+@NotNullByDefault
+public class ImageFileSystemProvider extends ReadOnlyFileSystemProvider {
+
+    private final FileSystemRegistry<List<String>, ImageFileSystem> fileSystems;
+    private final CompoundUriCache uriCache;
+
+    public ImageFileSystemProvider() {
+        this.fileSystems = new FileSystemRegistry<>();
+        this.uriCache = new CompoundUriCache();
+    }
+
+    @Override
+    public String getScheme() {
+        return "image";
+    }
+
+    @Override
+    public Path getPath(URI uri) {
+        Path cached = this.uriCache.get(uri);
+        if (cached != null) return cached;
+        CompoundUriHelper.DeconstructedPath dec = CompoundUriHelper.deconstruct(this.getScheme(), uri);
+        try {
+            Path path = this.getOrCreateFileSystem(dec.components(), true, true, null).getPath(dec.path());
+            this.uriCache.put(uri, path);
+            return path;
+        } catch (IOException e) {
+            throw this.mask(dec.components(), e);
+        }
+    }
+
+    @Override
+    public URI toURI(BasePath path) throws URISyntaxException {
+        if (path.getFileSystem() instanceof ImageFileSystem ifs) {
+            URI uri = CompoundUriHelper.construct(ifs.uriRoot(), path.toString());
+            this.uriCache.put(uri, path);
+            return uri;
+        } else {
+            throw new IllegalStateException("Wrong kind of path.");
+        }
+    }
+
+    @Override
+    public FileSystem newFileSystem(URI uri, @Nullable Map<String, ?> env) throws IOException {
+        CompoundUriHelper.DeconstructedPath dec = CompoundUriHelper.deconstruct(this.getScheme(), uri);
+        return this.getOrCreateFileSystem(dec.components(), false, true, env != null && env.get("image") instanceof ImageFile image ? image : null);
+    }
+
+    @Override
+    public FileSystem getFileSystem(URI uri) {
+        CompoundUriHelper.DeconstructedPath dec = CompoundUriHelper.deconstruct(this.getScheme(), uri);
+        try {
+            return this.getOrCreateFileSystem(dec.components(), true, false, null);
+        } catch (IOException e) {
+            throw this.mask(dec.components(), e);
+        }
+    }
+
+    @Override
+    public void unregisterFileSystem(FileSystem fs) {
+        if (fs instanceof ImageFileSystem ifs) {
+            this.fileSystems.remove(ifs.key(), ifs);
+            ImageFileStore.unregister(ifs);
+        }
+    }
+
+    private ImageFileSystem getOrCreateFileSystem(List<String> components, boolean existing, boolean create, @Nullable ImageFile image) throws IOException {
+        List<String> key = List.copyOf(components);
+        ImageFileSystem existingFileSystem = this.fileSystems.get(key);
+        if (existingFileSystem != null) {
+            if (existing) return existingFileSystem;
+            throw new FileSystemAlreadyExistsException(this.fsError(key));
+        }
+        if (!create) {
+            throw new FileSystemNotFoundException(this.fsError(key));
+        }
+        return this.fileSystems.getOrCreate(key, () -> {
+            try {
+                ImageFileSystem fs = new ImageFileSystem(this, key, image);
+                ImageFileStore.register(fs);
+                return fs;
+            } catch (IOException e) {
+                throw new IOException(this.fsError(key), e);
+            }
+        });
+    }
+
+    private String fsError(List<String> components) {
+        return this.getScheme() + ":" + components.stream().map(part -> URLEncoder.encode(part, StandardCharsets.UTF_8)).collect(Collectors.joining(":"));
+    }
+
+    private FileSystemNotFoundException mask(List<String> components, IOException e) {
+        FileSystemNotFoundException ex = new FileSystemNotFoundException(this.fsError(components));
+        ex.initCause(e);
+        throw ex;
+    }
+
+    private ImageFileSystem fileSystem(Path path) throws NoSuchFileException {
+        if (path.getFileSystem() instanceof ImageFileSystem ifs) return ifs;
+        throw new NoSuchFileException(path.toString());
+    }
+
+    // Entry names are relative to the module root, the root itself is the empty name.
+    private static String entryName(Path path) {
+        String name = path.toAbsolutePath().normalize().toString();
+        return name.startsWith("/") ? name.substring(1) : name;
+    }
+
+    @Override
+    public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs) throws IOException {
+        for (OpenOption option : options) {
+            if (option != StandardOpenOption.READ) throw new UnsupportedOperationException("Unsupported OpenOption: " + option);
+        }
+        ImageFileSystem fs = this.fileSystem(path);
+        ImageFile.Entry entry = fs.module().entry(entryName(path));
+        if (entry == null) throw new NoSuchFileException(path.toString());
+        return new BufferChannel(fs.image().read(entry));
+    }
+
+    @Override
+    public InputStream newInputStream(Path path, OpenOption... options) throws IOException {
+        for (OpenOption option : options) {
+            if (option != StandardOpenOption.READ) throw new UnsupportedOperationException("Unsupported OpenOption: " + option);
+        }
+        ImageFileSystem fs = this.fileSystem(path);
+        ImageFile.Entry entry = fs.module().entry(entryName(path));
+        if (entry == null) throw new NoSuchFileException(path.toString());
+        ByteBuffer buffer = fs.image().read(entry);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+
+    @Override
+    public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
+        ImageFileSystem fs = this.fileSystem(dir);
+        String name = entryName(dir);
+        List<String> children = fs.module().children(name);
+        if (children == null) {
+            if (fs.module().entry(name) != null) throw new NotDirectoryException(dir.toString());
+            throw new NoSuchFileException(dir.toString());
+        }
+        List<Path> paths = new ArrayList<>(children.size());
+        for (String child : children) paths.add(dir.resolve(child));
+        return new DefaultFileSystem.SimpleDirectoryStream(paths, filter);
+    }
+
+    @Override
+    public boolean exists(Path path, LinkOption... options) {
+        if (!(path.getFileSystem() instanceof ImageFileSystem fs)) return false;
+        String name = entryName(path);
+        return fs.module().entry(name) != null || fs.module().children(name) != null;
+    }
+
+    @Override
+    public void checkAccess(Path path, AccessMode... modes) throws IOException {
+        for (AccessMode mode : modes) {
+            if (mode == AccessMode.WRITE || mode == AccessMode.EXECUTE) {
+                throw new AccessDeniedException(path.toString());
+            }
+        }
+        if (!this.exists(path)) throw new NoSuchFileException(path.toString());
+    }
+
+    @Override
+    public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options) throws IOException {
+        if (type == BasicFileAttributes.class) {
+            ImageFileSystem fs = this.fileSystem(path);
+            String name = entryName(path);
+            ImageFile.Entry entry = fs.module().entry(name);
+            if (entry == null && fs.module().children(name) == null) throw new NoSuchFileException(path.toString());
+            @SuppressWarnings("unchecked")
+            A attributes = (A) new EntryAttributes(entry != null, entry != null ? entry.length() : 0);
+            return attributes;
+        } else {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @NotNullByDefault
+    private record EntryAttributes(boolean isRegularFile, long size) implements BasicFileAttributes {
+
+        @Override
+        public FileTime lastModifiedTime() {
+            return FileTime.fromMillis(0);
+        }
+
+        @Override
+        public FileTime lastAccessTime() {
+            return FileTime.fromMillis(0);
+        }
+
+        @Override
+        public FileTime creationTime() {
+            return FileTime.fromMillis(0);
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return !this.isRegularFile;
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return false;
+        }
+
+        @Override
+        public boolean isOther() {
+            return false;
+        }
+
+        @Override
+        public @Nullable Object fileKey() {
+            return null;
+        }
+    }
+
+    @NotNullByDefault
+    private static class BufferChannel implements SeekableByteChannel {
+
+        private final ByteBuffer buffer;
+        private boolean open;
+
+        private BufferChannel(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.open = true;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (!this.open) throw new ClosedChannelException();
+            if (!this.buffer.hasRemaining()) return -1;
+            int length = Math.min(dst.remaining(), this.buffer.remaining());
+            dst.put(dst.position(), this.buffer, this.buffer.position(), length);
+            dst.position(dst.position() + length);
+            this.buffer.position(this.buffer.position() + length);
+            return length;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            if (!this.open) throw new ClosedChannelException();
+            return this.buffer.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            if (!this.open) throw new ClosedChannelException();
+            if (newPosition < 0) throw new IllegalArgumentException("Negative position");
+            this.buffer.position((int) Math.min(newPosition, this.buffer.limit()));
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            if (!this.open) throw new ClosedChannelException();
+            return this.buffer.limit();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.open;
+        }
+
+        @Override
+        public void close() {
+            this.open = false;
+        }
+    }
+}
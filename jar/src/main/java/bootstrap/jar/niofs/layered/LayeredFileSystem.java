@@ -16,6 +16,7 @@ import java.util.stream.Stream;
 public class LayeredFileSystem extends DefaultFileSystem {
 
     private final List<String> layers;
+    private final String uriRoot;
     private final FileSystem fs;
 
     LayeredFileSystem(LayeredFileSystemProvider provider, List<String> layers) throws IOException {
@@ -34,6 +35,7 @@ public class LayeredFileSystem extends DefaultFileSystem {
         }
 
         this.layers = List.copyOf(layers);
+        this.uriRoot = CompoundUriHelper.constructRoot(provider.getScheme(), this.layers);
 
         try {
             Path zipFile;
@@ -56,6 +58,10 @@ public class LayeredFileSystem extends DefaultFileSystem {
         return this.layers;
     }
 
+    String uriRoot() {
+        return this.uriRoot;
+    }
+
     public FileSystem upstreamFileSystem() {
         return this.fs;
     }
@@ -1,8 +1,10 @@
 package bootstrap.jar.niofs.layered;
 
 import bootstrap.jar.niofs.path.BasePath;
+import bootstrap.jar.niofs.path.CompoundUriCache;
 import bootstrap.jar.niofs.path.CompoundUriHelper;
 import bootstrap.jar.niofs.path.DefaultFileSystem;
+import bootstrap.jar.niofs.path.FileSystemRegistry;
 import bootstrap.jar.niofs.path.ReadOnlyFileSystemProvider;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
@@ -24,12 +26,12 @@ import java.util.stream.StreamSupport;
 @NotNullByDefault
 public class LayeredFileSystemProvider extends ReadOnlyFileSystemProvider {
 
-    private final Object lock;
-    private final Map<List<String>, LayeredFileSystem> fileSystems;
+    private final FileSystemRegistry<List<String>, LayeredFileSystem> fileSystems;
+    private final CompoundUriCache uriCache;
 
     public LayeredFileSystemProvider() {
-        this.lock = new Object();
-        this.fileSystems = new HashMap<>();
+        this.fileSystems = new FileSystemRegistry<>();
+        this.uriCache = new CompoundUriCache();
     }
 
     @Override
@@ -39,10 +41,14 @@ public class LayeredFileSystemProvider extends ReadOnlyFileSystemProvider {
 
     @Override
     public Path getPath(URI uri) {
+        Path cached = this.uriCache.get(uri);
+        if (cached != null) return cached;
         CompoundUriHelper.DeconstructedPath dec = CompoundUriHelper.deconstruct(this.getScheme(), uri);
         try {
             boolean isAnonymous = !dec.components().isEmpty() && dec.components().getFirst().isEmpty();
-            return this.getOrCreateFileSystem(dec.components(), true, !isAnonymous).getPath(dec.path());
+            Path path = this.getOrCreateFileSystem(dec.components(), true, !isAnonymous).getPath(dec.path());
+            this.uriCache.put(uri, path);
+            return path;
         } catch (IOException e) {
             throw this.mask(dec.components(), e);
         }
@@ -51,7 +57,9 @@ public class LayeredFileSystemProvider extends ReadOnlyFileSystemProvider {
     @Override
     public URI toURI(BasePath path) throws URISyntaxException {
         if (path.getFileSystem() instanceof LayeredFileSystem lfs) {
-            return CompoundUriHelper.construct(this.getScheme(), new CompoundUriHelper.DeconstructedPath(lfs.layers(), path.toString()));
+            URI uri = CompoundUriHelper.construct(lfs.uriRoot(), path.toString());
+            this.uriCache.put(uri, path);
+            return uri;
         } else {
             throw new IllegalStateException("Wrong kind of path.");
         }
@@ -75,42 +83,29 @@ public class LayeredFileSystemProvider extends ReadOnlyFileSystemProvider {
 
     @Override
     public void unregisterFileSystem(FileSystem fs) {
-        synchronized (this.lock) {
-            if (fs instanceof LayeredFileSystem lfs) {
-                //noinspection resource
-                this.fileSystems.remove(lfs.layers());
-            }
+        if (fs instanceof LayeredFileSystem lfs) {
+            this.fileSystems.remove(lfs.layers(), lfs);
         }
     }
 
     LayeredFileSystem getOrCreateFileSystem(List<String> layers, boolean existing, boolean create) throws IOException {
-        layers = List.copyOf(layers);
-        synchronized (this.lock) {
-            LayeredFileSystem existingFileSystem = this.fileSystems.get(layers);
-            if (existingFileSystem != null) {
-                if (existing) return existingFileSystem;
-                throw new FileSystemAlreadyExistsException(this.fsError(layers));
-            }
-            if (!create) {
-                throw new FileSystemNotFoundException(this.fsError(layers));
-            }
+        List<String> key = List.copyOf(layers);
+        LayeredFileSystem existingFileSystem = this.fileSystems.get(key);
+        if (existingFileSystem != null) {
+            if (existing) return existingFileSystem;
+            throw new FileSystemAlreadyExistsException(this.fsError(key));
         }
-        LayeredFileSystem newFS;
-        try {
-            newFS = new LayeredFileSystem(this, layers);
-        } catch (IOException e) {
-            throw new IOException(this.fsError(layers), e);
+        if (!create) {
+            throw new FileSystemNotFoundException(this.fsError(key));
         }
-        synchronized (this.lock) {
-            // If another filesystem with the same key was created while the lock was released, discard the previous file system.
-            LayeredFileSystem existingFileSystem = this.fileSystems.get(newFS.layers());
-            if (existingFileSystem != null) {
-                // Do not close the new filesystem as it has not yet been added to the filesystem list.
-                return existingFileSystem;
+        // The upper layers are created recursively from within the constructor, so no locks may be held here.
+        return this.fileSystems.getOrCreate(key, () -> {
+            try {
+                return new LayeredFileSystem(this, key);
+            } catch (IOException e) {
+                throw new IOException(this.fsError(key), e);
             }
-            this.fileSystems.put(newFS.layers(), newFS);
-            return newFS;
-        }
+        });
     }
 
     private String fsError(List<String> roots) {
@@ -7,62 +7,150 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.*;
-import java.util.ArrayDeque;
-import java.util.Arrays;
-import java.util.Deque;
 import java.util.Objects;
-import java.util.function.IntBinaryOperator;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
+/**
+ * A path backed by a single string in canonical form (no duplicate, leading or trailing separators except the one
+ * that marks an absolute path) and a table of the offsets where each name starts. Parents, names and subpaths are
+ * views into the same string and offset table, so they don't copy anything.
+ */
 @NotNullByDefault
 public class BasePath implements Path {
 
     private final BaseFileSystem fs;
+    private final char separator;
+    private final String data;
+    // Start of each name in data, followed by a sentinel of data.length() + 1, so name i always ends at offsets[i + 1] - 1.
+    private final int[] offsets;
+    private final int first;
+    private final int count;
     private final boolean absolute;
-    private final boolean empty;
-    private final String[] pathParts;
 
+    private @Nullable String string;
+    private int hash;
     private @Nullable BasePath normalized;
 
     BasePath(BaseFileSystem fs, String... pathParts) {
-        this.fs = fs;
-        if (pathParts.length == 0) {
-            this.absolute = false;
-            this.pathParts = new String[]{ "" };
-            this.empty = true;
-        } else {
-            String pathString = Arrays.stream(pathParts)
-                    .filter(part -> !part.isEmpty())
-                    .collect(Collectors.joining(fs.getSeparator()));
-            this.absolute = pathString.startsWith(fs.getSeparator());
-            this.pathParts = splitPath(fs, this.absolute, pathString);
-            this.empty = !this.absolute && this.pathParts.length == 1 && this.pathParts[0].isEmpty();
-        }
-        this.normalized = null;
+        this(fs, canonicalize(fs.getSeparator().charAt(0), fs.getSeparator(), pathParts));
     }
 
-    private BasePath(BaseFileSystem fs, boolean absolute, String... pathParts) {
+    // Expects data to already be in canonical form.
+    private BasePath(BaseFileSystem fs, String data) {
         this.fs = fs;
+        this.separator = fs.getSeparator().charAt(0);
+        this.data = data;
+        this.absolute = !data.isEmpty() && data.charAt(0) == this.separator;
+        this.offsets = computeOffsets(data, this.separator, this.absolute);
+        this.first = 0;
+        this.count = this.offsets.length - 1;
+        this.string = data;
+    }
+
+    private BasePath(BasePath backing, boolean absolute, int first, int count) {
+        this.fs = backing.fs;
+        this.separator = backing.separator;
+        this.data = backing.data;
+        this.offsets = backing.offsets;
+        this.first = first;
+        this.count = count;
         this.absolute = absolute;
-        this.pathParts = pathParts;
-        this.empty = !this.absolute && this.pathParts.length == 1 && this.pathParts[0].isEmpty();
-        this.normalized = null;
     }
 
-    private static String[] splitPath(BaseFileSystem fs, boolean isAbsolute, String pathString) {
-        String separatorPattern = "(?:" + Pattern.quote(fs.getSeparator()) + ")";
-        String normalizedPathString = pathString
-                .replace("/", fs.getSeparator()).replace("\\", fs.getSeparator())
-                .replaceAll("^" + separatorPattern + "*|" + separatorPattern + "*$", "")
-                .replaceAll(separatorPattern + "+(?=" + separatorPattern + ")", "");
+    private static boolean isSeparator(char chr, char separator) {
+        return chr == separator || chr == '/' || chr == '\\';
+    }
 
-        if (normalizedPathString.isEmpty()) {
-            return isAbsolute ? new String[0] : new String[]{ "" };
-        } else {
-            return normalizedPathString.split(fs.getSeparator());
+    private static String canonicalize(char separator, String separatorString, String[] pathParts) {
+        if (pathParts.length == 1 && isCanonical(pathParts[0], separator)) return pathParts[0];
+        StringBuilder sb = null;
+        boolean pendingSeparator = false;
+        boolean hasName = false;
+        for (String part : pathParts) {
+            if (part.isEmpty()) continue;
+            if (sb == null) {
+                sb = new StringBuilder(part.length() + 16);
+                // Only the actual separator of the file system marks a path as absolute.
+                if (part.startsWith(separatorString)) sb.append(separator);
+            }
+            for (int i = 0; i < part.length(); i++) {
+                char chr = part.charAt(i);
+                if (isSeparator(chr, separator)) {
+                    pendingSeparator = true;
+                } else {
+                    if (pendingSeparator && hasName) sb.append(separator);
+                    sb.append(chr);
+                    pendingSeparator = false;
+                    hasName = true;
+                }
+            }
+            pendingSeparator = true;
         }
+        return sb == null ? "" : sb.toString();
+    }
+
+    private static boolean isCanonical(String path, char separator) {
+        int length = path.length();
+        for (int i = 0; i < length; i++) {
+            char chr = path.charAt(i);
+            if (chr == separator) {
+                if (i > 0 && (i == length - 1 || path.charAt(i - 1) == separator)) return false;
+            } else if (isSeparator(chr, separator)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] computeOffsets(String data, char separator, boolean absolute) {
+        int start = absolute ? 1 : 0;
+        int length = data.length();
+        if (absolute && length == 1) return new int[]{ length + 1 };
+        int names = 1;
+        for (int i = start; i < length; i++) {
+            if (data.charAt(i) == separator) names += 1;
+        }
+        int[] offsets = new int[names + 1];
+        offsets[0] = start;
+        int idx = 1;
+        for (int i = start; i < length; i++) {
+            if (data.charAt(i) == separator) offsets[idx++] = i + 1;
+        }
+        offsets[names] = length + 1;
+        return offsets;
+    }
+
+    private int nameStart(int index) {
+        return this.offsets[this.first + index];
+    }
+
+    private int nameEnd(int index) {
+        return this.offsets[this.first + index + 1] - 1;
+    }
+
+    private int nameLength(int index) {
+        return this.nameEnd(index) - this.nameStart(index);
+    }
+
+    private boolean isEmptyPath() {
+        return !this.absolute && this.count == 1 && this.nameLength(0) == 0;
+    }
+
+    private boolean nameEquals(int index, BasePath other, int otherIndex) {
+        int length = this.nameLength(index);
+        return length == other.nameLength(otherIndex) && this.data.regionMatches(this.nameStart(index), other.data, other.nameStart(otherIndex), length);
+    }
+
+    boolean nameEquals(int index, String name) {
+        return name.length() == this.nameLength(index) && this.data.startsWith(name, this.nameStart(index));
+    }
+
+    private BasePath view(boolean absolute, int beginIndex, int endIndex) {
+        if (absolute == this.absolute && beginIndex == 0 && endIndex == this.count) return this;
+        return new BasePath(this, absolute, this.first + beginIndex, endIndex - beginIndex);
+    }
+
+    private BasePath emptyPath() {
+        return new BasePath(this.fs, "");
     }
 
     @Override
@@ -83,19 +171,14 @@ public class BasePath implements Path {
 
     @Override
     public @Nullable Path getFileName() {
-        if (this.empty) {
-            return null;
-        } else if (this.pathParts.length > 0) {
-            return new BasePath(this.fs, false, this.pathParts[this.pathParts.length - 1]);
-        } else {
-            return this.absolute ? null : new BasePath(this.fs, false);
-        }
+        if (this.count == 0 || this.isEmptyPath()) return null;
+        return this.view(false, this.count - 1, this.count);
     }
 
     @Override
     public @Nullable Path getParent() {
-        if (this.pathParts.length > 1 || (this.absolute && this.pathParts.length == 1)) {
-            return new BasePath(this.fs, this.absolute, Arrays.copyOf(this.pathParts,this.pathParts.length - 1));
+        if (this.count > 1 || (this.absolute && this.count == 1)) {
+            return this.view(this.absolute, 0, this.count - 1);
         } else {
             return null;
         }
@@ -103,25 +186,21 @@ public class BasePath implements Path {
 
     @Override
     public int getNameCount() {
-        return this.pathParts.length;
+        return this.count;
     }
 
     @Override
     public Path getName(int index) {
-        if (index < 0 || index > this.pathParts.length -1) throw new IllegalArgumentException();
-        return new BasePath(this.fs, false, this.pathParts[index]);
+        if (index < 0 || index > this.count - 1) throw new IllegalArgumentException();
+        return this.view(false, index, index + 1);
     }
 
     @Override
     public BasePath subpath(int beginIndex, int endIndex) {
-        if (!this.absolute && this.pathParts.length == 0 && beginIndex == 0 && endIndex == 1) {
-            return new BasePath(this.fs, false);
-        } else if (beginIndex < 0 || beginIndex > this.pathParts.length - 1 || endIndex < 0 || endIndex > this.pathParts.length || beginIndex >= endIndex) {
-            throw new IllegalArgumentException("Out of range " + beginIndex + " to " + endIndex + " for length " + this.pathParts.length);
-        } else if (!this.absolute && beginIndex == 0 && endIndex == this.pathParts.length) {
-            return this;
+        if (beginIndex < 0 || beginIndex > this.count - 1 || endIndex < 0 || endIndex > this.count || beginIndex >= endIndex) {
+            throw new IllegalArgumentException("Out of range " + beginIndex + " to " + endIndex + " for length " + this.count);
         } else {
-            return new BasePath(this.fs, false, Arrays.copyOfRange(this.pathParts, beginIndex, endIndex));
+            return this.view(false, beginIndex, endIndex);
         }
     }
 
@@ -131,70 +210,85 @@ public class BasePath implements Path {
             return false;
         } else if (other instanceof BasePath bp) {
             if (this.absolute != bp.absolute) return false;
-            if (this.pathParts.length < bp.pathParts.length) return false;
-            return checkArraysMatch(this.pathParts, bp.pathParts, false);
+            if (this.count < bp.count) return false;
+            for (int i = 0; i < bp.count; i++) {
+                if (!this.nameEquals(i, bp, i)) return false;
+            }
+            return true;
         } else {
             return false;
         }
     }
 
-
     @Override
     public boolean endsWith(Path other) {
         if (other.getFileSystem() != this.getFileSystem()) {
             return false;
         } else if (other instanceof BasePath bp) {
             if (!this.absolute && bp.absolute) return false;
-            if (this.pathParts.length < bp.pathParts.length) return false;
-            return checkArraysMatch(this.pathParts, bp.pathParts, true);
+            if (this.count < bp.count) return false;
+            int offset = this.count - bp.count;
+            for (int i = 0; i < bp.count; i++) {
+                if (!this.nameEquals(offset + i, bp, i)) return false;
+            }
+            return true;
         } else {
             return false;
         }
     }
 
-    private static boolean checkArraysMatch(String[] array1, String[] array2, boolean reverse) {
-        int length = Math.min(array1.length, array2.length);
-        IntBinaryOperator offset = reverse ? (l, i) -> l - i - 1 : (l, i) -> i;
-        for (int i = 0; i < length; i++) {
-            if (!Objects.equals(array1[offset.applyAsInt(array1.length, i)], array2[offset.applyAsInt(array2.length, i)])) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     @Override
     public Path normalize() {
         if (this.normalized != null) return this.normalized;
-        Deque<String> normalPathParts = new ArrayDeque<>();
-        for (String pathPart : this.pathParts) {
-            switch (pathPart) {
-                case "." -> {}
-                case ".." -> {
-                    if (!this.absolute && (normalPathParts.isEmpty() || normalPathParts.getLast().equals(".."))) {
-                        // .. on an empty path is allowed as long as it is not absolute, so keep it
-                        normalPathParts.addLast(pathPart);
-                    } else if (!normalPathParts.isEmpty()) {
-                        normalPathParts.removeLast();
-                    }
+        if (!this.containsDotNames()) {
+            this.normalized = this;
+            return this;
+        }
+        int[] names = new int[this.count];
+        int size = 0;
+        boolean changed = false;
+        for (int i = 0; i < this.count; i++) {
+            if (this.nameEquals(i, ".")) {
+                changed = true;
+            } else if (this.nameEquals(i, "..")) {
+                if (!this.absolute && (size == 0 || this.nameEquals(names[size - 1], ".."))) {
+                    // .. on an empty path is allowed as long as it is not absolute, so keep it
+                    names[size++] = i;
+                } else {
+                    if (size > 0) size -= 1;
+                    changed = true;
                 }
-                default -> normalPathParts.addLast(pathPart);
+            } else {
+                names[size++] = i;
             }
         }
-        this.normalized = new BasePath(this.fs, this.absolute, normalPathParts.toArray(String[]::new));
-        this.normalized.normalized = this.normalized;
-        return this.normalized;
+        BasePath result;
+        if (!changed) {
+            result = this;
+        } else if (size == 0) {
+            result = this.absolute ? new BasePath(this.fs, String.valueOf(this.separator)) : this.emptyPath();
+        } else {
+            StringBuilder sb = new StringBuilder(this.nameEnd(this.count - 1) - this.nameStart(0) + 1);
+            if (this.absolute) sb.append(this.separator);
+            for (int i = 0; i < size; i++) {
+                if (i > 0) sb.append(this.separator);
+                sb.append(this.data, this.nameStart(names[i]), this.nameEnd(names[i]));
+            }
+            result = new BasePath(this.fs, sb.toString());
+        }
+        result.normalized = result;
+        this.normalized = result;
+        return result;
     }
 
     @Override
     public Path resolve(Path other) {
         if (other instanceof BasePath bp) {
-            if (bp.isAbsolute() || this.empty) return bp;
-            if (bp.empty) return this;
-            String[] mergedParts = new String[this.pathParts.length + bp.pathParts.length];
-            System.arraycopy(this.pathParts, 0, mergedParts, 0, this.pathParts.length);
-            System.arraycopy(bp.pathParts, 0, mergedParts, this.pathParts.length, bp.pathParts.length);
-            return new BasePath(this.fs, this.absolute, mergedParts);
+            if (bp.isAbsolute() || this.isEmptyPath()) return bp;
+            if (bp.isEmptyPath()) return this;
+            String prefix = this.toString();
+            if (this.count == 0) return new BasePath(this.fs, prefix + bp);
+            return new BasePath(this.fs, prefix + this.separator + bp);
         }
         return other;
     }
@@ -206,29 +300,28 @@ public class BasePath implements Path {
             if (this.absolute != bp.absolute) {
                 throw new IllegalArgumentException("Different types of path");
             }
-            int length = Math.min(this.pathParts.length, bp.pathParts.length);
+            int length = Math.min(this.count, bp.count);
             int i = 0;
             while (i < length) {
-                if (!Objects.equals(this.pathParts[i], bp.pathParts[i])) break;
+                if (!this.nameEquals(i, bp, i)) break;
                 i++;
             }
 
-            int remaining = this.pathParts.length - i;
-            if (remaining == 0 && i == bp.pathParts.length) {
-                return new BasePath(this.getFileSystem(), false);
+            int remaining = this.count - i;
+            if (remaining == 0 && i == bp.count) {
+                return this.emptyPath();
             } else if (remaining == 0) {
-                return bp.subpath(i, bp.getNameCount());
+                return bp.subpath(i, bp.count);
             } else {
-                String[] updots = IntStream.range(0, remaining).mapToObj(idx -> "..").toArray(String[]::new);
-                if (i == bp.pathParts.length) {
-                    return new BasePath(this.getFileSystem(), false, updots);
-                } else {
-                    BasePath subpath = bp.subpath(i, bp.getNameCount());
-                    String[] mergedParts = new String[updots.length + subpath.pathParts.length];
-                    System.arraycopy(updots, 0, mergedParts, 0, updots.length);
-                    System.arraycopy(subpath.pathParts, 0, mergedParts, updots.length, subpath.pathParts.length);
-                    return new BasePath(this.getFileSystem(), false, mergedParts);
+                StringBuilder sb = new StringBuilder();
+                for (int up = 0; up < remaining; up++) {
+                    if (up > 0) sb.append(this.separator);
+                    sb.append("..");
+                }
+                if (i < bp.count && !bp.isEmptyPath()) {
+                    sb.append(this.separator).append(bp.subpath(i, bp.count));
                 }
+                return new BasePath(this.fs, sb.toString());
             }
         }
         throw new IllegalArgumentException("Wrong filesystem");
@@ -263,16 +356,41 @@ public class BasePath implements Path {
         if (other instanceof BasePath bp) {
             if (this.absolute && !bp.absolute) return 1;
             if (!this.absolute && bp.absolute) return -1;
-            else return Arrays.compare(this.pathParts, bp.pathParts);
+            int length = Math.min(this.count, bp.count);
+            for (int i = 0; i < length; i++) {
+                int result = this.compareName(i, bp, i);
+                if (result != 0) return result;
+            }
+            return this.count - bp.count;
         } else {
             return 0;
         }
     }
 
+    private int compareName(int index, BasePath other, int otherIndex) {
+        int start = this.nameStart(index);
+        int otherStart = other.nameStart(otherIndex);
+        int length = this.nameLength(index);
+        int otherLength = other.nameLength(otherIndex);
+        int common = Math.min(length, otherLength);
+        for (int i = 0; i < common; i++) {
+            char chr = this.data.charAt(start + i);
+            char otherChr = other.data.charAt(otherStart + i);
+            if (chr != otherChr) return chr - otherChr;
+        }
+        return length - otherLength;
+    }
+
     @Override
     public boolean equals(Object other) {
+        if (this == other) return true;
         if (other instanceof BasePath bp) {
-            return this.fs == bp.fs && this.absolute == bp.absolute && Arrays.equals(this.pathParts, bp.pathParts);
+            if (this.fs != bp.fs || this.absolute != bp.absolute || this.count != bp.count) return false;
+            if (this.hash != 0 && bp.hash != 0 && this.hash != bp.hash) return false;
+            for (int i = 0; i < this.count; i++) {
+                if (!this.nameEquals(i, bp, i)) return false;
+            }
+            return true;
         } else {
             return false;
         }
@@ -280,11 +398,60 @@ public class BasePath implements Path {
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.fs) + 31 * Arrays.hashCode(this.pathParts);
+        int hash = this.hash;
+        if (hash == 0) {
+            // Same as hashing the names as an array of strings.
+            int namesHash = 1;
+            for (int i = 0; i < this.count; i++) {
+                int nameHash = 0;
+                for (int pos = this.nameStart(i), end = this.nameEnd(i); pos < end; pos++) {
+                    nameHash = 31 * nameHash + this.data.charAt(pos);
+                }
+                namesHash = 31 * namesHash + nameHash;
+            }
+            hash = Objects.hashCode(this.fs) + 31 * namesHash;
+            this.hash = hash;
+        }
+        return hash;
     }
 
     @Override
     public String toString() {
-        return (this.absolute ? this.fs.getSeparator() : "") + String.join(this.fs.getSeparator(), this.pathParts);
+        String string = this.string;
+        if (string == null) {
+            int start = this.stringStart();
+            int end = this.stringEnd();
+            string = start == 0 && end == this.data.length() ? this.data : this.data.substring(start, end);
+            this.string = string;
+        }
+        return string;
+    }
+
+    // The string form of a path is always a region of the backing string, which allows matching it without copying.
+    String backingString() {
+        return this.data;
+    }
+
+    int stringStart() {
+        if (this.count == 0) return 0;
+        // Absolute views always start at the first name, so the separator before it is the leading one.
+        return this.absolute ? this.nameStart(0) - 1 : this.nameStart(0);
+    }
+
+    int stringEnd() {
+        return this.count == 0 ? 1 : this.nameEnd(this.count - 1);
+    }
+
+    // Start of the names in the backing string, without the leading separator of absolute paths.
+    int namesStart() {
+        return this.absolute ? this.stringStart() + 1 : this.stringStart();
+    }
+
+    boolean containsDotNames() {
+        for (int i = 0; i < this.count; i++) {
+            int length = this.nameLength(i);
+            if ((length == 1 || length == 2) && this.data.charAt(this.nameStart(i)) == '.' && this.data.charAt(this.nameEnd(i) - 1) == '.') return true;
+        }
+        return false;
     }
 }
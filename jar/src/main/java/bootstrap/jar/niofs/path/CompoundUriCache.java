@@ -0,0 +1,41 @@
+package bootstrap.jar.niofs.path;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded cache that maps compound URIs to the paths they resolve to, so converting a path to a URI and back
+ * does not need to decode the URI and look up the file system again. Paths from closed file systems are never
+ * returned.
+ */
+@NotNullByDefault
+public class CompoundUriCache {
+
+    private static final int MAX_SIZE = 4096;
+
+    private final Map<URI, Path> paths;
+
+    public CompoundUriCache() {
+        this.paths = new ConcurrentHashMap<>();
+    }
+
+    public @Nullable Path get(URI uri) {
+        Path path = this.paths.get(uri);
+        if (path != null && !path.getFileSystem().isOpen()) {
+            this.paths.remove(uri, path);
+            return null;
+        }
+        return path;
+    }
+
+    public void put(URI uri, Path path) {
+        // The cache is only meant to speed up repeated lookups, so just start over once it grows too large.
+        if (this.paths.size() >= MAX_SIZE) this.paths.clear();
+        this.paths.put(uri, path);
+    }
+}
@@ -16,9 +16,20 @@ import java.util.stream.Collectors;
 public class CompoundUriHelper {
 
     public static URI construct(String scheme, DeconstructedPath dec) throws URISyntaxException {
-        String components = dec.components().stream().map(part -> URLEncoder.encode(part, StandardCharsets.UTF_8).replace("%2F", "/")).collect(Collectors.joining(":"));
-        String path = URLEncoder.encode(dec.path(), StandardCharsets.UTF_8).replace("%2F", "/");
-        return new URI(scheme + ":" + components + (path.isEmpty() ? "" : "!" + path));
+        return construct(constructRoot(scheme, dec.components()), dec.path());
+    }
+
+    /**
+     * Builds the encoded URI prefix for a list of components. File systems can keep the result to
+     * construct URIs for their paths with {@link #construct(String, String)} without re-encoding the components.
+     */
+    public static String constructRoot(String scheme, List<String> components) {
+        return scheme + ":" + components.stream().map(part -> URLEncoder.encode(part, StandardCharsets.UTF_8).replace("%2F", "/")).collect(Collectors.joining(":"));
+    }
+
+    public static URI construct(String root, String path) throws URISyntaxException {
+        String encodedPath = URLEncoder.encode(path, StandardCharsets.UTF_8).replace("%2F", "/");
+        return new URI(encodedPath.isEmpty() ? root : root + "!" + encodedPath);
     }
 
     public static DeconstructedPath deconstruct(String scheme, URI uri) {
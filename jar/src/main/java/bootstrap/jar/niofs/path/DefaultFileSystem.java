@@ -17,7 +17,7 @@ public abstract class DefaultFileSystem extends BaseFileSystem {
 
     private final BaseFileSystemProvider provider;
     private final DefaultFileStore fileStore;
-    private boolean isOpen;
+    private volatile boolean isOpen;
 
     public DefaultFileSystem(BaseFileSystemProvider provider) {
         this.provider = provider;
@@ -80,16 +80,14 @@ public abstract class DefaultFileSystem extends BaseFileSystem {
         if (pos <= 0) throw new IllegalArgumentException();
         String syntax = syntaxAndInput.substring(0, pos);
         String input = syntaxAndInput.substring(pos + 1);
-        String pattern;
         if (syntax.equalsIgnoreCase("glob")) {
-            pattern = GlobToRegex.toRegexPattern(input, this);
+            return new GlobPathMatcher(input, this);
         } else if (syntax.equalsIgnoreCase("regex")) {
-            pattern = input;
+            Predicate<String> test = Pattern.compile(input).asMatchPredicate();
+            return path -> test.test(path.toString());
         } else {
             throw new UnsupportedOperationException("Syntax '" + syntax + "' not recognized");
         }
-        Predicate<String> test = Pattern.compile(pattern).asMatchPredicate();
-        return path -> test.test(path.toString());
     }
 
     @Override
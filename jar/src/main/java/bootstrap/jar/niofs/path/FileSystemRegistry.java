@@ -0,0 +1,83 @@
+package bootstrap.jar.niofs.path;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A registry of open file systems by key. Lookups of registered file systems don't take any locks. Concurrent
+ * creations of a file system with the same key are coalesced, so only one of them actually creates the file system
+ * while the others wait for the result.
+ */
+@NotNullByDefault
+public class FileSystemRegistry<K, T extends FileSystem> {
+
+    private final Map<K, T> fileSystems;
+    private final Map<K, CompletableFuture<T>> pending;
+
+    public FileSystemRegistry() {
+        this.fileSystems = new ConcurrentHashMap<>();
+        this.pending = new ConcurrentHashMap<>();
+    }
+
+    public @Nullable T get(K key) {
+        return this.fileSystems.get(key);
+    }
+
+    /**
+     * Gets the file system registered for the given key or creates and registers it using the provided factory.
+     * The factory is invoked without holding any locks, so it may create nested file systems.
+     */
+    public T getOrCreate(K key, Factory<T> factory) throws IOException {
+        T existing = this.fileSystems.get(key);
+        if (existing != null) return existing;
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> inFlight = this.pending.putIfAbsent(key, future);
+        if (inFlight != null) return await(inFlight);
+        try {
+            // The file system may have been registered between the lookup and claiming the key.
+            T fs = this.fileSystems.get(key);
+            if (fs == null) {
+                fs = factory.create();
+                this.fileSystems.put(key, fs);
+            }
+            future.complete(fs);
+            return fs;
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            // Only remove the pending creation after the file system has been registered, so lookups never miss it.
+            this.pending.remove(key, future);
+        }
+    }
+
+    public void remove(K key, FileSystem fs) {
+        this.fileSystems.remove(key, fs);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            switch (e.getCause()) {
+                case IOException ex -> throw new IOException(ex.getMessage(), ex);
+                case RuntimeException ex -> throw ex;
+                case Error ex -> throw ex;
+                case null, default -> throw e;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Factory<T extends FileSystem> {
+        T create() throws IOException;
+    }
+}
@@ -0,0 +1,303 @@
+package bootstrap.jar.niofs.path;
+
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A compiled glob pattern, that accepts the same syntax as {@link GlobToRegex}. Literal prefixes and suffixes of the
+ * pattern are compared directly, the rest is matched by a small automaton, that runs over the backing string of a
+ * {@link BasePath}, so matching doesn't need to create any strings.
+ */
+@NotNullByDefault
+public class GlobPathMatcher implements NamePathMatcher {
+
+    private final String glob;
+    private final int separator;
+    private final State[] states;
+    private final long[][] closures;
+    private final boolean literal;
+    private final String prefix;
+    private final String suffix;
+    private final int startState;
+    private final int acceptState;
+
+    public GlobPathMatcher(String glob, FileSystem fs) throws PatternSyntaxException {
+        this.glob = glob;
+        this.separator = fs.getSeparator().codePointAt(0);
+
+        Compiler compiler = new Compiler(glob, this.separator);
+        compiler.compile();
+        this.states = compiler.states.toArray(State[]::new);
+        this.closures = computeClosures(this.states);
+        this.literal = compiler.prefixLength == this.states.length - 1;
+        this.startState = compiler.prefixLength;
+        this.acceptState = this.literal ? this.states.length - 1 : compiler.suffixStart;
+        this.prefix = literalString(this.states, 0, this.startState);
+        this.suffix = this.literal ? "" : literalString(this.states, this.acceptState, this.states.length - 1);
+    }
+
+    @Override
+    public boolean matches(Path path) {
+        if (path instanceof BasePath bp) {
+            return this.matches(bp.backingString(), bp.stringStart(), bp.stringEnd());
+        } else {
+            String string = path.toString();
+            return this.matches(string, 0, string.length());
+        }
+    }
+
+    @Override
+    public boolean matchesNames(Path path) {
+        if (path instanceof BasePath bp && !bp.containsDotNames()) {
+            return this.matches(bp.backingString(), bp.namesStart(), bp.stringEnd());
+        }
+        if (path.isAbsolute() && path.getRoot() != null) path = path.getRoot().relativize(path);
+        return this.matches(path.normalize());
+    }
+
+    public boolean matches(String string, int start, int end) {
+        int prefixLength = this.prefix.length();
+        int suffixLength = this.suffix.length();
+        if (this.literal) return end - start == prefixLength && string.startsWith(this.prefix, start);
+        if (end - start < prefixLength + suffixLength) return false;
+        if (!string.startsWith(this.prefix, start)) return false;
+        if (!string.startsWith(this.suffix, end - suffixLength)) return false;
+        if (this.closures[0].length == 1) {
+            return this.matchSmall(string, start + prefixLength, end - suffixLength);
+        } else {
+            return this.matchLarge(string, start + prefixLength, end - suffixLength);
+        }
+    }
+
+    private boolean matchSmall(String string, int start, int end) {
+        long current = this.closures[this.startState][0];
+        for (int pos = start; pos < end;) {
+            int chr = string.codePointAt(pos);
+            pos += Character.charCount(chr);
+            long next = 0;
+            for (long remaining = current; remaining != 0; remaining &= remaining - 1) {
+                int target = this.step(Long.numberOfTrailingZeros(remaining), chr);
+                if (target >= 0) next |= this.closures[target][0];
+            }
+            if (next == 0) return false;
+            current = next;
+        }
+        return (current & (1L << this.acceptState)) != 0;
+    }
+
+    private boolean matchLarge(String string, int start, int end) {
+        long[] current = this.closures[this.startState].clone();
+        long[] next = new long[current.length];
+        for (int pos = start; pos < end;) {
+            int chr = string.codePointAt(pos);
+            pos += Character.charCount(chr);
+            boolean any = false;
+            for (int word = 0; word < current.length; word++) {
+                for (long remaining = current[word]; remaining != 0; remaining &= remaining - 1) {
+                    int target = this.step(64 * word + Long.numberOfTrailingZeros(remaining), chr);
+                    if (target >= 0) {
+                        long[] closure = this.closures[target];
+                        for (int i = 0; i < closure.length; i++) next[i] |= closure[i];
+                        any = true;
+                    }
+                }
+            }
+            if (!any) return false;
+            long[] old = current;
+            current = next;
+            next = old;
+            Arrays.fill(next, 0);
+        }
+        return (current[this.acceptState / 64] & (1L << (this.acceptState % 64))) != 0;
+    }
+
+    // Gets the state, whose closure is reached by consuming the given character in the given state or -1.
+    private int step(int idx, int chr) {
+        State state = this.states[idx];
+        return switch (state.type()) {
+            case CHAR -> chr == state.codePoint() ? idx + 1 : -1;
+            case ANY -> chr != this.separator ? idx + 1 : -1;
+            case CLASS -> chr != this.separator && state.classMatches(chr) ? idx + 1 : -1;
+            case STAR -> chr != this.separator ? idx : -1;
+            case GLOBSTAR -> idx;
+            case SPLIT, JUMP, ACCEPT -> -1;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "glob:" + this.glob;
+    }
+
+    private static long[][] computeClosures(State[] states) {
+        int words = (states.length + 63) / 64;
+        long[][] closures = new long[states.length][];
+        for (int i = states.length - 1; i >= 0; i--) {
+            long[] closure = new long[words];
+            addClosure(states, i, closure);
+            closures[i] = closure;
+        }
+        return closures;
+    }
+
+    private static void addClosure(State[] states, int idx, long[] closure) {
+        if ((closure[idx / 64] & (1L << (idx % 64))) != 0) return;
+        closure[idx / 64] |= 1L << (idx % 64);
+        State state = states[idx];
+        switch (state.type()) {
+            case STAR, GLOBSTAR -> addClosure(states, idx + 1, closure);
+            case SPLIT, JUMP -> {
+                for (int target : state.targets()) addClosure(states, target, closure);
+            }
+            default -> {}
+        }
+    }
+
+    private static String literalString(State[] states, int from, int to) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) sb.appendCodePoint(states[i].codePoint());
+        return sb.toString();
+    }
+
+    private enum Type { CHAR, ANY, CLASS, STAR, GLOBSTAR, SPLIT, JUMP, ACCEPT }
+
+    // For character classes, targets holds pairs of the lower and upper bounds of all ranges, for splits and jumps it holds the target states.
+    private record State(Type type, int codePoint, int[] targets, boolean negated) {
+
+        public boolean classMatches(int chr) {
+            for (int i = 0; i < this.targets.length; i += 2) {
+                if (chr >= this.targets[i] && chr <= this.targets[i + 1]) return !this.negated;
+            }
+            return this.negated;
+        }
+    }
+
+    private static class Compiler {
+
+        private final String glob;
+        private final int separator;
+        private final List<State> states;
+        private int prefixLength;
+        private int suffixStart;
+        private boolean onlyLiterals;
+
+        private Compiler(String glob, int separator) {
+            this.glob = glob;
+            this.separator = separator;
+            this.states = new ArrayList<>();
+            this.prefixLength = 0;
+            this.suffixStart = 0;
+            this.onlyLiterals = true;
+        }
+
+        private void compile() throws PatternSyntaxException {
+            int[] cp = this.glob.codePoints().toArray();
+            int split = -1;
+            List<Integer> branches = new ArrayList<>();
+            List<int[]> jumps = new ArrayList<>();
+            for (int i = 0; i < cp.length;) {
+                switch (cp[i++]) {
+                    case '\\' -> {
+                        if (i >= cp.length) throw new PatternSyntaxException("Truncated character escape", this.glob, i - 1);
+                        this.addLiteral(cp[i++]);
+                    }
+                    case '/' -> this.addLiteral(this.separator);
+                    case '*' -> {
+                        if (i < cp.length && cp[i] == '*') {
+                            i += 1;
+                            this.add(new State(Type.GLOBSTAR, 0, new int[0], false));
+                        } else {
+                            this.add(new State(Type.STAR, 0, new int[0], false));
+                        }
+                    }
+                    case '?' -> this.add(new State(Type.ANY, 0, new int[0], false));
+                    case '[' -> i = this.compileClass(cp, i);
+                    case ',' -> {
+                        if (split >= 0) {
+                            int[] jump = new int[1];
+                            jumps.add(jump);
+                            this.add(new State(Type.JUMP, 0, jump, false));
+                            branches.add(this.states.size());
+                        } else {
+                            this.addLiteral(',');
+                        }
+                    }
+                    case '{' -> {
+                        if (split >= 0) throw new PatternSyntaxException("Unsupported pattern group nesting", this.glob, i - 1);
+                        split = this.states.size();
+                        this.add(new State(Type.SPLIT, 0, new int[0], false));
+                        branches.clear();
+                        jumps.clear();
+                        branches.add(this.states.size());
+                    }
+                    case '}' -> {
+                        if (split >= 0) {
+                            int[] jump = new int[1];
+                            jumps.add(jump);
+                            this.add(new State(Type.JUMP, 0, jump, false));
+                            for (int[] target : jumps) target[0] = this.states.size();
+                            this.states.set(split, new State(Type.SPLIT, 0, branches.stream().mapToInt(Integer::intValue).toArray(), false));
+                            this.suffixStart = this.states.size();
+                            split = -1;
+                        } else {
+                            this.addLiteral('}');
+                        }
+                    }
+                    default -> this.addLiteral(cp[i - 1]);
+                }
+            }
+            if (split >= 0) throw new PatternSyntaxException("Unclosed pattern group", this.glob, cp.length);
+            this.states.add(new State(Type.ACCEPT, 0, new int[0], false));
+        }
+
+        private int compileClass(int[] cp, int i) throws PatternSyntaxException {
+            if (i >= cp.length) throw new PatternSyntaxException("Incomplete character class", this.glob, i - 1);
+            boolean negated = false;
+            List<Integer> ranges = new ArrayList<>();
+            if (cp[i] == '!') {
+                i += 1;
+                negated = true;
+            }
+            if (i < cp.length && cp[i] == '-') {
+                i += 1;
+                ranges.add((int) '-');
+                ranges.add((int) '-');
+            }
+            while (i < cp.length && cp[i] != ']') {
+                if (cp[i] == '-') throw new PatternSyntaxException("Invalid character range", this.glob, i);
+                if (i + 2 < cp.length && cp[i + 1] == '-') {
+                    if (cp[i + 2] == '-') throw new PatternSyntaxException("Invalid character range", this.glob, i + 2);
+                    if (cp[i + 2] < cp[i]) throw new PatternSyntaxException("Illegal character range", this.glob, i + 2);
+                    ranges.add(cp[i]);
+                    ranges.add(cp[i + 2]);
+                    i += 3;
+                } else {
+                    ranges.add(cp[i]);
+                    ranges.add(cp[i]);
+                    i += 1;
+                }
+            }
+            if (i >= cp.length) throw new PatternSyntaxException("Incomplete character class", this.glob, i - 1);
+            this.add(new State(Type.CLASS, 0, ranges.stream().mapToInt(Integer::intValue).toArray(), negated));
+            return i + 1;
+        }
+
+        // Literals outside of groups, that are not preceded by anything else, form the literal prefix.
+        private void addLiteral(int codePoint) {
+            this.states.add(new State(Type.CHAR, codePoint, new int[0], false));
+            if (this.onlyLiterals) this.prefixLength += 1;
+        }
+
+        private void add(State state) {
+            this.states.add(state);
+            this.onlyLiterals = false;
+            this.suffixStart = this.states.size();
+        }
+    }
+}
@@ -26,7 +26,7 @@ public class GlobToRegex {
             switch (cp[i++]) {
                 case '\\' -> {
                     if (i >= cp.length) throw new PatternSyntaxException("Truncated character escape", glob, i - 1);
-                    lit.appendCodePoint(cp[i]);
+                    lit.appendCodePoint(cp[i++]);
                 }
                 case '/' -> lit.append(fs.getSeparator());
                 case '*' -> {
@@ -0,0 +1,16 @@
+package bootstrap.jar.niofs.path;
+
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+
+/**
+ * A {@link PathMatcher} that can also match just the names of a path, as if the path was relativized against its
+ * root and then normalized. Implementations can do this without creating the relative path.
+ */
+@NotNullByDefault
+public interface NamePathMatcher extends PathMatcher {
+
+    boolean matchesNames(Path path);
+}
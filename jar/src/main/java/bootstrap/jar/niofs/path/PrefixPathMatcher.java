@@ -0,0 +1,70 @@
+package bootstrap.jar.niofs.path;
+
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A {@link java.nio.file.PathMatcher} that tests whether a relative path starts with a fixed sequence of names. The
+ * names are compared one by one, so the matcher works on paths from any file system and needs no state and no
+ * locking. Absolute paths never start with the prefix.
+ */
+@NotNullByDefault
+public class PrefixPathMatcher implements NamePathMatcher {
+
+    private final String[] prefix;
+    private final boolean exclude;
+
+    private PrefixPathMatcher(boolean exclude, String first, String... more) {
+        this.prefix = new String[more.length + 1];
+        this.prefix[0] = Objects.requireNonNull(first);
+        for (int i = 0; i < more.length; i++) this.prefix[i + 1] = Objects.requireNonNull(more[i]);
+        this.exclude = exclude;
+    }
+
+    /**
+     * Creates a matcher that matches all paths that start with the given names.
+     */
+    public static PrefixPathMatcher including(String first, String... more) {
+        return new PrefixPathMatcher(false, first, more);
+    }
+
+    /**
+     * Creates a matcher that matches all paths that don't start with the given names.
+     */
+    public static PrefixPathMatcher excluding(String first, String... more) {
+        return new PrefixPathMatcher(true, first, more);
+    }
+
+    @Override
+    public boolean matches(Path path) {
+        return this.exclude != (!path.isAbsolute() && this.startsWithPrefix(path));
+    }
+
+    @Override
+    public boolean matchesNames(Path path) {
+        if (!(path instanceof BasePath bp) || bp.containsDotNames()) {
+            if (path.isAbsolute() && path.getRoot() != null) path = path.getRoot().relativize(path);
+            path = path.normalize();
+        }
+        return this.exclude != this.startsWithPrefix(path);
+    }
+
+    private boolean startsWithPrefix(Path path) {
+        if (path.getNameCount() < this.prefix.length) return false;
+        for (int i = 0; i < this.prefix.length; i++) {
+            if (path instanceof BasePath bp) {
+                if (!bp.nameEquals(i, this.prefix[i])) return false;
+            } else if (!this.prefix[i].equals(path.getName(i).toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return (this.exclude ? "exclude:" : "include:") + String.join("/", this.prefix);
+    }
+}
@@ -1,6 +1,8 @@
 package bootstrap.jar.niofs.union;
 
+import bootstrap.jar.niofs.path.CompoundUriHelper;
 import bootstrap.jar.niofs.path.DefaultFileSystem;
+import bootstrap.jar.niofs.path.NamePathMatcher;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
 
@@ -19,12 +21,14 @@ import java.util.stream.IntStream;
 public class UnionFileSystem extends DefaultFileSystem {
 
     private final List<String> key;
+    private final String uriRoot;
     private final List<UnionRoot> roots;
 
     UnionFileSystem(UnionFileSystemProvider provider, List<String> key) throws IOException {
         super(provider);
         this.key = List.copyOf(key);
         if (this.key.isEmpty()) throw new IOException("Empty union filesystem.");
+        this.uriRoot = CompoundUriHelper.constructRoot(provider.getScheme(), this.key);
         List<UnionRoot> roots = new ArrayList<>(this.key.size());
         for (String part : this.key) {
             if (part.isEmpty()) throw new IOException("Empty filesystem key.");
@@ -40,6 +44,7 @@ public class UnionFileSystem extends DefaultFileSystem {
     UnionFileSystem(UnionFileSystemProvider provider, UUID uid, List<?> rootPaths, @Nullable List<?> filters) throws IOException {
         super(provider);
         this.key = List.of("", uid.toString());
+        this.uriRoot = CompoundUriHelper.constructRoot(provider.getScheme(), this.key);
         if (rootPaths.isEmpty()) throw new IOException("Empty union filesystem.");
         if (filters == null) filters = IntStream.range(0, rootPaths.size()).mapToObj(i -> null).toList();
         if (rootPaths.size() != filters.size()) throw new IOException("Wrong amount of filters.");
@@ -67,6 +72,10 @@ public class UnionFileSystem extends DefaultFileSystem {
         return this.key;
     }
 
+    String uriRoot() {
+        return this.uriRoot;
+    }
+
     public List<UnionRoot> roots() {
         return this.roots;
     }
@@ -74,6 +83,7 @@ public class UnionFileSystem extends DefaultFileSystem {
     public record UnionRoot(Path path, PathMatcher filter) {
 
         public boolean testLocalPath(Path path) {
+            if (this.filter instanceof NamePathMatcher matcher) return matcher.matchesNames(path);
             if (path.isAbsolute()) path = path.getRoot().relativize(path);
             path = path.normalize();
             return this.filter.matches(path);
@@ -1,8 +1,10 @@
 package bootstrap.jar.niofs.union;
 
 import bootstrap.jar.niofs.path.BasePath;
+import bootstrap.jar.niofs.path.CompoundUriCache;
 import bootstrap.jar.niofs.path.CompoundUriHelper;
 import bootstrap.jar.niofs.path.DefaultFileSystem;
+import bootstrap.jar.niofs.path.FileSystemRegistry;
 import bootstrap.jar.niofs.path.ReadOnlyFileSystemProvider;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
@@ -17,6 +19,7 @@ import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.StreamSupport;
@@ -24,14 +27,14 @@ import java.util.stream.StreamSupport;
 @NotNullByDefault
 public class UnionFileSystemProvider extends ReadOnlyFileSystemProvider {
 
-    private final Object lock;
     private final Set<UUID> usedIds;
-    private final Map<List<String>, UnionFileSystem> fileSystems;
+    private final FileSystemRegistry<List<String>, UnionFileSystem> fileSystems;
+    private final CompoundUriCache uriCache;
 
     public UnionFileSystemProvider() {
-        this.lock = new Object();
-        this.usedIds = new HashSet<>();
-        this.fileSystems = new HashMap<>();
+        this.usedIds = ConcurrentHashMap.newKeySet();
+        this.fileSystems = new FileSystemRegistry<>();
+        this.uriCache = new CompoundUriCache();
     }
 
     @Override
@@ -41,10 +44,14 @@ public class UnionFileSystemProvider extends ReadOnlyFileSystemProvider {
 
     @Override
     public Path getPath(URI uri) {
+        Path cached = this.uriCache.get(uri);
+        if (cached != null) return cached;
         CompoundUriHelper.DeconstructedPath dec = CompoundUriHelper.deconstruct(this.getScheme(), uri);
         try {
             boolean isAnonymous = !dec.components().isEmpty() && dec.components().getFirst().isEmpty();
-            return this.getOrCreateFileSystem(dec.components(), true, !isAnonymous, null).getPath(dec.path());
+            Path path = this.getOrCreateFileSystem(dec.components(), true, !isAnonymous, null).getPath(dec.path());
+            this.uriCache.put(uri, path);
+            return path;
         } catch (IOException e) {
             throw this.mask(dec.components(), e);
         }
@@ -53,7 +60,9 @@ public class UnionFileSystemProvider extends ReadOnlyFileSystemProvider {
     @Override
     public URI toURI(BasePath path) throws URISyntaxException {
         if (path.getFileSystem() instanceof UnionFileSystem ufs) {
-            return CompoundUriHelper.construct(this.getScheme(), new CompoundUriHelper.DeconstructedPath(ufs.key(), path.toString()));
+            URI uri = CompoundUriHelper.construct(ufs.uriRoot(), path.toString());
+            this.uriCache.put(uri, path);
+            return uri;
         } else {
             throw new IllegalStateException("Wrong kind of path.");
         }
@@ -77,57 +86,52 @@ public class UnionFileSystemProvider extends ReadOnlyFileSystemProvider {
 
     @Override
     public void unregisterFileSystem(FileSystem fs) {
-        synchronized (this.lock) {
-            if (fs instanceof UnionFileSystem ufs) {
-                //noinspection resource
-                this.fileSystems.remove(ufs.key());
-            }
+        if (fs instanceof UnionFileSystem ufs) {
+            this.fileSystems.remove(ufs.key(), ufs);
         }
     }
 
     private UnionFileSystem getOrCreateFileSystem(List<String> roots, boolean existing, boolean create, @Nullable Map<String, ?> env) throws IOException {
-        roots = List.copyOf(roots);
-        UUID uid;
-        synchronized (this.lock) {
-            UnionFileSystem existingFileSystem = this.fileSystems.get(roots);
-            if (existingFileSystem != null) {
-                if (existing) return existingFileSystem;
-                throw new FileSystemAlreadyExistsException(this.fsError(roots));
-            }
-            if (!create) {
-                throw new FileSystemNotFoundException(this.fsError(roots));
-            }
-            do uid = UUID.randomUUID(); while (this.usedIds.contains(uid));
-            this.usedIds.add(uid);
+        List<String> key = List.copyOf(roots);
+        UnionFileSystem existingFileSystem = this.fileSystems.get(key);
+        if (existingFileSystem != null) {
+            if (existing) return existingFileSystem;
+            throw new FileSystemAlreadyExistsException(this.fsError(key));
         }
-        // Release the lock when creating file systems to prevent deadlocks while creating the nested file systems
-        UnionFileSystem newFS;
-        try {
-            if (!existing && env != null && env.containsKey("paths")) {
-                if (!(env.get("paths") instanceof List<?> pathList)) throw new IOException("The 'paths' environment must contain a list.");
-                List<?> filterList = null;
-                if (env.containsKey("filters")) {
-                    if (!(env.get("filters") instanceof List<?> f)) throw new IOException("The 'filters' environment must contain a list.");
-                    filterList = f;
-                }
-                newFS = new UnionFileSystem(this, uid, pathList, filterList);
-            } else {
-                newFS = new UnionFileSystem(this, roots);
-                synchronized (this.lock) { this.usedIds.remove(uid); }
-            }
-        } catch (IOException e) {
-            throw new IOException(this.fsError(roots), e);
+        if (!create) {
+            throw new FileSystemNotFoundException(this.fsError(key));
+        }
+        if (!existing && env != null && env.containsKey("paths")) {
+            return this.createAnonymousFileSystem(key, env);
         }
-        synchronized (this.lock) {
-            // If another filesystem with the same key was created while the lock was released, discard the previous file system.
-            UnionFileSystem existingFileSystem = this.fileSystems.get(newFS.key());
-            if (existingFileSystem != null) {
-                // Do not close the new filesystem as it has not yet been added to the filesystem list.
-                return existingFileSystem;
+        // File systems are created without holding any locks to prevent deadlocks while creating the nested file systems
+        return this.fileSystems.getOrCreate(key, () -> {
+            try {
+                return new UnionFileSystem(this, key);
+            } catch (IOException e) {
+                throw new IOException(this.fsError(key), e);
             }
-            this.fileSystems.put(newFS.key(), newFS);
-            return newFS;
+        });
+    }
+
+    private UnionFileSystem createAnonymousFileSystem(List<String> roots, Map<String, ?> env) throws IOException {
+        if (!(env.get("paths") instanceof List<?> pathList)) throw new IOException(this.fsError(roots), new IOException("The 'paths' environment must contain a list."));
+        List<?> filterList = null;
+        if (env.containsKey("filters")) {
+            if (!(env.get("filters") instanceof List<?> f)) throw new IOException(this.fsError(roots), new IOException("The 'filters' environment must contain a list."));
+            filterList = f;
         }
+        UUID uid;
+        do uid = UUID.randomUUID(); while (!this.usedIds.add(uid));
+        UUID fsId = uid;
+        List<?> fsFilters = filterList;
+        return this.fileSystems.getOrCreate(List.of("", fsId.toString()), () -> {
+            try {
+                return new UnionFileSystem(this, fsId, pathList, fsFilters);
+            } catch (IOException e) {
+                throw new IOException(this.fsError(roots), e);
+            }
+        });
     }
 
     private String fsError(List<String> roots) {
@@ -7,6 +7,8 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.invoke.VarHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 
 @NotNullByDefault
 public class JavaBaseAccess {
@@ -22,12 +24,14 @@ public class JavaBaseAccess {
         }
     }
 
+    private final MethodHandles.Lookup trustedLookup;
     private final MethodHandle bindLayerToLoader;
     private final MethodHandle assignPackageToModule;
     private final MethodHandle getThreadInterruptLock;
     private final MethodHandle enableNativeAccess;
 
     public JavaBaseAccess(MethodHandles.Lookup trustedLookup) throws ReflectiveOperationException {
+        this.trustedLookup = trustedLookup;
         this.bindLayerToLoader = trustedLookup.findVirtual(ModuleLayer.class, "bindToLoader", MethodType.methodType(void.class, ClassLoader.class));
         VarHandle namedPackageModule = trustedLookup.findVarHandle(trustedLookup.findClass("java.lang.NamedPackage"), "module", Module.class);
         this.assignPackageToModule = namedPackageModule.toMethodHandle(VarHandle.AccessMode.SET_VOLATILE);
@@ -68,6 +72,20 @@ public class JavaBaseAccess {
         }
     }
 
+    /**
+     * Gets a method handle for a method, even if its class is not exported. Used to instantiate service providers.
+     */
+    public MethodHandle unreflect(Method method) throws IllegalAccessException {
+        return this.trustedLookup.unreflect(method);
+    }
+
+    /**
+     * Gets a method handle for a constructor, even if its class is not exported. Used to instantiate service providers.
+     */
+    public MethodHandle unreflectConstructor(Constructor<?> constructor) throws IllegalAccessException {
+        return this.trustedLookup.unreflectConstructor(constructor);
+    }
+
     @SuppressWarnings("unchecked")
     private static <T extends Throwable> Error throwUnchecked(Throwable t) throws T {
         throw (T) t;
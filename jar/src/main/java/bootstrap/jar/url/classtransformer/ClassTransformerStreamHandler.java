@@ -9,15 +9,19 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.InetAddress;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @NotNullByDefault
 public class ClassTransformerStreamHandler extends URLStreamHandler {
@@ -25,12 +29,18 @@ public class ClassTransformerStreamHandler extends URLStreamHandler {
     public static final String PROTOCOL = "classtransformer";
     public static final ClassTransformerStreamHandler INSTANCE = new ClassTransformerStreamHandler();
 
-    private final ReadWriteLock lock;
-    private final Map<String, LoaderPoolImpl> pools;
+    // Pools are only held weakly, so the layer of a pool that is no longer used, for example after it was redefined,
+    // can be unloaded. The class loaders of a pool reference it, so it stays registered while any of its classes are used.
+    private final Map<String, PoolReference> pools;
+    private final ReferenceQueue<LoaderPoolImpl> queue;
+    private final Set<String> usedNames;
+    private final AtomicLong nextNumber;
 
     private ClassTransformerStreamHandler() {
-        this.lock = new ReentrantReadWriteLock();
-        this.pools = new HashMap<>();
+        this.pools = new ConcurrentHashMap<>();
+        this.queue = new ReferenceQueue<>();
+        this.usedNames = ConcurrentHashMap.newKeySet();
+        this.nextNumber = new AtomicLong();
     }
 
     @Override
@@ -41,17 +51,19 @@ public class ClassTransformerStreamHandler extends URLStreamHandler {
         if (url.getHost() == null || url.getPath() == null) {
             throw new FileNotFoundException(url.toString());
         }
-        LoaderPoolImpl pool;
-        this.lock.readLock().lock();
-        try {
-            pool = this.pools.get(url.getHost());
-        } finally {
-            this.lock.readLock().unlock();
-        }
+        PoolReference reference = this.pools.get(url.getHost());
+        LoaderPoolImpl pool = reference == null ? null : reference.get();
         if (pool == null) {
             throw new FileNotFoundException(url.toString());
         }
         String path = url.getPath();
+        try {
+            // URLs from findResource are known to the pool, which may still have the transformed bytes.
+            byte[] data = pool.getTransformedResource(path);
+            if (data != null) return new ClassFileUrlConnection(url, data, "application/java-vm");
+        } catch (ClassNotFoundException e) {
+            throw new FileNotFoundException(url.toString());
+        }
         if (path.startsWith("/")) {
             path = path.substring(1);
         }
@@ -89,20 +101,39 @@ public class ClassTransformerStreamHandler extends URLStreamHandler {
         }
     }
 
+    // The host is a pool identifier, so URLs must not be compared by resolving it.
+    @Override
+    protected @Nullable InetAddress getHostAddress(URL url) {
+        return null;
+    }
+
+    // Names are never reused, not even after their pool was unloaded. URLs of an unloaded pool may still be held
+    // somewhere, they must not resolve in another pool.
     public static String registerPool(String requestedName, LoaderPoolImpl pool) {
+        INSTANCE.expungeUnloadedPools();
         requestedName = requestedName.replaceAll("[^A-Za-z0-9._-]", "");
-        INSTANCE.lock.writeLock().lock();
-        try {
-            if (!INSTANCE.pools.containsKey(requestedName)) {
-                INSTANCE.pools.put(requestedName, pool);
-                return requestedName;
-            }
-            int number = 0;
-            while (INSTANCE.pools.containsKey(requestedName + "-" + number)) number += 1;
-            INSTANCE.pools.put(requestedName + "-" + number, pool);
-            return requestedName + "-" + number;
-        } finally {
-            INSTANCE.lock.writeLock().unlock();
+        String name = requestedName;
+        while (!INSTANCE.usedNames.add(name)) {
+            name = requestedName + "-" + INSTANCE.nextNumber.getAndIncrement();
+        }
+        INSTANCE.pools.put(name, new PoolReference(name, pool, INSTANCE.queue));
+        return name;
+    }
+
+    private void expungeUnloadedPools() {
+        Reference<? extends LoaderPoolImpl> reference;
+        while ((reference = this.queue.poll()) != null) {
+            if (reference instanceof PoolReference poolReference) this.pools.remove(poolReference.name, poolReference);
+        }
+    }
+
+    private static class PoolReference extends WeakReference<LoaderPoolImpl> {
+
+        private final String name;
+
+        private PoolReference(String name, LoaderPoolImpl pool, ReferenceQueue<LoaderPoolImpl> queue) {
+            super(pool, queue);
+            this.name = name;
         }
     }
 }
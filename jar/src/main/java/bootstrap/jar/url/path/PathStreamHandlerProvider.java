@@ -14,7 +14,7 @@ public class PathStreamHandlerProvider extends URLStreamHandlerProvider {
     @Override
     public @Nullable URLStreamHandler createURLStreamHandler(String protocol) {
         return switch (protocol) {
-            case "empty", "union", "layered" -> PathStreamHandler.INSTANCE;
+            case "empty", "union", "layered", "image" -> PathStreamHandler.INSTANCE;
             default -> null;
         };
     }
@@ -3,7 +3,6 @@ package bootstrap.jar.util;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
 import java.util.Set;
 import java.util.jar.Attributes;
 
@@ -20,15 +19,25 @@ public class NameHelper {
             "throw", "throws", "transient", "try", "void", "volatile", "while", "true", "false", "null", "_"
     );
 
+    // The reserved identifiers by length, so identifiers inside a larger name can be checked without a substring.
+    private static final String[][] RESERVED_BY_LENGTH;
+
+    static {
+        int maxLength = RESERVED_IDENT.stream().mapToInt(String::length).max().orElse(0);
+        RESERVED_BY_LENGTH = new String[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            int len = length;
+            RESERVED_BY_LENGTH[length] = RESERVED_IDENT.stream().filter(ident -> ident.length() == len).sorted().toArray(String[]::new);
+        }
+    }
+
     public static boolean validJavaIdentifier(@Nullable String ident) {
-        if (ident == null || ident.isEmpty() || RESERVED_IDENT.contains(ident)) return false;
-        if (!Character.isJavaIdentifierStart(Character.codePointAt(ident, 0))) return false;
-        return ident.codePoints().skip(1).allMatch(Character::isJavaIdentifierPart);
+        return ident != null && validJavaIdentifier(ident, 0, ident.length());
     }
 
     public static boolean validTypeName(@Nullable String name) {
         if (name == null || name.isEmpty()) return false;
-        return Arrays.stream(name.split("\\.", -1)).allMatch(NameHelper::validJavaIdentifier);
+        return validTypeName(name, 0, name.length());
     }
 
     public static boolean validQualifiedClassName(@Nullable String name) {
@@ -38,8 +47,66 @@ public class NameHelper {
     public static boolean validLoadableClassName(@Nullable String name) {
         if (name == null || name.isEmpty()) return false;
         int idx = name.lastIndexOf('.');
-        String packageName = idx < 0 ? null : name.substring(0, idx);
-        String simpleName = idx < 0 ? name : name.substring(idx + 1);
-        return (packageName == null || validTypeName(packageName)) && (validJavaIdentifier(simpleName) || "package-info".equals(simpleName));
+        if (idx >= 0 && !validTypeName(name, 0, idx)) return false;
+        return validJavaIdentifier(name, idx + 1, name.length()) || name.startsWith("package-info", idx + 1) && name.length() == idx + 13;
+    }
+
+    /**
+     * Normalizes a resource name by removing leading and trailing slashes and collapsing repeated slashes. Returns
+     * the name itself, if it is already normalized.
+     */
+    public static String normalizeResourceName(String name) {
+        int length = name.length();
+        boolean normalized = length == 0 || (name.charAt(0) != '/' && name.charAt(length - 1) != '/');
+        for (int i = 1; normalized && i < length; i++) {
+            if (name.charAt(i) == '/' && name.charAt(i - 1) == '/') normalized = false;
+        }
+        if (normalized) return name;
+
+        StringBuilder sb = new StringBuilder(length);
+        boolean slash = false;
+        for (int i = 0; i < length; i++) {
+            char chr = name.charAt(i);
+            if (chr == '/') {
+                slash = true;
+            } else {
+                if (slash && !sb.isEmpty()) sb.append('/');
+                slash = false;
+                sb.append(chr);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean validTypeName(String name, int start, int end) {
+        if (start >= end) return false;
+        int segmentStart = start;
+        while (true) {
+            int idx = name.indexOf('.', segmentStart);
+            int segmentEnd = idx < 0 || idx >= end ? end : idx;
+            if (!validJavaIdentifier(name, segmentStart, segmentEnd)) return false;
+            if (segmentEnd == end) return true;
+            segmentStart = segmentEnd + 1;
+        }
+    }
+
+    private static boolean validJavaIdentifier(String name, int start, int end) {
+        if (start >= end) return false;
+        int codePoint = name.codePointAt(start);
+        if (!Character.isJavaIdentifierStart(codePoint)) return false;
+        for (int i = start + Character.charCount(codePoint); i < end; i += Character.charCount(codePoint)) {
+            codePoint = name.codePointAt(i);
+            if (!Character.isJavaIdentifierPart(codePoint)) return false;
+        }
+        return !reserved(name, start, end);
+    }
+
+    private static boolean reserved(String name, int start, int end) {
+        int length = end - start;
+        if (length >= RESERVED_BY_LENGTH.length) return false;
+        for (String ident : RESERVED_BY_LENGTH[length]) {
+            if (name.startsWith(ident, start)) return true;
+        }
+        return false;
     }
 }
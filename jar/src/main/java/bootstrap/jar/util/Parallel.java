@@ -0,0 +1,75 @@
+package bootstrap.jar.util;
+
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@NotNullByDefault
+public class Parallel {
+
+    private Parallel() {}
+
+    /**
+     * Applies a function to every element of a list concurrently, using at most one thread per available processor.
+     *
+     * @see #map(List, int, IOFunction)
+     */
+    public static <T, R> List<R> map(List<T> list, IOFunction<? super T, ? extends R> function) throws IOException {
+        return map(list, Runtime.getRuntime().availableProcessors(), function);
+    }
+
+    /**
+     * Applies a function to every element of a list concurrently and returns the results in the order of the list.
+     * The call only returns once the function has completed for all elements. If the function fails for multiple
+     * elements, the failure of the first of them is thrown, just like when the elements are processed one by one.
+     * {@link IOException IOExceptions}, unchecked exceptions and errors are rethrown as they are.
+     *
+     * @param maxThreads The maximum number of threads to use. Lists with a single element are processed on the
+     *                   calling thread.
+     * @throws IOException If the function throws it or the calling thread is interrupted while waiting.
+     */
+    public static <T, R> List<R> map(List<T> list, int maxThreads, IOFunction<? super T, ? extends R> function) throws IOException {
+        if (list.isEmpty()) return List.of();
+        int threads = Math.min(list.size(), maxThreads);
+        if (threads <= 1) {
+            List<R> results = new ArrayList<>(list.size());
+            for (T element : list) results.add(function.apply(element));
+            return results;
+        }
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<? extends R>> futures = new ArrayList<>(list.size());
+            for (T element : list) {
+                futures.add(executor.submit(() -> function.apply(element)));
+            }
+            List<R> results = new ArrayList<>(list.size());
+            for (Future<? extends R> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    switch (e.getCause()) {
+                        case IOException ex -> throw ex;
+                        case RuntimeException ex -> throw ex;
+                        case Error ex -> throw ex;
+                        case null, default -> throw new IOException(e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for parallel tasks", e);
+                }
+            }
+            return results;
+        }
+    }
+
+    @FunctionalInterface
+    public interface IOFunction<T, R> {
+
+        R apply(T value) throws IOException;
+    }
+}
@@ -1,4 +1,5 @@
 import bootstrap.jar.niofs.empty.EmptyFileSystemProvider;
+import bootstrap.jar.niofs.image.ImageFileSystemProvider;
 import bootstrap.jar.niofs.layered.LayeredFileSystemProvider;
 import bootstrap.jar.niofs.union.UnionFileSystemProvider;
 import bootstrap.jar.url.classtransformer.ClassTransformerStreamHandlerProvider;
@@ -14,7 +15,8 @@ module bootstrap.jar {
     exports bootstrap.jar;
     exports bootstrap.jar.classloading;
     exports bootstrap.jar.reflect to bootstrap.launcher;
+    exports bootstrap.jar.util to bootstrap.launcher;
 
-    provides FileSystemProvider with EmptyFileSystemProvider, UnionFileSystemProvider, LayeredFileSystemProvider;
+    provides FileSystemProvider with EmptyFileSystemProvider, UnionFileSystemProvider, LayeredFileSystemProvider, ImageFileSystemProvider;
     provides URLStreamHandlerProvider with PathStreamHandlerProvider, ClassTransformerStreamHandlerProvider;
 }
@@ -0,0 +1,123 @@
+package bootstrap.jar.impl;
+
+import bootstrap.jar.Jar;
+import bootstrap.testing.TestArchives;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.module.ModuleDescriptor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArchiveContentsTests {
+
+    private static final Map<String, String> ENTRIES = TestArchives.entries(
+            "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nAutomatic-Module-Name: test.archive\nMulti-Release: true\n",
+            "META-INF/services/test.api.Service", "# comment\ntest.impl.ServiceImpl\n\ntest.impl.Other\n",
+            "META-INF/services/not a service", "test.impl.ServiceImpl\n",
+            "META-INF/services/nested/test.api.Nested", "test.impl.ServiceImpl\n",
+            "META-INF/maven/test/pom.xml", "",
+            "META-INF/versions/9/test/nine/A.class", "",
+            "META-INF/versions/9/META-INF/hidden/B.class", "",
+            "META-INF/versions/11/test/eleven/A.class", "",
+            "META-INF/versions/011/test/padded/A.class", "",
+            "META-INF/versions/99999/test/future/A.class", "",
+            "META-INF/versions/x/test/invalid/A.class", "",
+            "test/api/Service.class", "",
+            "test/impl/ServiceImpl.class", "",
+            "test/impl/Other.class", "",
+            "test/impl/data.txt", "",
+            "test/resources/data.txt", "",
+            "test/int/A.class", "",
+            "Root.class", ""
+    );
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReadArchive() throws IOException {
+        Path archive = dir.resolve("test.jar");
+        TestArchives.write(archive, ENTRIES);
+        ArchiveContents contents = ArchiveContents.read(archive);
+        assertNotNull(contents);
+
+        assertEquals(List.of(11, 9), contents.multiReleaseVersions(21));
+        assertEquals(List.of(9), contents.multiReleaseVersions(10));
+        assertEquals(List.of(), contents.multiReleaseVersions(8));
+        assertEquals(Set.of("test.api", "test.impl"), contents.packages(List.of()));
+        assertEquals(Set.of("test.api", "test.impl", "test.nine", "test.eleven"), contents.packages(List.of(11, 9)));
+        assertFalse(contents.hasModuleInfo(List.of(11, 9)));
+        assertEquals(Map.of(
+                "test.api.Service", List.of("# comment", "test.impl.ServiceImpl", "", "test.impl.Other"),
+                "not a service", List.of("test.impl.ServiceImpl")
+        ), contents.services());
+        // Entry names are only kept on request.
+        assertNull(contents.resources(List.of()));
+    }
+
+    @Test
+    void testModuleInfo() throws IOException {
+        Path archive = dir.resolve("versioned.jar");
+        TestArchives.write(archive, List.of("META-INF/versions/17/module-info.class", "test/A.class"));
+        ArchiveContents contents = ArchiveContents.read(archive);
+        assertNotNull(contents);
+        assertFalse(contents.hasModuleInfo(List.of()));
+        assertTrue(contents.hasModuleInfo(List.of(17)));
+
+        Path plain = dir.resolve("plain.jar");
+        TestArchives.write(plain, List.of("module-info.class", "test/A.class"));
+        contents = ArchiveContents.read(plain);
+        assertNotNull(contents);
+        assertTrue(contents.hasModuleInfo(List.of()));
+    }
+
+    @Test
+    void testMatchesFileSystemScan() throws IOException {
+        // The same contents once as an archive and once as a directory, that is walked through the file system.
+        Path archive = dir.resolve("test.jar");
+        TestArchives.write(archive, ENTRIES);
+        Path extracted = TestArchives.extract(dir.resolve("extracted"), ENTRIES);
+
+        ModuleDescriptor fromArchive = Jar.of(archive).descriptor();
+        ModuleDescriptor fromDirectory = Jar.of(extracted).descriptor();
+        assertEquals(fromDirectory, fromArchive);
+        assertEquals("test.archive", fromArchive.name());
+        assertEquals(Set.of("test.api", "test.impl", "test.nine", "test.eleven"), fromArchive.packages());
+        assertEquals(1, fromArchive.provides().size());
+        ModuleDescriptor.Provides provides = fromArchive.provides().iterator().next();
+        assertEquals("test.api.Service", provides.service());
+        assertEquals(List.of("test.impl.ServiceImpl", "test.impl.Other"), provides.providers());
+    }
+
+    @Test
+    void testFallbackForNormalizedNames() throws IOException {
+        assertTrue(ArchiveContents.isPlainEntryName("a"));
+        assertTrue(ArchiveContents.isPlainEntryName("a/"));
+        assertTrue(ArchiveContents.isPlainEntryName("a/b.class"));
+        assertTrue(ArchiveContents.isPlainEntryName("a/.b/..c"));
+        assertFalse(ArchiveContents.isPlainEntryName(""));
+        assertFalse(ArchiveContents.isPlainEntryName("/a"));
+        assertFalse(ArchiveContents.isPlainEntryName("a//b"));
+        assertFalse(ArchiveContents.isPlainEntryName("a/./b"));
+        assertFalse(ArchiveContents.isPlainEntryName("a/../b"));
+        assertFalse(ArchiveContents.isPlainEntryName("./a"));
+        assertFalse(ArchiveContents.isPlainEntryName("a/.."));
+        assertFalse(ArchiveContents.isPlainEntryName("a\\b.class"));
+
+        Path archive = dir.resolve("odd.jar");
+        TestArchives.write(archive, List.of("test/A.class", "test//B.class"));
+        assertNull(ArchiveContents.read(archive));
+        // Directories and files that are not archives are scanned through the file system.
+        assertNull(ArchiveContents.read(dir));
+        Path text = dir.resolve("text.jar");
+        Files.writeString(text, "not an archive");
+        assertNull(ArchiveContents.read(text));
+    }
+}
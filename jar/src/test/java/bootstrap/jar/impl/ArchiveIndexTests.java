@@ -0,0 +1,136 @@
+package bootstrap.jar.impl;
+
+import bootstrap.jar.Jar;
+import bootstrap.jar.JarIndex;
+import bootstrap.jar.JarMetadataFilter;
+import bootstrap.jar.JarMetadataFilters;
+import bootstrap.testing.TestArchives;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.module.ModuleReader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArchiveIndexTests {
+
+    private static final JarMetadataFilter FILTER = JarMetadataFilters.defaultModuleName("test.outdated");
+
+    private static final Map<String, String> ENTRIES = TestArchives.entries(
+            "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nAutomatic-Module-Name: test.indexed\nMulti-Release: true\n",
+            "META-INF/services/test.api.Service", "test.impl.ServiceImpl\n",
+            "META-INF/versions/9/test/nine/A.class", "",
+            "META-INF/versions/9/META-INF/hidden.txt", "",
+            "META-INF/versions/11/test/api/Service.class", "",
+            "META-INF/versions/11/test/eleven/", "",
+            "META-INF/versions/11/test/eleven/data.txt", "",
+            "META-INF/versions/99999/test/future/A.class", "",
+            "test/api/Service.class", "",
+            "test/impl/ServiceImpl.class", "",
+            "test/resources/deep/data.txt", "",
+            "empty/", "",
+            "root.txt", ""
+    );
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testWriteAndLoad() throws IOException {
+        Path archive = dir.resolve("test.jar");
+        TestArchives.write(archive, ENTRIES);
+        assertNull(ArchiveIndex.load(archive));
+        assertTrue(JarIndex.write(archive));
+        assertEquals(dir.resolve("test.jar" + JarIndex.EXTENSION), JarIndex.sidecar(archive));
+        assertTrue(Files.isRegularFile(JarIndex.sidecar(archive)));
+
+        ArchiveContents scanned = Objects.requireNonNull(ArchiveContents.read(archive, true));
+        ArchiveContents indexed = ArchiveIndex.load(archive);
+        assertNotNull(indexed);
+        assertEquals(scanned.multiReleaseVersions(21), indexed.multiReleaseVersions(21));
+        for (List<Integer> versions : List.of(List.<Integer>of(), List.of(11, 9))) {
+            assertEquals(scanned.packages(versions), indexed.packages(versions));
+            assertEquals(scanned.hasModuleInfo(versions), indexed.hasModuleInfo(versions));
+            assertEquals(scanned.resources(versions), indexed.resources(versions));
+        }
+        assertEquals(scanned.services(), indexed.services());
+    }
+
+    @Test
+    void testJarWithIndex() throws IOException {
+        Path archive = dir.resolve("test.jar");
+        TestArchives.write(archive, ENTRIES);
+        Jar scanned = Jar.of(archive);
+        assertTrue(JarIndex.write(archive));
+        Jar indexed = Jar.of(archive);
+        assertEquals(scanned.descriptor(), indexed.descriptor());
+        assertEquals(scanned.manifest(), indexed.manifest());
+
+        // The index has to list every file and directory, that is visible in the jar.
+        Set<String> visible;
+        try (Stream<Path> paths = Files.walk(indexed.getPath("/"))) {
+            visible = paths.map(path -> indexed.getPath("/").relativize(path).toString()).filter(name -> !name.isEmpty()).collect(Collectors.toSet());
+        }
+        ArchiveContents contents = Objects.requireNonNull(ArchiveIndex.load(archive));
+        assertEquals(visible, contents.resources(contents.multiReleaseVersions(Runtime.version().feature())));
+
+        List<String> lookups = new ArrayList<>(visible);
+        lookups.addAll(List.of("missing.txt", "test/missing/A.class", "META-INF/versions/9/test/nine/A.class", "META-INF/hidden.txt", "test/eleven/", "/root.txt", "test//api"));
+        try (ModuleReader scannedReader = scanned.reference().open(); ModuleReader indexedReader = indexed.reference().open()) {
+            assertEquals(scannedReader.list().collect(Collectors.toSet()), indexedReader.list().collect(Collectors.toSet()));
+            for (String name : lookups) {
+                // The union file systems of both jars have different ids, so only the paths are compared.
+                assertEquals(scannedReader.find(name).map(ArchiveIndexTests::pathPart), indexedReader.find(name).map(ArchiveIndexTests::pathPart), name);
+                assertEquals(scannedReader.open(name).isPresent(), indexedReader.open(name).map(ArchiveIndexTests::close).isPresent(), name);
+            }
+        }
+    }
+
+    @Test
+    void testOutdatedIndex() throws IOException {
+        Path archive = dir.resolve("test.jar");
+        TestArchives.write(archive, List.of("test/a/A.class", "test/b/B.class"));
+        assertTrue(JarIndex.write(archive));
+        assertNotNull(ArchiveIndex.load(archive));
+
+        // Same size, but a different central directory.
+        long size = Files.size(archive);
+        TestArchives.write(archive, List.of("test/a/A.class", "test/c/B.class"));
+        assertEquals(size, Files.size(archive));
+        assertNull(ArchiveIndex.load(archive));
+        assertEquals(Set.of("test.a", "test.c"), Jar.of(FILTER, archive).packages());
+
+        TestArchives.write(archive, List.of("test/a/A.class", "test/b/B.class", "test/d/D.class"));
+        assertNull(ArchiveIndex.load(archive));
+        assertEquals(Set.of("test.a", "test.b", "test.d"), Jar.of(FILTER, archive).packages());
+
+        Files.writeString(JarIndex.sidecar(archive), "broken");
+        assertNull(ArchiveIndex.load(archive));
+
+        Path text = dir.resolve("text.jar");
+        Files.writeString(text, "not an archive");
+        assertFalse(JarIndex.write(text));
+        assertFalse(Files.exists(JarIndex.sidecar(text)));
+    }
+
+    private static String pathPart(URI uri) {
+        String part = uri.getRawSchemeSpecificPart();
+        return part.substring(part.indexOf('!'));
+    }
+
+    private static <T extends AutoCloseable> T close(T closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return closeable;
+    }
+}
@@ -0,0 +1,167 @@
+package bootstrap.jar.impl.cache;
+
+import bootstrap.jar.Jar;
+import bootstrap.jar.JarMetadataCache;
+import bootstrap.jar.JarMetadataFilter;
+import bootstrap.jar.JarMetadataFilters;
+import bootstrap.jar.classloading.ClassMetadata;
+import bootstrap.jar.impl.classloading.ClassIndexImpl;
+import bootstrap.testing.TestArchives;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.lang.module.ModuleDescriptor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirectoryMetadataCacheTests {
+
+    private static final JarMetadataFilter FILTER = JarMetadataFilters.defaultModuleName("test.cached");
+    private static final Map<String, String> ENTRIES = TestArchives.entries(
+            "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nImplementation-Version: 1.5\n",
+            "META-INF/services/test.api.Service", "test.impl.ServiceImpl\n",
+            "test/impl/ServiceImpl.class", "",
+            "test/data.txt", ""
+    );
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testDescriptorRoundTrip() throws IOException {
+        ModuleDescriptor full = ModuleDescriptor.newModule("test.full", Set.of(ModuleDescriptor.Modifier.SYNTHETIC))
+                .requires(Set.of(ModuleDescriptor.Requires.Modifier.TRANSITIVE, ModuleDescriptor.Requires.Modifier.STATIC), "java.sql", ModuleDescriptor.Version.parse("21.0.1"))
+                .requires("java.logging")
+                .exports("test.api")
+                .exports(Set.of(ModuleDescriptor.Exports.Modifier.SYNTHETIC), "test.qualified", Set.of("test.a", "test.b"))
+                .opens("test.impl", Set.of("test.c"))
+                .uses("test.api.Service")
+                .provides("test.api.Service", List.of("test.impl.B", "test.impl.A"))
+                .packages(Set.of("test.internal"))
+                .version("1.0-beta+3")
+                .mainClass("test.impl.Main")
+                .build();
+        ModuleDescriptor open = ModuleDescriptor.newOpenModule("test.open")
+                .exports("test.open")
+                .build();
+        ModuleDescriptor automatic = ModuleDescriptor.newAutomaticModule("test.automatic")
+                .packages(Set.of("test.automatic", "test.automatic.impl"))
+                .provides("test.api.Service", List.of("test.automatic.impl.A"))
+                .version("2")
+                .build();
+
+        for (ModuleDescriptor descriptor : List.of(full, open, automatic)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                DescriptorSerializer.write(out, descriptor);
+            }
+            ModuleDescriptor read = DescriptorSerializer.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            assertEquals(descriptor, read);
+            assertEquals(descriptor.isAutomatic(), read.isAutomatic());
+            assertEquals(descriptor.isOpen(), read.isOpen());
+            // Provider order is significant, as it is the order in which service loaders instantiate them.
+            assertEquals(descriptor.provides().stream().map(ModuleDescriptor.Provides::providers).toList(), read.provides().stream().map(ModuleDescriptor.Provides::providers).toList());
+        }
+    }
+
+    @Test
+    void testStoreAndLoad() throws IOException {
+        Path archive = dir.resolve("test.jar");
+        TestArchives.write(archive, ENTRIES);
+        DirectoryMetadataCache cache = new DirectoryMetadataCache(JarMetadataCache.directory(dir.resolve("cache")));
+
+        String key = cache.key(FILTER, List.of(archive));
+        assertNotNull(key);
+        assertEquals(key, cache.key(FILTER, List.of(archive)));
+        assertNull(cache.load(key));
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Automatic-Module-Name", "test.cached");
+        ModuleDescriptor descriptor = ModuleDescriptor.newAutomaticModule("test.cached").packages(Set.of("test")).build();
+        cache.store(key, new DirectoryMetadataCache.CachedJar(manifest, descriptor, List.of(17, 11)));
+
+        DirectoryMetadataCache.CachedJar loaded = new DirectoryMetadataCache(JarMetadataCache.directory(dir.resolve("cache"))).load(key);
+        assertNotNull(loaded);
+        assertEquals(manifest, loaded.manifest());
+        assertEquals(descriptor, loaded.descriptor());
+        assertEquals(List.of(17, 11), loaded.multiReleaseVersions());
+
+        // Any change to the archive changes the key.
+        Files.setLastModifiedTime(archive, FileTime.fromMillis(Files.getLastModifiedTime(archive).toMillis() - 10000));
+        String changedKey = cache.key(FILTER, List.of(archive));
+        assertNotEquals(key, changedKey);
+        assertNull(cache.load(Objects.requireNonNull(changedKey)));
+        assertNotEquals(changedKey, cache.key(JarMetadataFilters.defaultModuleName("test.other"), List.of(archive)));
+
+        // Broken entries are cache misses.
+        try (Stream<Path> files = Files.list(dir.resolve("cache"))) {
+            for (Path file : files.toList()) Files.writeString(file, "broken");
+        }
+        assertNull(cache.load(key));
+    }
+
+    @Test
+    void testUncachableJars() throws IOException {
+        Path archive = dir.resolve("test.jar");
+        TestArchives.write(archive, ENTRIES);
+        DirectoryMetadataCache cache = new DirectoryMetadataCache(JarMetadataCache.directory(dir.resolve("cache")));
+        // Filters without a fingerprint can't be cached, composites only if all their parts can.
+        JarMetadataFilter unknown = new JarMetadataFilter() {};
+        assertNull(cache.key(unknown, List.of(archive)));
+        assertNull(cache.key(JarMetadataFilter.of(FILTER, unknown), List.of(archive)));
+        assertNotNull(cache.key(JarMetadataFilter.of(FILTER, JarMetadataFilters.openModule()), List.of(archive)));
+        assertNull(cache.key(FILTER, List.of(dir)));
+        assertNull(cache.key(FILTER, List.of(archive, dir)));
+        assertNull(cache.key(FILTER, List.of(dir.resolve("missing.jar"))));
+        assertNull(cache.key(FILTER, List.of()));
+    }
+
+    @Test
+    void testClassIndexRoundTrip() throws IOException {
+        DirectoryMetadataCache cache = new DirectoryMetadataCache(JarMetadataCache.directory(dir));
+        ClassIndexImpl index = new ClassIndexImpl(List.of(
+                new ClassIndexImpl.Metadata("test.A", 0x21, "java.lang.Object", List.of("test.api.Service"), Set.of("test.api.Marker")),
+                new ClassIndexImpl.Metadata("test.B$Inner", 0x30, "test.A", List.of(), Set.of()),
+                new ClassIndexImpl.Metadata("module-info", 0x8000, null, List.of(), Set.of("java.lang.Deprecated", "test.api.Marker"))
+        ));
+        assertNull(cache.loadClassIndex("key"));
+        cache.storeClassIndex("key", index);
+        ClassIndexImpl loaded = cache.loadClassIndex("key");
+        assertNotNull(loaded);
+        assertNull(cache.loadClassIndex("other key"));
+
+        assertEquals(List.copyOf(index.classes()), List.copyOf(loaded.classes()));
+        assertEquals(List.of("module-info", "test.A"), loaded.annotatedWith("test.api.Marker").stream().map(ClassMetadata::name).toList());
+        assertEquals(List.of("test.B$Inner"), loaded.directSubtypes("test.A").stream().map(ClassMetadata::name).toList());
+        assertEquals(Optional.empty(), loaded.find("module-info").flatMap(ClassMetadata::superclass));
+    }
+
+    @Test
+    void testJarFromCache() throws IOException {
+        Path archive = dir.resolve("test.jar");
+        TestArchives.write(archive, ENTRIES);
+        JarMetadataCache cache = JarMetadataCache.directory(dir.resolve("cache"));
+
+        Jar uncached = Jar.of(FILTER, archive);
+        Jar stored = Jar.of(cache, FILTER, archive);
+        try (Stream<Path> files = Files.list(cache.location())) {
+            assertEquals(1, files.filter(file -> file.toString().endsWith(".jarmeta")).count());
+        }
+        Jar loaded = Jar.of(cache, FILTER, archive);
+        for (Jar jar : List.of(stored, loaded)) {
+            assertEquals(uncached.descriptor(), jar.descriptor());
+            assertEquals(uncached.manifest(), jar.manifest());
+            assertEquals("1.5", jar.version());
+            assertTrue(Files.isRegularFile(jar.getPath("test", "data.txt")));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package bootstrap.jar.impl.classloading;
+
+import bootstrap.jar.classloading.ModuleClustering;
+import bootstrap.testing.TestModules;
+import org.junit.jupiter.api.Test;
+
+import java.lang.module.Configuration;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveClusteringTests {
+
+    @Test
+    void testSingleCluster() {
+        Configuration configuration = resolve(Set.of("test.app", "test.other"),
+                ModuleDescriptor.newModule("test.app").requires("test.lib").packages(Set.of("test.app")).build(),
+                ModuleDescriptor.newModule("test.lib").exports("test.lib").packages(Set.of("test.lib.impl")).build(),
+                ModuleDescriptor.newModule("test.other").packages(Set.of("test.other")).build()
+        );
+        ModuleClustering clustering = ModuleClustering.adaptive(configuration);
+        assertEquals(1, clustering.loaderCount());
+        assertEquals(Set.of("test.app", "test.lib", "test.other"), clustering.clusters().values().iterator().next());
+        assertEquals(clustering.apply("test.app"), clustering.apply("test.other"));
+        assertThrows(IllegalArgumentException.class, () -> clustering.apply("test.missing"));
+        assertTrue(clustering.estimatedMemory() > 0);
+    }
+
+    @Test
+    void testConflictingPackages() {
+        // Both modules contain the same concealed package, so no loader can see both of them.
+        Configuration configuration = resolve(Set.of("test.user.x", "test.user.y"),
+                ModuleDescriptor.newModule("test.x").exports("test.x").packages(Set.of("test.shared")).build(),
+                ModuleDescriptor.newModule("test.y").exports("test.y").packages(Set.of("test.shared")).build(),
+                ModuleDescriptor.newModule("test.user.x").requires("test.x").requires("test.common").build(),
+                ModuleDescriptor.newModule("test.user.y").requires("test.y").requires("test.common").build(),
+                ModuleDescriptor.newModule("test.common").exports("test.common").build()
+        );
+        ModuleClustering clustering = ModuleClustering.adaptive(configuration);
+        assertEquals(2, clustering.loaderCount());
+        assertNotEquals(clustering.apply("test.x"), clustering.apply("test.y"));
+        assertEquals(clustering.apply("test.x"), clustering.apply("test.user.x"));
+        assertEquals(clustering.apply("test.y"), clustering.apply("test.user.y"));
+
+        // Every module is placed exactly once.
+        List<String> placed = new ArrayList<>();
+        clustering.clusters().values().forEach(placed::addAll);
+        assertEquals(configuration.modules().size(), placed.size());
+        assertEquals(configuration.modules().size(), new HashSet<>(placed).size());
+
+        // The clustering is the same on every run.
+        assertEquals(clustering.clusters(), ModuleClustering.adaptive(configuration).clusters());
+
+        Configuration single = resolve(Set.of("test.user.x"),
+                ModuleDescriptor.newModule("test.x").exports("test.x").packages(Set.of("test.shared")).build(),
+                ModuleDescriptor.newModule("test.user.x").requires("test.x").requires("test.common").build(),
+                ModuleDescriptor.newModule("test.common").exports("test.common").build()
+        );
+        assertTrue(clustering.estimatedMemory() > ModuleClustering.adaptive(single).estimatedMemory());
+    }
+
+    @Test
+    void testCycles() {
+        // Automatic modules read every other module, so the explicit module that requires one forms a cycle with it.
+        Configuration configuration = resolve(Set.of("test.explicit"),
+                ModuleDescriptor.newModule("test.explicit").requires("test.automatic").exports("test.explicit").build(),
+                ModuleDescriptor.newAutomaticModule("test.automatic").packages(Set.of("test.automatic")).build()
+        );
+        ModuleClustering clustering = ModuleClustering.adaptive(configuration);
+        assertEquals(1, clustering.loaderCount());
+        assertEquals(clustering.apply("test.explicit"), clustering.apply("test.automatic"));
+
+        // An automatic module that sees the same package from two modules can't be placed in any loader.
+        Configuration conflicting = resolve(Set.of("test.automatic", "test.x", "test.y"),
+                ModuleDescriptor.newAutomaticModule("test.automatic").packages(Set.of("test.automatic")).build(),
+                ModuleDescriptor.newModule("test.x").exports("test.x").packages(Set.of("test.shared")).build(),
+                ModuleDescriptor.newModule("test.y").exports("test.y").packages(Set.of("test.shared")).build()
+        );
+        assertThrows(IllegalStateException.class, () -> ModuleClustering.adaptive(conflicting));
+    }
+
+    private static Configuration resolve(Set<String> roots, ModuleDescriptor... descriptors) {
+        return ModuleLayer.boot().configuration().resolve(TestModules.finder(descriptors), ModuleFinder.of(), roots);
+    }
+}
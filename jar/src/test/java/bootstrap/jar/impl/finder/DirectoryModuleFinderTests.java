@@ -0,0 +1,84 @@
+package bootstrap.jar.impl.finder;
+
+import bootstrap.jar.DirectoryModuleFinder;
+import bootstrap.jar.JarMetadataFilter;
+import bootstrap.jar.JarModuleFinder;
+import bootstrap.testing.TestArchives;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirectoryModuleFinderTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRescan() throws IOException {
+        Path exploded = TestArchives.extract(this.dir.resolve("exploded"), TestArchives.entries(
+                "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nAutomatic-Module-Name: test.exploded\n",
+                "test/a/A.class", ""
+        ));
+        TestArchives.write(this.dir.resolve("lib.jar"), TestArchives.entries(
+                "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nAutomatic-Module-Name: test.lib\n",
+                "test/lib/L.class", ""
+        ));
+        DirectoryModuleFinder finder = JarModuleFinder.ofDirectories(JarMetadataFilter.of(), this.dir);
+        assertEquals(Set.of("test.exploded", "test.lib"), names(finder));
+        assertEquals(Set.of("test.a"), packages(finder, "test.exploded"));
+        assertFalse(finder.rescan());
+
+        // Added: an archive, a package in a new subdirectory and one nested below a directory that was already scanned.
+        TestArchives.write(this.dir.resolve("added.jar"), TestArchives.entries(
+                "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nAutomatic-Module-Name: test.added\n",
+                "test/added/A.class", ""
+        ));
+        TestArchives.extract(exploded, TestArchives.entries("test/a/b/B.class", ""));
+        assertTrue(finder.rescan());
+        assertEquals(Set.of("test.exploded", "test.lib", "test.added"), names(finder));
+        assertEquals(Set.of("test.a", "test.a.b"), packages(finder, "test.exploded"));
+        TestArchives.extract(exploded, TestArchives.entries("test/a/b/c/C.class", ""));
+        assertTrue(finder.rescan());
+        assertEquals(Set.of("test.a", "test.a.b", "test.a.b.c"), packages(finder, "test.exploded"));
+
+        // Changed: the contents of an archive and the services of an exploded module.
+        TestArchives.write(this.dir.resolve("lib.jar"), TestArchives.entries(
+                "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nAutomatic-Module-Name: test.lib\n",
+                "test/lib/L.class", "",
+                "test/lib/impl/I.class", ""
+        ));
+        TestArchives.extract(exploded, TestArchives.entries("META-INF/services/test.lib.Service", "test.a.A\n"));
+        assertTrue(finder.rescan());
+        assertEquals(Set.of("test.lib", "test.lib.impl"), packages(finder, "test.lib"));
+        assertEquals(Set.of("test.lib.Service"), finder.find("test.exploded").orElseThrow().descriptor().provides().stream().map(ModuleDescriptor.Provides::service).collect(Collectors.toSet()));
+
+        // Removed: an archive and a package of an exploded module.
+        Files.delete(this.dir.resolve("added.jar"));
+        Files.delete(exploded.resolve("test/a/b/c/C.class"));
+        Files.delete(exploded.resolve("test/a/b/c"));
+        assertTrue(finder.rescan());
+        assertEquals(Set.of("test.exploded", "test.lib"), names(finder));
+        assertEquals(Optional.empty(), finder.find("test.added"));
+        assertEquals(Set.of("test.a", "test.a.b"), packages(finder, "test.exploded"));
+        assertFalse(finder.rescan());
+    }
+
+    private static Set<String> names(DirectoryModuleFinder finder) {
+        return finder.findAll().stream().map(reference -> reference.descriptor().name()).collect(Collectors.toSet());
+    }
+
+    private static Set<String> packages(DirectoryModuleFinder finder, String name) {
+        return finder.find(name).map(ModuleReference::descriptor).orElseThrow().packages();
+    }
+}
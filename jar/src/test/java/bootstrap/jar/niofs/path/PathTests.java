@@ -7,9 +7,13 @@ import java.net.URI;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +29,121 @@ public class PathTests {
         runPathTests(emptyFS);
     }
 
+    @Test
+    void testBasePathIdentity() {
+        FileSystem fs = Path.of(URI.create("empty:/")).getFileSystem();
+        Path parsed = fs.getPath("one/two/three");
+        Path[] equal = {
+                fs.getPath("one", "two", "three"),
+                fs.getPath("one//two\\three/"),
+                fs.getPath("/zero/one/two/three/four").subpath(1, 4),
+                fs.getPath("one/two/three/four").getParent(),
+                fs.getPath("one/./two/four/../three").normalize(),
+                fs.getPath("one").resolve(fs.getPath("two/three")),
+                fs.getPath("/zero").relativize(fs.getPath("/zero/one/two/three"))
+        };
+        for (Path path : equal) {
+            assertEquals(parsed, path);
+            assertEquals(path, parsed);
+            assertEquals(parsed.hashCode(), path.hashCode(), path.toString());
+            assertEquals(0, parsed.compareTo(path), path.toString());
+            assertEquals("one/two/three", path.toString());
+        }
+
+        // Hash codes are the same as for the previous representation as an array of names
+        assertEquals(Objects.hashCode(fs) + 31 * Arrays.hashCode(new String[]{ "one", "two", "three" }), parsed.hashCode());
+        assertEquals(Objects.hashCode(fs) + 31 * Arrays.hashCode(new String[]{ "two" }), parsed.getName(1).hashCode());
+        assertEquals(Objects.hashCode(fs) + 31 * Arrays.hashCode(new String[]{ "" }), fs.getPath("").hashCode());
+        assertEquals(Objects.hashCode(fs) + 31 * Arrays.hashCode(new String[0]), fs.getPath("/").hashCode());
+
+        // Absolute and relative paths with the same names differ
+        assertNotEquals(fs.getPath("/one"), fs.getPath("one"));
+        assertNotEquals(fs.getPath("/"), fs.getPath(""));
+
+        // compareTo orders relative before absolute paths and otherwise like comparing the arrays of names
+        String[][] names = { { "" }, { "a" }, { "a", "b" }, { "a-b" }, { "ab" }, { "a", "c" }, { "b" }, { "b", "a" }, { "\uD83D\uDE00" }, { "\uFFFF" } };
+        for (String[] first : names) {
+            for (String[] second : names) {
+                Path firstPath = fs.getPath("", first);
+                Path secondPath = fs.getPath("", second);
+                String message = firstPath + " <> " + secondPath;
+                assertEquals(Integer.signum(Arrays.compare(first, second)), Integer.signum(firstPath.compareTo(secondPath)), message);
+                assertEquals(Arrays.equals(first, second), firstPath.equals(secondPath), message);
+                assertEquals(Arrays.equals(first, second), firstPath.subpath(0, first.length).equals(secondPath), message);
+                assertEquals(1, fs.getPath("/", first).compareTo(secondPath), message);
+                assertEquals(-1, firstPath.compareTo(fs.getPath("/", second)), message);
+            }
+        }
+    }
+
+    @Test
+    void testGlobPathMatcher() {
+        FileSystem fs = Path.of(URI.create("empty:/")).getFileSystem();
+        String[] globs = {
+                "*", "**", "*.class", "**.class", "**/module-info.class", "META-INF/*", "META-INF/**", "a/?/c", "a?c",
+                "[a-c]*", "[!a-c]*", "[-x]", "[\uD83D\uDE00]*", "{foo,bar}/*.txt", "x{,y}z", "*{.txt,.class}", "\\*literal",
+                "exact/path.txt", "a*b*c", "**/b/**"
+        };
+        String[] paths = {
+                "", "a", "-", "b", "d", "x", "abc", "a.class", "dir/a.class", "dir/sub/a.class", "module-info.class",
+                "a/module-info.class", "META-INF", "META-INF/MANIFEST.MF", "META-INF/versions/9/a.class", "a/b/c", "a/bb/c",
+                "foo/a.txt", "bar/b/a.txt", "xz", "xyz", "xyyz", "*literal", "aliteral", "exact/path.txt", "axxbyyc", "a/b/c/b/a",
+                "\uD83D\uDE00", "\uD83D\uDE00.txt", "a\uD83D\uDE00c"
+        };
+        for (String glob : globs) {
+            PathMatcher matcher = fs.getPathMatcher("glob:" + glob);
+            Pattern pattern = Pattern.compile(GlobToRegex.toRegexPattern(glob, fs));
+            for (String string : paths) {
+                Path path = fs.getPath(string);
+                boolean expected = pattern.matcher(path.toString()).matches();
+                assertEquals(expected, matcher.matches(path), glob + " on " + string);
+                if (!string.isEmpty()) {
+                    // Views match on their part of the backing string only
+                    Path view = fs.getPath("/x/" + string + "/y");
+                    assertEquals(expected, matcher.matches(view.subpath(1, view.getNameCount() - 1)), glob + " on view of " + string);
+                    assertEquals(expected, ((NamePathMatcher) matcher).matchesNames(fs.getPath("/" + string)), glob + " on names of /" + string);
+                    assertEquals(expected, ((NamePathMatcher) matcher).matchesNames(fs.getPath("x/../" + string)), glob + " on names of x/../" + string);
+                }
+            }
+        }
+
+        assertThrows(PatternSyntaxException.class, () -> fs.getPathMatcher("glob:{a,{b}}"));
+        assertThrows(PatternSyntaxException.class, () -> fs.getPathMatcher("glob:{a"));
+        assertThrows(PatternSyntaxException.class, () -> fs.getPathMatcher("glob:[a"));
+        assertThrows(PatternSyntaxException.class, () -> fs.getPathMatcher("glob:[z-a]"));
+        assertThrows(PatternSyntaxException.class, () -> fs.getPathMatcher("glob:a\\"));
+    }
+
+    @Test
+    void testPrefixPathMatcher() {
+        FileSystem fs = Path.of(URI.create("empty:/")).getFileSystem();
+        PrefixPathMatcher metaInf = PrefixPathMatcher.including("META-INF");
+        PrefixPathMatcher notVersions = PrefixPathMatcher.excluding("META-INF", "versions");
+
+        assertTrue(metaInf.matches(fs.getPath("META-INF")));
+        assertTrue(metaInf.matches(fs.getPath("META-INF/MANIFEST.MF")));
+        assertTrue(metaInf.matches(fs.getPath("x/META-INF/y").subpath(1, 3)));
+        assertFalse(metaInf.matches(fs.getPath("META-INF-X/a")));
+        assertFalse(metaInf.matches(fs.getPath("META")));
+        assertFalse(metaInf.matches(fs.getPath("")));
+        // Absolute paths never start with the prefix, unless only the names are matched
+        assertFalse(metaInf.matches(fs.getPath("/META-INF/a")));
+        assertTrue(metaInf.matchesNames(fs.getPath("/META-INF/a")));
+        assertTrue(metaInf.matchesNames(fs.getPath("a/../META-INF/./b")));
+        assertFalse(metaInf.matchesNames(fs.getPath("META-INF/../a")));
+
+        assertTrue(notVersions.matches(fs.getPath("META-INF/MANIFEST.MF")));
+        assertTrue(notVersions.matches(fs.getPath("META-INF")));
+        assertTrue(notVersions.matches(fs.getPath("/META-INF/versions/9")));
+        assertFalse(notVersions.matches(fs.getPath("META-INF/versions")));
+        assertFalse(notVersions.matches(fs.getPath("META-INF/versions/9/a.class")));
+        assertFalse(notVersions.matchesNames(fs.getPath("/META-INF/versions/9")));
+
+        // Paths of other file systems are compared by name
+        assertTrue(metaInf.matches(Path.of("META-INF", "a")));
+        assertFalse(notVersions.matches(Path.of("META-INF", "versions", "9")));
+    }
+
     private static void runPathTests(FileSystem fs) {
         var relUp = fs.getPath("..");
         var rel0 = fs.getPath("");
@@ -186,6 +305,13 @@ public class PathTests {
         assertEquals(abs13, abs12up3.normalize());
         assertEquals(abs1, absUpUp1.normalize());
         assertEquals(abs123, absUpUp123.normalize());
+        // Names that cancel out completely leave the empty path or the root
+        assertEquals(rel0, fs.getPath("one/..").normalize());
+        assertEquals(rel0, fs.getPath(".").normalize());
+        assertEquals(rel0, fs.getPath("one/two/../..").normalize());
+        assertEquals("", fs.getPath("one/..").normalize().toString());
+        assertEquals(abs0, fs.getPath("/one/..").normalize());
+        assertEquals(abs0, fs.getPath("/one/../..").normalize());
 
         // resolve
         assertEquals(abs32, rel0.resolve(abs32));
@@ -215,6 +341,15 @@ public class PathTests {
         assertEquals(fs.getPath("../../one/one"), abs32.relativize(fs.getPath("/one/one")));
         assertEquals(fs.getPath("../../one"), abs123.relativize(fs.getPath("/one/one")));
 
+        // Paths that only go up have no trailing separator, equal paths relativize to the empty path
+        assertEquals(relUp, rel13.relativize(rel1));
+        assertEquals("..", rel13.relativize(rel1).toString());
+        assertEquals("../..", abs123.relativize(abs1).toString());
+        assertEquals(rel0, rel123.relativize(rel123));
+        assertEquals(rel0, abs123.relativize(abs123));
+        assertEquals(rel0, abs0.relativize(abs0));
+        assertEquals(rel123, rel123.relativize(rel123).resolve(rel123));
+
         // getRoot
         assertNull(rel0.getRoot());
         assertNull(rel123.getRoot());
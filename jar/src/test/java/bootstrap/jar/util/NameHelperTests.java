@@ -0,0 +1,131 @@
+package bootstrap.jar.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameHelperTests {
+
+    private static final List<String> NAMES = List.of(
+            "", ".", "..", "a", "A", "a.", ".a", "a..b", "a.b", "a.b.C", "a.b.C$D", "$", "_", "__", "_a", "a._", "a._.b",
+            "1a", "a.1b", "a1.b2", "a-b", "a b", "a/b", "package-info", "a.package-info", "a.b.package-info",
+            "package-info.a", "a.package-info.B", "package-infox", "a.package-inf", "package-info.class",
+            "int", "ints", "a.int", "a.int.b", "a.integer", "a.intb", "interface", "a.b.true", "a.b.trueish", "null.a",
+            "classy.Class", "a.class", "goto", "strictfp.a", "synchronized1", "enum", "record", "var", "yield",
+            "𝐀", "a𝐀b", "a.𝐀", "𝐀.a", "😀", "a😀",
+            "\uD800", "a\uD800", "\uDC00a", "a.\uD800.b", "é", "a.é.ß", "٠", "a٠"
+    );
+
+    @Test
+    void testNamesMatchPreviousImplementation() {
+        List<String> names = new ArrayList<>(NAMES);
+        // Random combinations of the fragments that the checks treat specially.
+        String[] fragments = { "a", "B", "_", "$", "1", ".", "-", "/", "int", "class", "true", "package-info", "𝐀", "😀", "\uD800", "é", " " };
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int count = random.nextInt(7);
+            for (int j = 0; j < count; j++) sb.append(fragments[random.nextInt(fragments.length)]);
+            names.add(sb.toString());
+        }
+
+        for (String name : names) {
+            assertEquals(previousValidJavaIdentifier(name), NameHelper.validJavaIdentifier(name), "validJavaIdentifier(" + name + ")");
+            assertEquals(previousValidTypeName(name), NameHelper.validTypeName(name), "validTypeName(" + name + ")");
+            assertEquals(previousValidTypeName(name) && name.indexOf('.') >= 0, NameHelper.validQualifiedClassName(name), "validQualifiedClassName(" + name + ")");
+            assertEquals(previousValidLoadableClassName(name), NameHelper.validLoadableClassName(name), "validLoadableClassName(" + name + ")");
+        }
+        assertFalse(NameHelper.validJavaIdentifier(null));
+        assertFalse(NameHelper.validTypeName(null));
+        assertFalse(NameHelper.validQualifiedClassName(null));
+        assertFalse(NameHelper.validLoadableClassName(null));
+    }
+
+    @Test
+    void testClassNames() {
+        assertTrue(NameHelper.validLoadableClassName("package-info"));
+        assertTrue(NameHelper.validLoadableClassName("a.b.package-info"));
+        assertFalse(NameHelper.validLoadableClassName("a.package-info.B"));
+        assertFalse(NameHelper.validLoadableClassName("a.package-infox"));
+        assertFalse(NameHelper.validLoadableClassName("package-info.class"));
+        assertFalse(NameHelper.validTypeName("a.b.package-info"));
+
+        // Reserved words are only rejected as a whole segment
+        assertFalse(NameHelper.validTypeName("a.int.b"));
+        assertFalse(NameHelper.validTypeName("a.interface"));
+        assertFalse(NameHelper.validTypeName("_"));
+        assertTrue(NameHelper.validTypeName("a.integer.b"));
+        assertTrue(NameHelper.validTypeName("a.intb"));
+        assertTrue(NameHelper.validTypeName("classy.Class"));
+
+        // Supplementary characters are checked as code points, lone surrogates are invalid
+        assertTrue(NameHelper.validTypeName("a.𝐀"));
+        assertTrue(NameHelper.validLoadableClassName("𝐀.a𝐀b"));
+        assertFalse(NameHelper.validTypeName("a😀"));
+        assertFalse(NameHelper.validTypeName("a\uD800"));
+        assertFalse(NameHelper.validTypeName("\uDC00a"));
+
+        assertFalse(NameHelper.validTypeName("a..b"));
+        assertFalse(NameHelper.validTypeName("a."));
+        assertFalse(NameHelper.validTypeName(".a"));
+        assertFalse(NameHelper.validLoadableClassName("a."));
+    }
+
+    @Test
+    void testNormalizeResourceName() {
+        String[] names = {
+                "", "/", "//", "///", "a", "/a", "a/", "/a/", "//a//", "a/b", "a//b", "a///b", "/a//b/", "//a/b//c//",
+                "a/b/c.class", "/META-INF/MANIFEST.MF", "META-INF//services/", " / ", "a/./b", "a/../b"
+        };
+        for (String name : names) {
+            assertEquals(previousNormalizeResourceName(name), NameHelper.normalizeResourceName(name), "normalizeResourceName(" + name + ")");
+        }
+        assertEquals("a/b", NameHelper.normalizeResourceName("//a//b//"));
+        assertEquals("", NameHelper.normalizeResourceName("/"));
+        // Dot names are not resolved
+        assertEquals("a/./b", NameHelper.normalizeResourceName("/a/./b"));
+
+        // Names that are already normal are returned as they are
+        String normal = "a/b/c.class";
+        assertSame(normal, NameHelper.normalizeResourceName(normal));
+    }
+
+    // The implementations before the single pass checks, that the current ones must agree with.
+
+    private static final Set<String> RESERVED_IDENT = Set.of(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+            "default", "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "goto", "if",
+            "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "package", "private",
+            "protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+            "throw", "throws", "transient", "try", "void", "volatile", "while", "true", "false", "null", "_"
+    );
+
+    private static boolean previousValidJavaIdentifier(String ident) {
+        if (ident.isEmpty() || RESERVED_IDENT.contains(ident)) return false;
+        if (!Character.isJavaIdentifierStart(Character.codePointAt(ident, 0))) return false;
+        return ident.codePoints().skip(1).allMatch(Character::isJavaIdentifierPart);
+    }
+
+    private static boolean previousValidTypeName(String name) {
+        if (name.isEmpty()) return false;
+        return Arrays.stream(name.split("\\.", -1)).allMatch(NameHelperTests::previousValidJavaIdentifier);
+    }
+
+    private static boolean previousValidLoadableClassName(String name) {
+        if (name.isEmpty()) return false;
+        int idx = name.lastIndexOf('.');
+        String packageName = idx < 0 ? null : name.substring(0, idx);
+        String simpleName = idx < 0 ? name : name.substring(idx + 1);
+        return (packageName == null || previousValidTypeName(packageName)) && (previousValidJavaIdentifier(simpleName) || "package-info".equals(simpleName));
+    }
+
+    private static String previousNormalizeResourceName(String name) {
+        return name.replaceAll("(^/+)|(/+$)|(/(?=/+))", "");
+    }
+}
@@ -0,0 +1,67 @@
+package bootstrap.testing;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes small archives and directories for tests.
+ */
+public class TestArchives {
+
+    /**
+     * Creates an ordered map of entry names and contents from alternating names and contents.
+     */
+    public static Map<String, String> entries(String... namesAndContents) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndContents.length; i += 2) entries.put(namesAndContents[i], namesAndContents[i + 1]);
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Writes the entries to an archive in their iteration order.
+     */
+    public static Path write(Path archive, Map<String, String> entries) throws IOException {
+        try (OutputStream out = Files.newOutputStream(archive); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return archive;
+    }
+
+    /**
+     * Writes an archive with empty entries of the given names.
+     */
+    public static Path write(Path archive, List<String> names) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (String name : names) entries.put(name, "");
+        return write(archive, entries);
+    }
+
+    /**
+     * Writes the entries as files below the given directory.
+     */
+    public static Path extract(Path dir, Map<String, String> entries) throws IOException {
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            Path file = dir.resolve(entry.getKey());
+            if (entry.getKey().endsWith("/")) {
+                Files.createDirectories(file);
+            } else {
+                Files.createDirectories(file.getParent());
+                Files.writeString(file, entry.getValue());
+            }
+        }
+        return dir;
+    }
+}
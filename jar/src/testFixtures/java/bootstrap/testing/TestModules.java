@@ -0,0 +1,44 @@
+package bootstrap.testing;
+
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReader;
+import java.lang.module.ModuleReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Creates modules for resolution tests, that only consist of their descriptors.
+ */
+public class TestModules {
+
+    /**
+     * Creates a finder for modules with the given descriptors. The modules have no contents and can't be opened.
+     */
+    public static ModuleFinder finder(ModuleDescriptor... descriptors) {
+        Map<String, ModuleReference> references = new HashMap<>();
+        for (ModuleDescriptor descriptor : descriptors) {
+            references.put(descriptor.name(), new ModuleReference(descriptor, null) {
+
+                @Override
+                public ModuleReader open() {
+                    throw new UnsupportedOperationException();
+                }
+            });
+        }
+        return new ModuleFinder() {
+
+            @Override
+            public Optional<ModuleReference> find(String name) {
+                return Optional.ofNullable(references.get(name));
+            }
+
+            @Override
+            public Set<ModuleReference> findAll() {
+                return Set.copyOf(references.values());
+            }
+        };
+    }
+}
@@ -1,13 +1,16 @@
 package bootstrap.launcher;
 
+import bootstrap.jar.util.Parallel;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.lang.module.FindException;
 import java.lang.module.ModuleDescriptor;
 import java.lang.module.ModuleFinder;
 import java.lang.module.ModuleReference;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
 
 @NotNullByDefault
 public class LatestVersionModuleFinder implements ModuleFinder {
@@ -24,44 +27,80 @@ public class LatestVersionModuleFinder implements ModuleFinder {
 
     private final Object lock;
     private final List<ModuleFinder> finders;
-    private final Map<String, Optional<ModuleReference>> modules;
-    private @Nullable Set<ModuleReference> allModules;
+    private final ConcurrentMap<String, Optional<Selected>> modules;
+    private volatile @Nullable Set<ModuleReference> allModules;
 
     public LatestVersionModuleFinder(List<ModuleFinder> finders) {
         this.lock = new Object();
         this.finders = List.copyOf(finders);
-        this.modules = new HashMap<>();
+        this.modules = new ConcurrentHashMap<>();
         this.allModules = null;
     }
 
     @Override
     public Optional<ModuleReference> find(String name) {
-        synchronized (this.lock) {
-            if (this.modules.containsKey(name)) {
-                return this.modules.get(name);
-            }
-            List<ModuleReference> refs = new ArrayList<>();
-            for (ModuleFinder finder : this.finders) {
-                finder.find(name).ifPresent(refs::add);
-            }
-            Optional<ModuleReference> latest = refs.stream().max(BY_VERSION);
-            this.modules.put(name, latest);
-            return latest;
+        Optional<Selected> cached = this.modules.get(name);
+        if (cached != null) return cached.map(Selected::reference);
+        List<Selected> refs = new ArrayList<>();
+        for (int i = 0; i < this.finders.size(); i++) {
+            int finder = i;
+            this.finders.get(i).find(name).ifPresent(ref -> refs.add(new Selected(ref, finder)));
         }
+        // If another thread was faster, use its result, so every caller sees the same reference.
+        Optional<Selected> latest = latest(refs);
+        Optional<Selected> existing = this.modules.putIfAbsent(name, latest);
+        return (existing != null ? existing : latest).map(Selected::reference);
     }
 
     @Override
     public Set<ModuleReference> findAll() {
+        Set<ModuleReference> allModules = this.allModules;
+        if (allModules != null) return allModules;
         synchronized (this.lock) {
             if (this.allModules != null) return this.allModules;
-            this.allModules = this.finders.stream()
-                    .flatMap(finder -> finder.findAll().stream())
-                    .map(ModuleReference::descriptor)
-                    .map(ModuleDescriptor::name)
-                    .map(this::find)
-                    .flatMap(Optional::stream)
-                    .collect(Collectors.toUnmodifiableSet());
-            return this.allModules;
+            // Query every finder once, in finder order, so the latest version is chosen the same way as in find.
+            Map<String, List<Selected>> refs = new TreeMap<>();
+            List<Set<ModuleReference>> found = this.findAllParallel();
+            for (int i = 0; i < found.size(); i++) {
+                for (ModuleReference ref : found.get(i)) {
+                    refs.computeIfAbsent(ref.descriptor().name(), _ -> new ArrayList<>()).add(new Selected(ref, i));
+                }
+            }
+            // Unlike Set.copyOf, this keeps the iteration order the same on every run.
+            Set<ModuleReference> result = new LinkedHashSet<>();
+            for (Map.Entry<String, List<Selected>> entry : refs.entrySet()) {
+                Optional<Selected> latest = latest(entry.getValue());
+                Optional<Selected> existing = this.modules.putIfAbsent(entry.getKey(), latest);
+                (existing != null ? existing : latest).ifPresent(selected -> result.add(selected.reference()));
+            }
+            allModules = Collections.unmodifiableSet(result);
+            this.allModules = allModules;
+            return allModules;
         }
     }
+
+    /**
+     * Gets the index of the finder that provided a module reference, if it was selected by this finder.
+     */
+    public OptionalInt finderIndex(ModuleReference reference) {
+        Optional<Selected> selected = this.modules.get(reference.descriptor().name());
+        if (selected == null || selected.isEmpty() || selected.get().reference() != reference) return OptionalInt.empty();
+        return OptionalInt.of(selected.get().finder());
+    }
+
+    private List<Set<ModuleReference>> findAllParallel() {
+        try {
+            // Finders may block on I/O, so every finder gets its own thread.
+            return Parallel.map(this.finders, this.finders.size(), ModuleFinder::findAll);
+        } catch (IOException e) {
+            throw new FindException(e);
+        }
+    }
+
+    // Stream.max keeps the first of equal elements, so earlier finders win on equal versions.
+    private static Optional<Selected> latest(List<Selected> refs) {
+        return refs.stream().max(Comparator.comparing(Selected::reference, BY_VERSION));
+    }
+
+    private record Selected(ModuleReference reference, int finder) {}
 }
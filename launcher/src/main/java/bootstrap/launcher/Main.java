@@ -4,15 +4,22 @@ import bootstrap.api.LauncherConstants;
 import bootstrap.api.ModuleSystem;
 import bootstrap.jar.classloading.ClassTransformer;
 import bootstrap.jar.classloading.ModuleLoaderPool;
+import bootstrap.jar.classloading.ServiceIndex;
 import bootstrap.jar.reflect.JavaBaseAccess;
+import bootstrap.jar.util.Parallel;
 import bootstrap.launcher.url.BootstrapStreamHandlerFactory;
 import bootstrap.spi.BootPlugin;
 import bootstrap.spi.Entrypoint;
+import bootstrap.spi.ProtocolProvider;
 import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.lang.module.Configuration;
 import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.*;
 
 @NotNullByDefault
@@ -36,37 +43,60 @@ public class Main {
 
         JavaBaseAccess.get(); // verify that we can access the trusted lookup
 
-        BootstrapStreamHandlerFactory streamHandlerFactory = new BootstrapStreamHandlerFactory(bootLayer);
+        ServiceIndex bootServices = ServiceIndex.of(bootLayer);
+        BootstrapStreamHandlerFactory streamHandlerFactory = new BootstrapStreamHandlerFactory(bootLayer, bootServices);
         URL.setURLStreamHandlerFactory(streamHandlerFactory);
 
-        List<BootPlugin> plugins = ServiceLoader.load(bootLayer, BootPlugin.class).stream().map(ServiceLoader.Provider::get).toList();
+        List<BootPlugin> plugins = bootServices.load(BootPlugin.class);
 
-        Set<String> rootModules = new HashSet<>();
+        // Keep the resolution order stable between runs, so classes are loaded in the same order as during an AOT training run.
+        Set<String> rootModules = new TreeSet<>();
         List<ModuleFinder> moduleFinders = new ArrayList<>();
-        for (BootPlugin plugin : plugins) {
-            String pluginName = plugin.name();
-            try {
-                plugin.initialize(bootLayer);
-                rootModules.addAll(plugin.rootModules());
-                moduleFinders.add(plugin.findModules());
-            } catch (Exception e) {
-                throw new Error("Error loading boot plugin " + pluginName, e);
-            }
+        Map<String, ModuleFinder> moduleOrigins = new LinkedHashMap<>();
+        Set<String> boundServices = new HashSet<>(Set.of(Entrypoint.class.getName(), ProtocolProvider.class.getName()));
+        boolean parallelBoot = Boolean.parseBoolean(System.getProperty(LauncherConstants.PROP_PARALLEL_BOOT, "false"));
+        for (PluginSetup setup : parallelBoot ? setupPluginsParallel(plugins, bootLayer) : setupPlugins(plugins, bootLayer)) {
+            rootModules.addAll(setup.rootModules());
+            moduleOrigins.put(ResolutionLock.origin(moduleFinders.size(), setup.name()), setup.finder());
+            moduleFinders.add(setup.finder());
+            boundServices.addAll(setup.boundServices());
+        }
+
+        String lockfileProp = System.getProperty(LauncherConstants.PROP_LOCKFILE);
+        @Nullable Path lockfile = lockfileProp == null || lockfileProp.isEmpty() ? null : Path.of(lockfileProp);
+        ServiceBinding serviceBinding = ServiceBinding.of(System.getProperty(LauncherConstants.PROP_SERVICE_BINDING)).with(boundServices);
+        @Nullable ResolutionLock lock = lockfile == null ? null : ResolutionLock.read(lockfile);
+        @Nullable ModuleFinder lockedModuleFinder = lock == null ? null : lock.finder(moduleOrigins, rootModules, serviceBinding);
+        Configuration bootstrapConfiguration;
+        @Nullable LatestVersionModuleFinder bootstrapModuleFinder = null;
+        if (lockedModuleFinder != null) {
+            // The locked modules already include all modules bound through services by the same policy.
+            Set<String> lockedModules = new TreeSet<>();
+            for (ModuleReference ref : lockedModuleFinder.findAll()) lockedModules.add(ref.descriptor().name());
+            bootstrapConfiguration = bootLayer.configuration().resolve(lockedModuleFinder, ModuleFinder.of(), lockedModules);
+        } else {
+            bootstrapModuleFinder = new LatestVersionModuleFinder(moduleFinders);
+            bootstrapConfiguration = serviceBinding.resolve(bootLayer.configuration(), bootstrapModuleFinder, rootModules);
         }
-        ModuleFinder bootstrapModuleFinder = new LatestVersionModuleFinder(moduleFinders);
-        Configuration bootstrapConfiguration = bootLayer.configuration().resolveAndBind(bootstrapModuleFinder, ModuleFinder.of(), rootModules);
         if (bootstrapConfiguration.modules().isEmpty()) {
             throw new Error("The computed bootstrap layer is empty.");
         }
 
         ModuleLoaderPool.Controller bootstrapController = ModuleLoaderPool.defineWithOneLoader("bootstrap", bootstrapConfiguration, List.of(bootLayer), ClassTransformer.noop());
+        if (lockfile != null && bootstrapModuleFinder != null) {
+            try {
+                ResolutionLock.write(lockfile, bootstrapConfiguration, bootstrapModuleFinder, List.copyOf(moduleOrigins.keySet()), serviceBinding);
+            } catch (IOException e) {
+                System.err.println("Failed to write resolution lockfile " + lockfile + ": " + e.getMessage());
+            }
+        }
         ModuleSystem system = new ModuleSystemImpl(bootLayer, bootstrapController.layerController());
 
         // We only define a single loader, it can be retrieved by any module on the bootstrap layer.
         ClassLoader contextLoader = bootstrapController.pool().apply(bootstrapConfiguration.modules().iterator().next().name());
 
         Map<String, Entrypoint> entrypointMap = new HashMap<>();
-        for (Entrypoint entrypoint : ServiceLoader.load(bootstrapController.layer(), Entrypoint.class).stream().map(ServiceLoader.Provider::get).toList()) {
+        for (Entrypoint entrypoint : bootstrapController.services().load(Entrypoint.class)) {
             String name = entrypoint.name();
             if (entrypointMap.containsKey(name)) {
                 throw new Error("Multiple entrypoints named " + name + ": " + entrypointMap.get(name).getClass().getName() + " and " + entrypoint.getClass().getName());
@@ -88,13 +118,52 @@ public class Main {
             throw new Error("Multiple entrypoints found in bootstrap layer. Specify " + LauncherConstants.PROP_ENTRYPOINT + " to select an entrypoint. Detected entrypoints: " + String.join(", ", entrypointMap.keySet().stream().sorted().toList()));
         }
 
-        streamHandlerFactory.loadProtocolProviders(bootstrapController.layer());
+        streamHandlerFactory.loadProtocolProviders(bootstrapController.services());
         for (BootPlugin plugin : plugins) plugin.consumeLayer(bootstrapController.layer());
 
         Thread.currentThread().setContextClassLoader(contextLoader);
         entrypointToLaunch.main(system, args);
     }
 
+    private static List<PluginSetup> setupPlugins(List<BootPlugin> plugins, ModuleLayer bootLayer) {
+        List<PluginSetup> setups = new ArrayList<>(plugins.size());
+        for (BootPlugin plugin : plugins) {
+            String pluginName = plugin.name();
+            try {
+                setups.add(PluginSetup.of(pluginName, plugin, bootLayer));
+            } catch (Exception e) {
+                throw new Error("Error loading boot plugin " + pluginName, e);
+            }
+        }
+        return setups;
+    }
+
+    // Plugins are set up concurrently, but their results are merged in plugin order. If multiple plugins fail, the
+    // error of the first one is reported, just like when the plugins are set up one by one.
+    private static List<PluginSetup> setupPluginsParallel(List<BootPlugin> plugins, ModuleLayer bootLayer) {
+        if (plugins.size() <= 1) return setupPlugins(plugins, bootLayer);
+        try {
+            return Parallel.map(plugins, plugins.size(), plugin -> {
+                String pluginName = plugin.name();
+                try {
+                    return PluginSetup.of(pluginName, plugin, bootLayer);
+                } catch (Exception e) {
+                    throw new Error("Error loading boot plugin " + pluginName, e);
+                }
+            });
+        } catch (IOException e) {
+            throw new Error("Interrupted while loading boot plugins", e);
+        }
+    }
+
+    private record PluginSetup(String name, Set<String> rootModules, ModuleFinder finder, Set<String> boundServices) {
+
+        private static PluginSetup of(String name, BootPlugin plugin, ModuleLayer bootLayer) throws Exception {
+            plugin.initialize(bootLayer);
+            return new PluginSetup(name, plugin.rootModules(), plugin.findModules(), plugin.boundServices());
+        }
+    }
+
     private static ModuleLayer findBootLayer() {
         ModuleLayer bootLayer = ModuleLayer.boot();
         if (System.getProperties().get(ClassLoader.getSystemClassLoader()) instanceof ModuleLayer layer) {
@@ -0,0 +1,177 @@
+package bootstrap.launcher;
+
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.module.Configuration;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.lang.module.ResolvedModule;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A resolution lockfile records the modules of the bootstrap configuration together with their version, the boot
+ * plugin they were found by and a fingerprint of their module descriptor. As long as every locked module is still
+ * found by the same boot plugin with the same fingerprint, the bootstrap configuration is resolved from the locked
+ * modules, without asking the boot plugins for all their modules and without choosing between versions again.
+ * <p>
+ * The lockfile pins the selection of modules. Modules that are added to a boot plugin later are not considered until
+ * the lockfile is invalidated, either by deleting it or by a change to one of the locked modules.
+ */
+@NotNullByDefault
+public class ResolutionLock {
+
+    private static final String HEADER = "# bootstrap resolution lock v1";
+    private static final String BINDING_PREFIX = "# binding: ";
+
+    private final String binding;
+    private final List<LockedModule> modules;
+
+    private ResolutionLock(String binding, List<LockedModule> modules) {
+        this.binding = binding;
+        this.modules = modules;
+    }
+
+    /**
+     * Gets the origin key of the module finder of a boot plugin. Multiple boot plugins may have the same name, so the
+     * key also holds the index of the plugin.
+     */
+    public static String origin(int pluginIndex, String pluginName) {
+        return pluginIndex + ":" + pluginName;
+    }
+
+    /**
+     * Reads a lockfile. Returns {@code null} if there is no lockfile or it can't be read.
+     */
+    public static @Nullable ResolutionLock read(Path path) {
+        if (!Files.isRegularFile(path)) return null;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) return null;
+            String bindingLine = reader.readLine();
+            if (bindingLine == null || !bindingLine.startsWith(BINDING_PREFIX)) return null;
+            List<LockedModule> modules = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] parts = line.split("\t", -1);
+                if (parts.length != 4) return null;
+                modules.add(new LockedModule(parts[0], parts[1], parts[2], parts[3]));
+            }
+            return modules.isEmpty() ? null : new ResolutionLock(bindingLine.substring(BINDING_PREFIX.length()), List.copyOf(modules));
+        } catch (IOException | RuntimeException e) {
+            // An unreadable lockfile is ignored, the configuration is resolved from the boot plugins instead.
+            return null;
+        }
+    }
+
+    /**
+     * Gets a module finder for the locked modules. Returns {@code null} if the lock does not match the modules
+     * provided by the boot plugins, does not contain all root modules or was written with another service binding
+     * policy.
+     *
+     * @param finders The module finders of the boot plugins by {@link #origin(int, String) origin}.
+     */
+    public @Nullable ModuleFinder finder(Map<String, ModuleFinder> finders, Set<String> rootModules, ServiceBinding binding) {
+        if (!this.binding.equals(binding.toString())) return null;
+        Map<String, ModuleReference> references = new LinkedHashMap<>();
+        for (LockedModule module : this.modules) {
+            ModuleFinder finder = finders.get(module.origin());
+            if (finder == null) return null;
+            ModuleReference reference = finder.find(module.name()).orElse(null);
+            if (reference == null) return null;
+            ModuleDescriptor descriptor = reference.descriptor();
+            if (!module.version().equals(descriptor.rawVersion().orElse("")) || !module.fingerprint().equals(fingerprint(descriptor))) return null;
+            references.put(module.name(), reference);
+        }
+        if (!references.keySet().containsAll(rootModules)) return null;
+        return new LockedModuleFinder(Collections.unmodifiableMap(references));
+    }
+
+    /**
+     * Writes the modules of a configuration to a lockfile.
+     *
+     * @param finder  The module finder the configuration was resolved with. It knows the boot plugin each module was
+     *                selected from.
+     * @param origins The {@link #origin(int, String) origins} of the boot plugins, in the order of the finders of
+     *                {@code finder}.
+     */
+    public static void write(Path path, Configuration configuration, LatestVersionModuleFinder finder, List<String> origins, ServiceBinding binding) throws IOException {
+        List<ResolvedModule> resolved = configuration.modules().stream().sorted(Comparator.comparing(ResolvedModule::name)).toList();
+        StringBuilder sb = new StringBuilder(HEADER).append('\n');
+        sb.append(BINDING_PREFIX).append(binding).append('\n');
+        for (ResolvedModule module : resolved) {
+            ModuleReference reference = module.reference();
+            OptionalInt index = finder.finderIndex(reference);
+            @Nullable String origin = index.isPresent() ? origins.get(index.getAsInt()) : null;
+            if (origin == null || origin.indexOf('\t') >= 0 || origin.indexOf('\n') >= 0) {
+                throw new IOException("Can't lock module " + module.name() + ": No boot plugin provides it.");
+            }
+            ModuleDescriptor descriptor = reference.descriptor();
+            sb.append(module.name()).append('\t')
+                    .append(descriptor.rawVersion().orElse("")).append('\t')
+                    .append(origin).append('\t')
+                    .append(fingerprint(descriptor)).append('\n');
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "lock", ".tmp");
+        try {
+            Files.writeString(temp, sb, StandardCharsets.UTF_8);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // The resolution only depends on the module descriptors, so they are what needs to match. Descriptors of automatic
+    // modules are inferred from the jar contents, so they change with the packages and services of the jar.
+    private static String fingerprint(ModuleDescriptor descriptor) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(descriptor.name()).append('\n');
+        sb.append(descriptor.rawVersion().orElse("")).append('\n');
+        sb.append(sorted(descriptor.modifiers().stream())).append('\n');
+        sb.append(descriptor.mainClass().orElse("")).append('\n');
+        sb.append(sorted(descriptor.requires().stream().map(req -> sorted(req.modifiers().stream()) + " " + req.name() + "@" + req.rawCompiledVersion().orElse("")))).append('\n');
+        sb.append(sorted(descriptor.exports().stream().map(exp -> sorted(exp.modifiers().stream()) + " " + exp.source() + " " + sorted(exp.targets().stream())))).append('\n');
+        sb.append(sorted(descriptor.opens().stream().map(open -> sorted(open.modifiers().stream()) + " " + open.source() + " " + sorted(open.targets().stream())))).append('\n');
+        sb.append(sorted(descriptor.uses().stream())).append('\n');
+        sb.append(sorted(descriptor.provides().stream().map(prov -> prov.service() + " " + prov.providers()))).append('\n');
+        sb.append(sorted(descriptor.packages().stream())).append('\n');
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String sorted(Stream<?> stream) {
+        return stream.map(Object::toString).sorted().collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private record LockedModule(String name, String version, String origin, String fingerprint) {}
+
+    @NotNullByDefault
+    private record LockedModuleFinder(Map<String, ModuleReference> references) implements ModuleFinder {
+
+        @Override
+        public Optional<ModuleReference> find(String name) {
+            return Optional.ofNullable(this.references.get(name));
+        }
+
+        @Override
+        public Set<ModuleReference> findAll() {
+            return new LinkedHashSet<>(this.references.values());
+        }
+    }
+}
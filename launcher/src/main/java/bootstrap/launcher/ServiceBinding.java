@@ -0,0 +1,110 @@
+package bootstrap.launcher;
+
+import bootstrap.api.LauncherConstants;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.module.Configuration;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.lang.module.ResolvedModule;
+import java.util.*;
+
+/**
+ * The service binding policy for the bootstrap configuration, as set through
+ * {@link LauncherConstants#PROP_SERVICE_BINDING}. Unless all services are bound, service providers are only added to
+ * the configuration for the listed services, which are used by a module in the configuration or one of its parents.
+ */
+@NotNullByDefault
+public class ServiceBinding {
+
+    public static final String ALL = "all";
+    public static final String NONE = "none";
+
+    // null if all services are bound.
+    private final @Nullable SortedSet<String> services;
+
+    private ServiceBinding(@Nullable SortedSet<String> services) {
+        this.services = services;
+    }
+
+    /**
+     * Parses the value of {@link LauncherConstants#PROP_SERVICE_BINDING}. Defaults to binding all services.
+     */
+    public static ServiceBinding of(@Nullable String value) {
+        if (value == null || value.isBlank() || value.strip().equals(ALL)) return new ServiceBinding(null);
+        SortedSet<String> services = new TreeSet<>();
+        if (!value.strip().equals(NONE)) {
+            for (String service : value.split(",")) {
+                if (!service.isBlank()) services.add(service.strip());
+            }
+        }
+        return new ServiceBinding(services);
+    }
+
+    /**
+     * Returns a policy that additionally binds the provided services. Has no effect if all services are bound.
+     */
+    public ServiceBinding with(Set<String> services) {
+        if (this.services == null || this.services.containsAll(services)) return this;
+        SortedSet<String> newServices = new TreeSet<>(this.services);
+        newServices.addAll(services);
+        return new ServiceBinding(newServices);
+    }
+
+    public Configuration resolve(Configuration parent, ModuleFinder finder, Set<String> rootModules) {
+        if (this.services == null) return parent.resolveAndBind(finder, ModuleFinder.of(), rootModules);
+        Set<String> roots = new TreeSet<>(rootModules);
+        Configuration configuration = parent.resolve(finder, ModuleFinder.of(), roots);
+        if (this.services.isEmpty()) return configuration;
+
+        // Only scan the finder for providers, if a module uses one of the bound services.
+        @Nullable Map<String, List<String>> providers = null;
+        while (true) {
+            Set<String> used = new HashSet<>();
+            collectUses(configuration, used, new HashSet<>());
+            used.retainAll(this.services);
+            if (used.isEmpty()) return configuration;
+            if (providers == null) providers = providers(finder, this.services);
+            boolean changed = false;
+            for (String service : used) {
+                for (String provider : providers.getOrDefault(service, List.of())) {
+                    if (configuration.findModule(provider).isEmpty() && roots.add(provider)) changed = true;
+                }
+            }
+            if (!changed) return configuration;
+            configuration = parent.resolve(finder, ModuleFinder.of(), roots);
+        }
+    }
+
+    private static void collectUses(Configuration configuration, Set<String> uses, Set<Configuration> visited) {
+        if (!visited.add(configuration)) return;
+        for (ResolvedModule module : configuration.modules()) {
+            uses.addAll(module.reference().descriptor().uses());
+        }
+        for (Configuration parent : configuration.parents()) {
+            collectUses(parent, uses, visited);
+        }
+    }
+
+    private static Map<String, List<String>> providers(ModuleFinder finder, Set<String> services) {
+        Map<String, List<String>> providers = new HashMap<>();
+        for (ModuleReference ref : finder.findAll()) {
+            ModuleDescriptor descriptor = ref.descriptor();
+            for (ModuleDescriptor.Provides provides : descriptor.provides()) {
+                if (services.contains(provides.service())) {
+                    providers.computeIfAbsent(provides.service(), _ -> new ArrayList<>()).add(descriptor.name());
+                }
+            }
+        }
+        return providers;
+    }
+
+    @Override
+    public String toString() {
+        if (this.services == null) return ALL;
+        if (this.services.isEmpty()) return NONE;
+        return String.join(",", this.services);
+    }
+}
@@ -2,8 +2,10 @@ package bootstrap.launcher.plugin;
 
 import bootstrap.api.LauncherConstants;
 import bootstrap.jar.Jar;
+import bootstrap.jar.JarMetadataCache;
 import bootstrap.jar.JarMetadataFilters;
 import bootstrap.jar.JarModuleFinder;
+import bootstrap.jar.util.Parallel;
 import bootstrap.spi.BootPlugin;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
@@ -34,20 +36,29 @@ public class DefaultBootPlugin implements BootPlugin {
 
     @Override
     public void initialize(ModuleLayer bootLayer) throws IOException {
-        if (Boolean.parseBoolean(System.getProperty(LauncherConstants.PROP_DEFAULT_BOOT, "true"))) {
+        if (Boolean.parseBoolean(System.getProperty(LauncherConstants.PROP_DEFAULT_BOOT, "true")) && ImageBootPlugin.findImage() == null) {
             List<String> cp = List.of(Objects.requireNonNullElse(System.getProperty(LauncherConstants.PROP_CLASSPATH), "").split(Pattern.quote(File.pathSeparator), -1));
-            List<Jar> jars = new ArrayList<>(cp.size());
+            String cacheDir = System.getProperty(LauncherConstants.PROP_JAR_CACHE);
+            JarMetadataCache cache = cacheDir == null || cacheDir.isEmpty() ? null : JarMetadataCache.directory(Path.of(cacheDir));
+            List<Path> paths = new ArrayList<>(cp.size());
             for (String cpEntry : cp) {
                 if (cpEntry.isEmpty()) continue;
                 Path path = Path.of(cpEntry);
-                if (Files.exists(path)) {
-                    jars.add(Jar.of(JarMetadataFilters.fileInferredModuleName(), path));
-                }
+                if (Files.exists(path)) paths.add(path);
             }
+            List<Jar> jars = openJars(paths, cache);
             this.modulePath = JarModuleFinder.of(jars);
         }
     }
 
+    private static List<Jar> openJars(List<Path> paths, @Nullable JarMetadataCache cache) throws IOException {
+        // Results are in classpath order, so the module finder and the first reported error are the same as when opening the jars one by one.
+        return Parallel.map(paths, path -> cache != null
+                ? Jar.of(cache, JarMetadataFilters.fileInferredModuleName(), path)
+                : Jar.of(JarMetadataFilters.fileInferredModuleName(), path)
+        );
+    }
+
     @Override
     public Set<String> rootModules() {
         if (this.modulePath == null) return Set.of();
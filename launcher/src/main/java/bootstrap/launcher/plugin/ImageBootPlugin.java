@@ -0,0 +1,64 @@
+package bootstrap.launcher.plugin;
+
+import bootstrap.api.LauncherConstants;
+import bootstrap.jar.JarImage;
+import bootstrap.jar.JarModuleFinder;
+import bootstrap.spi.BootPlugin;
+import org.jetbrains.annotations.NotNullByDefault;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the bootstrap modules from the image file set in {@link LauncherConstants#PROP_IMAGE}, instead of opening
+ * every jar on the classpath.
+ */
+@NotNullByDefault
+public class ImageBootPlugin implements BootPlugin {
+
+    private @Nullable JarModuleFinder modulePath;
+
+    @Override
+    public String name() {
+        return "image";
+    }
+
+    /**
+     * Gets the configured image file, if it exists.
+     */
+    static @Nullable Path findImage() {
+        String image = System.getProperty(LauncherConstants.PROP_IMAGE);
+        if (image == null || image.isEmpty()) return null;
+        Path path = Path.of(image);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    @Override
+    public void initialize(ModuleLayer bootLayer) throws IOException {
+        Path image = findImage();
+        if (image != null) {
+            this.modulePath = JarModuleFinder.of(JarImage.open(image));
+        }
+    }
+
+    @Override
+    public Set<String> rootModules() {
+        if (this.modulePath == null) return Set.of();
+        return this.modulePath.findAll().stream()
+                .map(ModuleReference::descriptor)
+                .map(ModuleDescriptor::name)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public ModuleFinder findModules() {
+        return this.modulePath == null ? ModuleFinder.of() : this.modulePath;
+    }
+}
@@ -0,0 +1,39 @@
+package bootstrap.launcher.tool;
+
+import bootstrap.jar.JarImage;
+import bootstrap.jar.JarMetadataFilters;
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Writes a bootstrap image for a classpath. Needs to run on the same Java version as the application, as the image
+ * is only valid for that version.
+ * <p>
+ * Usage: {@code ImageTool <image file> <classpath>}, where the classpath follows the syntax of the
+ * {@code bootstrap.classpath} property.
+ */
+@NotNullByDefault
+public class ImageTool {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ImageTool <image file> <classpath>");
+            System.exit(1);
+        }
+        List<Path> paths = new ArrayList<>();
+        for (String entry : args[1].split(Pattern.quote(File.pathSeparator), -1)) {
+            if (entry.isEmpty()) continue;
+            Path path = Path.of(entry);
+            if (Files.exists(path)) paths.add(path);
+        }
+        // Use the same filter as the default boot plugin, so the image holds the same modules as the classpath.
+        JarImage.write(paths, JarMetadataFilters.fileInferredModuleName(), Path.of(args[0]));
+    }
+}
@@ -0,0 +1,64 @@
+package bootstrap.launcher.tool;
+
+import bootstrap.jar.Jar;
+import bootstrap.jar.JarMetadataFilters;
+import bootstrap.jar.JarModuleFinder;
+import bootstrap.jar.classloading.ClassTransformer;
+import bootstrap.jar.classloading.OfflineTransformer;
+import org.jetbrains.annotations.NotNullByDefault;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.module.Configuration;
+import java.lang.module.ModuleFinder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Transforms the classes of a classpath ahead of time with a {@link ClassTransformer}. Every classpath entry is
+ * written to the output directory under its {@link OfflineTransformer#targetFileName(int, Path) target file name},
+ * so the output can replace the classpath in the same order.
+ * <p>
+ * Usage: {@code TransformTool <transformer class> <output directory> <classpath>}, where the classpath follows the
+ * syntax of the {@code bootstrap.classpath} property. The transformer class must be loadable by the system class
+ * loader and needs a public no-arg constructor.
+ */
+@NotNullByDefault
+public class TransformTool {
+
+    public static void main(String[] args) throws ReflectiveOperationException, IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: TransformTool <transformer class> <output directory> <classpath>");
+            System.exit(1);
+        }
+        ClassTransformer transformer = (ClassTransformer) Class.forName(args[0], true, ClassLoader.getSystemClassLoader()).getConstructor().newInstance();
+        Path output = Path.of(args[1]);
+        // Entries that don't exist still count for the target names, so they match the entries of the classpath.
+        Map<Path, String> fileNames = new LinkedHashMap<>();
+        int index = 0;
+        for (String entry : args[2].split(Pattern.quote(File.pathSeparator), -1)) {
+            if (entry.isEmpty()) continue;
+            Path path = Path.of(entry);
+            if (Files.exists(path)) fileNames.put(path, OfflineTransformer.targetFileName(index, path));
+            index += 1;
+        }
+
+        // Open the jars the same way as the default boot plugin, so the modules match those seen at runtime.
+        List<Jar> jars = new ArrayList<>(fileNames.size());
+        Map<String, Path> targets = new HashMap<>();
+        for (Map.Entry<Path, String> entry : fileNames.entrySet()) {
+            Jar jar = Jar.of(JarMetadataFilters.fileInferredModuleName(), entry.getKey());
+            jars.add(jar);
+            targets.put(jar.name(), output.resolve(entry.getValue()));
+        }
+        JarModuleFinder finder = JarModuleFinder.of(jars);
+        Set<String> rootModules = new TreeSet<>(targets.keySet());
+        ModuleLayer bootLayer = ModuleLayer.boot();
+        Configuration configuration = bootLayer.configuration().resolveAndBind(finder, ModuleFinder.of(), rootModules);
+
+        Files.createDirectories(output);
+        OfflineTransformer.transform(configuration, List.of(bootLayer), transformer, targets::get);
+    }
+}
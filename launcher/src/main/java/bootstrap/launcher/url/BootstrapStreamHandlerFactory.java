@@ -1,6 +1,7 @@
 package bootstrap.launcher.url;
 
 import bootstrap.api.LauncherConstants;
+import bootstrap.jar.classloading.ServiceIndex;
 import bootstrap.spi.ProtocolProvider;
 import org.jetbrains.annotations.NotNullByDefault;
 import org.jetbrains.annotations.Nullable;
@@ -17,31 +18,29 @@ import java.util.stream.Collectors;
 public class BootstrapStreamHandlerFactory implements URLStreamHandlerFactory {
 
     private static final Set<String> PLATFORM_PROTOCOLS = Set.of("file", "jar", "jrt");
-    private static final Set<String> BOOTSTRAP_PROTOCOLS = Set.of("empty", "union", "layered", "classtransformer");
+    private static final Set<String> BOOTSTRAP_PROTOCOLS = Set.of("empty", "union", "layered", "image", "classtransformer");
 
     private final Object lock;
 
     private final List<URLStreamHandlerFactory> factories;
     private @Nullable Map<String, ProtocolStreamHandler> protocolProviders;
 
-    public BootstrapStreamHandlerFactory(ModuleLayer bootLayer) {
+    public BootstrapStreamHandlerFactory(ModuleLayer bootLayer, ServiceIndex bootServices) {
         this.lock = new Object();
 
         Module bootstrapJar = bootLayer.findModule(LauncherConstants.MODULE_JAR).orElseThrow(() -> new RuntimeException("Module not found on the boot module path: " + LauncherConstants.MODULE_JAR));
 
-        this.factories = ServiceLoader.load(bootLayer, URLStreamHandlerProvider.class).stream()
+        this.factories = bootServices.providers(URLStreamHandlerProvider.class).stream()
                 .filter(provider -> provider.type().getModule() == bootstrapJar)
                 .<URLStreamHandlerFactory>map(ServiceLoader.Provider::get)
                 .toList();
         this.protocolProviders = null;
     }
 
-    public void loadProtocolProviders(ModuleLayer bootstrapLayer) {
+    public void loadProtocolProviders(ServiceIndex bootstrapServices) {
         synchronized (this.lock) {
             if (this.protocolProviders != null) throw new RuntimeException("The bootstrap layer has already been provided.");
-            List<ProtocolProvider> protocolProviderList = ServiceLoader.load(bootstrapLayer, ProtocolProvider.class).stream()
-                .map(ServiceLoader.Provider::get)
-                .toList();
+            List<ProtocolProvider> protocolProviderList = bootstrapServices.load(ProtocolProvider.class);
             Map<String, ProtocolProvider> protocolProviderMap = new HashMap<>();
             for (ProtocolProvider provider : protocolProviderList) {
                 String protocol = provider.protocol();
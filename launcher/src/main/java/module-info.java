@@ -1,4 +1,5 @@
 import bootstrap.launcher.plugin.DefaultBootPlugin;
+import bootstrap.launcher.plugin.ImageBootPlugin;
 import bootstrap.spi.BootPlugin;
 import bootstrap.spi.Entrypoint;
 import bootstrap.spi.ProtocolProvider;
@@ -19,5 +20,5 @@ module bootstrap.launcher {
     uses Entrypoint;
     uses URLStreamHandlerProvider;
 
-    provides BootPlugin with DefaultBootPlugin;
+    provides BootPlugin with DefaultBootPlugin, ImageBootPlugin;
 }
@@ -0,0 +1,77 @@
+package bootstrap.launcher;
+
+import bootstrap.testing.TestModules;
+import org.junit.jupiter.api.Test;
+
+import java.lang.module.Configuration;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ResolvedModule;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServiceBindingTests {
+
+    private static final ModuleFinder FINDER = TestModules.finder(
+            ModuleDescriptor.newModule("test.app").requires("test.api").uses("test.api.Service").build(),
+            ModuleDescriptor.newModule("test.api").exports("test.api").build(),
+            ModuleDescriptor.newModule("test.impl").requires("test.api").uses("test.api.Next").provides("test.api.Service", List.of("test.impl.Impl")).build(),
+            ModuleDescriptor.newModule("test.next").requires("test.api").provides("test.api.Next", List.of("test.next.Next")).build(),
+            ModuleDescriptor.newModule("test.unused").requires("test.api").provides("test.api.Unused", List.of("test.unused.Unused")).build()
+    );
+
+    @Test
+    void testParse() {
+        assertEquals(ServiceBinding.ALL, ServiceBinding.of(null).toString());
+        assertEquals(ServiceBinding.ALL, ServiceBinding.of(" ").toString());
+        assertEquals(ServiceBinding.ALL, ServiceBinding.of(" all ").toString());
+        assertEquals(ServiceBinding.NONE, ServiceBinding.of("none").toString());
+        assertEquals(ServiceBinding.NONE, ServiceBinding.of(",").toString());
+        assertEquals("test.api.Next,test.api.Service", ServiceBinding.of(" test.api.Service , ,test.api.Next").toString());
+
+        ServiceBinding all = ServiceBinding.of(null);
+        assertSame(all, all.with(Set.of("test.api.Service")));
+        ServiceBinding some = ServiceBinding.of("test.api.Service");
+        assertSame(some, some.with(Set.of("test.api.Service")));
+        assertEquals("test.api.Next,test.api.Service", some.with(Set.of("test.api.Next")).toString());
+        assertEquals("test.api.Service", ServiceBinding.of(ServiceBinding.NONE).with(Set.of("test.api.Service")).toString());
+        // Parsing the string form gives the same policy, as it is recorded in resolution locks.
+        assertEquals(some.with(Set.of("test.api.Next")).toString(), ServiceBinding.of(some.with(Set.of("test.api.Next")).toString()).toString());
+    }
+
+    @Test
+    void testResolve() {
+        Configuration parent = ModuleLayer.boot().configuration();
+        Set<String> roots = Set.of("test.app");
+
+        assertEquals(modules(parent.resolveAndBind(FINDER, ModuleFinder.of(), roots)), modules(ServiceBinding.of(ServiceBinding.ALL).resolve(parent, FINDER, roots)));
+        assertEquals(Set.of("test.app", "test.api", "test.impl", "test.next"), modules(ServiceBinding.of(ServiceBinding.ALL).resolve(parent, FINDER, roots)));
+        assertEquals(Set.of("test.app", "test.api"), modules(ServiceBinding.of(ServiceBinding.NONE).resolve(parent, FINDER, roots)));
+        assertEquals(Set.of("test.app", "test.api", "test.impl"), modules(ServiceBinding.of("test.api.Service").resolve(parent, FINDER, roots)));
+        // Services used by bound providers are bound as well.
+        assertEquals(Set.of("test.app", "test.api", "test.impl", "test.next"), modules(ServiceBinding.of("test.api.Service,test.api.Next").resolve(parent, FINDER, roots)));
+        // Services that no module uses don't pull in providers.
+        assertEquals(Set.of("test.app", "test.api"), modules(ServiceBinding.of("test.api.Next,test.api.Unused").resolve(parent, FINDER, roots)));
+    }
+
+    @Test
+    void testParentUses() {
+        Configuration boot = ModuleLayer.boot().configuration();
+        Configuration parent = boot.resolve(TestModules.finder(
+                ModuleDescriptor.newModule("test.app").exports("test.app").uses("test.app.Service").build()
+        ), ModuleFinder.of(), Set.of("test.app"));
+        ModuleFinder finder = TestModules.finder(
+                ModuleDescriptor.newModule("test.impl").requires("test.app").provides("test.app.Service", List.of("test.impl.Impl")).build()
+        );
+
+        assertEquals(Set.of(), modules(ServiceBinding.of(ServiceBinding.NONE).resolve(parent, finder, Set.of())));
+        assertEquals(Set.of("test.impl"), modules(ServiceBinding.of("test.app.Service").resolve(parent, finder, Set.of())));
+    }
+
+    private static Set<String> modules(Configuration configuration) {
+        return configuration.modules().stream().map(ResolvedModule::name).collect(Collectors.toSet());
+    }
+}
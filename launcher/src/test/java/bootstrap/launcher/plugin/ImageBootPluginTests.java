@@ -0,0 +1,73 @@
+package bootstrap.launcher.plugin;
+
+import bootstrap.api.LauncherConstants;
+import bootstrap.jar.JarImage;
+import bootstrap.jar.JarMetadataFilter;
+import bootstrap.jar.classloading.ClassTransformer;
+import bootstrap.jar.classloading.ModuleLoaderPool;
+import bootstrap.testing.TestArchives;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.lang.classfile.ClassFile;
+import java.lang.constant.ClassDesc;
+import java.lang.module.Configuration;
+import java.lang.module.ModuleFinder;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageBootPluginTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testLoadFromImage() throws Exception {
+        Path classes = TestArchives.extract(this.dir.resolve("classes"), TestArchives.entries(
+                "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nAutomatic-Module-Name: test.image\n",
+                "test/image/data.txt", "image data"
+        ));
+        Files.write(classes.resolve("test/image/Hello.class"), ClassFile.of().build(ClassDesc.of("test.image.Hello"), builder -> builder.withFlags(ClassFile.ACC_PUBLIC)));
+        Path image = this.dir.resolve("bootstrap.image");
+        JarImage.write(List.of(classes), JarMetadataFilter.of(), image);
+
+        String previous = System.getProperty(LauncherConstants.PROP_IMAGE);
+        System.setProperty(LauncherConstants.PROP_IMAGE, image.toString());
+        ImageBootPlugin plugin = new ImageBootPlugin();
+        try {
+            plugin.initialize(ModuleLayer.boot());
+        } finally {
+            if (previous == null) {
+                System.clearProperty(LauncherConstants.PROP_IMAGE);
+            } else {
+                System.setProperty(LauncherConstants.PROP_IMAGE, previous);
+            }
+        }
+        assertEquals(Set.of("test.image"), plugin.rootModules());
+
+        Configuration configuration = ModuleLayer.boot().configuration().resolve(plugin.findModules(), ModuleFinder.of(), plugin.rootModules());
+        ModuleLayer layer = ModuleLoaderPool.defineWithOneLoader("image", configuration, List.of(ModuleLayer.boot()), ClassTransformer.noop()).layer();
+        Class<?> hello = layer.findLoader("test.image").loadClass("test.image.Hello");
+        assertEquals("test.image", hello.getModule().getName());
+        // Code sources are the image URLs of the classes, so they must be usable as URLs.
+        URL location = hello.getProtectionDomain().getCodeSource().getLocation();
+        assertEquals("image", location.getProtocol());
+
+        try (InputStream in = hello.getModule().getResourceAsStream("test/image/data.txt")) {
+            assertNotNull(in);
+            assertEquals("image data", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        URL resource = layer.findLoader("test.image").getResource("test/image/data.txt");
+        assertNotNull(resource);
+        try (InputStream in = resource.openStream()) {
+            assertEquals("image data", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
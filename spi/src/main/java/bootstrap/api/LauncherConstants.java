@@ -45,6 +45,41 @@ public class LauncherConstants {
      */
     public static final String PROP_DEFAULT_BOOT = "bootstrap.defaultboot";
 
+    /**
+     * System property with a directory, in which the default boot plugin caches the metadata of the jars on the
+     * {@link #PROP_CLASSPATH classpath}. If not set, jars are scanned on every start.
+     */
+    public static final String PROP_JAR_CACHE = "bootstrap.jarcache";
+
+    /**
+     * System property with the path to a bootstrap image file, that bundles the jars of the
+     * {@link #PROP_CLASSPATH classpath}. If the file exists, the image boot plugin loads the bootstrap modules from it
+     * and the default boot plugin does not read the classpath.
+     */
+    public static final String PROP_IMAGE = "bootstrap.image";
+
+    /**
+     * System property that is parsed as a boolean value, defaults to {@code false}. If set to {@code true}, the boot
+     * plugins are initialized concurrently. Their results are still merged in the order the plugins were loaded.
+     */
+    public static final String PROP_PARALLEL_BOOT = "bootstrap.parallelboot";
+
+    /**
+     * System property with the path to a resolution lockfile. If the file does not exist or no longer matches the
+     * modules provided by the boot plugins, the bootstrap configuration is resolved as usual and written to the
+     * lockfile. Otherwise, the bootstrap configuration is resolved from the locked modules only.
+     */
+    public static final String PROP_LOCKFILE = "bootstrap.lockfile";
+
+    /**
+     * System property that selects which services are bound when resolving the bootstrap configuration. Either
+     * {@code all}, which is the default, {@code none} or a comma-separated list of service names. Unless all services
+     * are bound, only providers of the selected services and the services requested by
+     * {@link bootstrap.spi.BootPlugin#boundServices() boot plugins} are added to the bootstrap layer. The services of
+     * the launcher itself, such as {@link Entrypoint}, are always bound.
+     */
+    public static final String PROP_SERVICE_BINDING = "bootstrap.servicebinding";
+
     /**
      * System property to set the name of the {@link Entrypoint} to launch.
      */
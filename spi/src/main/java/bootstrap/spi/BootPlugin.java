@@ -39,6 +39,14 @@ public interface BootPlugin {
      */
     ModuleFinder findModules();
 
+    /**
+     * Retrieves the names of services, whose providers should be added to the bootstrap configuration, even if the
+     * {@link bootstrap.api.LauncherConstants#PROP_SERVICE_BINDING service binding policy} does not bind them.
+     */
+    default Set<String> boundServices() {
+        return Set.of();
+    }
+
     /**
      * Invoked after the bootstrap layer has been built but before the {@link Entrypoint entrypoint} starts.
      */